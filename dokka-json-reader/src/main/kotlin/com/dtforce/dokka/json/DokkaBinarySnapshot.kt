@@ -0,0 +1,358 @@
+package com.dtforce.dokka.json
+
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.charset.StandardCharsets
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+/**
+ * Compact, memory mapped snapshot of a Dokka model with lazy lookups.
+ *
+ * Contains only classlikes with their names, DRIs and the first documentation paragraph, and their properties
+ * with the same. Functions and constructors are not part of the snapshot. All strings are interned and length
+ * prefixed, classes are found through an open addressing hash table on their qualified name, so opening
+ * the snapshot reads nothing but the header.
+ *
+ * Layout, all integers big endian:
+ * - header: magic, version, string count, class count, hash table capacity and offsets of the sections below
+ * - string index: offset of each string in the string data
+ * - string data: length and UTF-8 bytes of each string
+ * - documentation: as text string, part count and parts (kind byte, text string and DRI string for links)
+ * - classes: qualified name, name, DRI, package name, package DRI, documentation offset,
+ *   property count and properties (name, DRI, documentation offset)
+ * - hash table: class offset or -1 for each slot
+ */
+class DokkaBinarySnapshot private constructor(private val buffer: ByteBuffer) : DokkaJsonSource {
+
+    private val stringCount = buffer.getInt(8)
+
+    private val tableCapacity = buffer.getInt(16)
+
+    private val stringIndexOffset = buffer.getInt(20)
+
+    private val stringDataOffset = buffer.getInt(24)
+
+    private val documentationOffset = buffer.getInt(28)
+
+    private val classesOffset = buffer.getInt(32)
+
+    private val tableOffset = buffer.getInt(36)
+
+    init {
+        if (buffer.getInt(0) != MAGIC) {
+            throw IllegalArgumentException("Not a Dokka snapshot")
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw IllegalArgumentException("Unsupported Dokka snapshot version ${buffer.getInt(4)}")
+        }
+    }
+
+    fun resolveClass(kClass: Class<*>): DokkaJsonClasslike? {
+        return findClass(qualifiedName(kClass))?.let { readClasslike(it, withMembers = true) }
+    }
+
+    fun resolveProperty(kClass: Class<*>, name: String): DokkaJsonProperty? {
+        val classOffset = findClass(qualifiedName(kClass)) ?: return null
+        var position = classOffset + CLASS_HEADER_SIZE
+        repeat(buffer.getInt(classOffset + CLASS_HEADER_SIZE - 4)) {
+            if (string(buffer.getInt(position)) == name) {
+                return readProperty(position)
+            }
+            position += PROPERTY_SIZE
+        }
+        return null
+    }
+
+    /**
+     * Materializes the requested classes, nested ones inside shells of their enclosing classes.
+     */
+    override fun read(classNames: Collection<String>): DokkaJsonModule {
+        val packages = LinkedHashMap<String, Node>()
+        for (className in classNames) {
+            val qualifiedName = className.replace('$', '.')
+            val classOffset = findClass(qualifiedName) ?: continue
+            val packageName = string(buffer.getInt(classOffset + 12))
+            val packageNode = packages.getOrPut(packageName) { Node(packageName, string(buffer.getInt(classOffset + 16))) }
+            var node = packageNode
+            var prefix = packageName
+            for (segment in qualifiedName.removePrefix("$packageName.").split('.')) {
+                prefix = if (prefix.isEmpty()) segment else "$prefix.$segment"
+                val parent = node
+                node = parent.children.getOrPut(segment) {
+                    // enclosing classes missing in the snapshot are represented by a shell without a DRI
+                    val offset = findClass(prefix)
+                    Node(segment, offset?.let { string(buffer.getInt(it + 8)) } ?: "", offset?.let { readClasslike(it, withMembers = false) })
+                }
+            }
+            node.classlike = readClasslike(classOffset, withMembers = true)
+        }
+        return DokkaJsonModule(
+            name = "snapshot",
+            dri = "",
+            documentation = null,
+            packages = packages.values.map { packageNode ->
+                DokkaJsonPackage(
+                    name = packageNode.name,
+                    dri = packageNode.dri,
+                    documentation = null,
+                    functions = listOf(),
+                    properties = listOf(),
+                    classlikes = packageNode.children.values.map { it.toClasslike() }
+                )
+            }
+        )
+    }
+
+    private fun findClass(qualifiedName: String): Int? {
+        val mask = tableCapacity - 1
+        var slot = spread(qualifiedName.hashCode()) and mask
+        while (true) {
+            val classOffset = buffer.getInt(tableOffset + slot * 4)
+            if (classOffset < 0) {
+                return null
+            }
+            if (string(buffer.getInt(classesOffset + classOffset)) == qualifiedName) {
+                return classesOffset + classOffset
+            }
+            slot = (slot + 1) and mask
+        }
+    }
+
+    private fun readClasslike(classOffset: Int, withMembers: Boolean): DokkaJsonClasslike {
+        val properties = ArrayList<DokkaJsonProperty>()
+        if (withMembers) {
+            var position = classOffset + CLASS_HEADER_SIZE
+            repeat(buffer.getInt(classOffset + CLASS_HEADER_SIZE - 4)) {
+                properties.add(readProperty(position))
+                position += PROPERTY_SIZE
+            }
+        }
+        return DokkaJsonClasslike(
+            name = string(buffer.getInt(classOffset + 4)),
+            dri = string(buffer.getInt(classOffset + 8)),
+            documentation = if (withMembers) readDocumentation(buffer.getInt(classOffset + 20)) else null,
+            constructors = listOf(),
+            functions = listOf(),
+            properties = properties,
+            classlikes = listOf()
+        )
+    }
+
+    private fun readProperty(position: Int): DokkaJsonProperty {
+        return DokkaJsonProperty(
+            name = string(buffer.getInt(position)),
+            dri = string(buffer.getInt(position + 4)),
+            documentation = readDocumentation(buffer.getInt(position + 8)),
+            setter = null,
+            getter = null
+        )
+    }
+
+    private fun readDocumentation(documentationOffset: Int): DokkaDocNode? {
+        if (documentationOffset < 0) {
+            return null
+        }
+        var position = this.documentationOffset + documentationOffset
+        val asText = string(buffer.getInt(position))
+        val partCount = buffer.getInt(position + 4)
+        position += 8
+        val parts = ArrayList<DokkaDocPart>(partCount)
+        repeat(partCount) {
+            val kind = buffer.get(position)
+            val text = string(buffer.getInt(position + 1))
+            position += 5
+            parts.add(
+                when (kind) {
+                    PART_LINK -> DokkaDocLink(string(buffer.getInt(position)), text).also { position += 4 }
+                    PART_CODE -> DokkaDocCodeInline(text)
+                    else -> DokkaDocText(text)
+                }
+            )
+        }
+        return DokkaDocNode(asText, listOf(DokkaDocParagraph(parts)))
+    }
+
+    private fun string(id: Int): String {
+        require(id in 0 until stringCount) { "Invalid string id $id" }
+        val position = stringDataOffset + buffer.getInt(stringIndexOffset + id * 4)
+        val bytes = ByteArray(buffer.getInt(position))
+        buffer.get(position + 4, bytes)
+        return String(bytes, StandardCharsets.UTF_8)
+    }
+
+    private class Node(val name: String, val dri: String, var classlike: DokkaJsonClasslike? = null) {
+
+        val children = LinkedHashMap<String, Node>()
+
+        fun toClasslike(): DokkaJsonClasslike {
+            val classlikes = children.values.map { it.toClasslike() }
+            return classlike?.copy(classlikes = classlikes)
+                ?: DokkaJsonClasslike(name, dri, null, listOf(), listOf(), listOf(), classlikes)
+        }
+    }
+
+    private class Section(val bytes: ByteArrayOutputStream = ByteArrayOutputStream()) : DataOutputStream(bytes)
+
+    /**
+     * Collects the snapshot sections while traversing the model.
+     */
+    private class Writer {
+
+        val strings = LinkedHashMap<String, Int>()
+
+        val documentation = Section()
+
+        val classes = Section()
+
+        val classOffsets = LinkedHashMap<String, Int>()
+
+        fun intern(value: String): Int {
+            return strings.getOrPut(value) { strings.size }
+        }
+
+        fun writeClasslikes(dokkaPackage: DokkaJsonPackage, prefix: String, classlikes: List<DokkaJsonClasslike>) {
+            for (classlike in classlikes) {
+                val name = classlike.name ?: continue
+                val qualifiedName = if (prefix.isEmpty()) name else "$prefix.$name"
+                if (!classOffsets.containsKey(qualifiedName)) {
+                    classOffsets[qualifiedName] = classes.size()
+                    classes.writeInt(intern(qualifiedName))
+                    classes.writeInt(intern(name))
+                    classes.writeInt(intern(classlike.dri))
+                    classes.writeInt(intern(dokkaPackage.name))
+                    classes.writeInt(intern(dokkaPackage.dri))
+                    classes.writeInt(writeDocumentation(classlike.documentation))
+                    classes.writeInt(classlike.properties.size)
+                    for (property in classlike.properties) {
+                        classes.writeInt(intern(property.name))
+                        classes.writeInt(intern(property.dri))
+                        classes.writeInt(writeDocumentation(property.documentation))
+                    }
+                }
+                writeClasslikes(dokkaPackage, qualifiedName, classlike.classlikes)
+            }
+        }
+
+        private fun writeDocumentation(node: DokkaDocNode?): Int {
+            val paragraph = node?.paragraphs?.firstOrNull() ?: return -1
+            val offset = documentation.size()
+            documentation.writeInt(intern(node.asText))
+            documentation.writeInt(paragraph.docParts.size)
+            for (part in paragraph.docParts) {
+                when (part) {
+                    is DokkaDocLink -> {
+                        documentation.writeByte(PART_LINK.toInt())
+                        documentation.writeInt(intern(part.text))
+                        documentation.writeInt(intern(part.dri))
+                    }
+                    is DokkaDocCodeInline -> {
+                        documentation.writeByte(PART_CODE.toInt())
+                        documentation.writeInt(intern(part.text))
+                    }
+                    else -> {
+                        documentation.writeByte(PART_TEXT.toInt())
+                        documentation.writeInt(intern(part.text))
+                    }
+                }
+            }
+            return offset
+        }
+    }
+
+    companion object {
+
+        private const val MAGIC = 0x444b534e // DKSN
+
+        private const val VERSION = 1
+
+        private const val HEADER_SIZE = 40
+
+        private const val CLASS_HEADER_SIZE = 28
+
+        private const val PROPERTY_SIZE = 12
+
+        private const val PART_TEXT: Byte = 0
+
+        private const val PART_LINK: Byte = 1
+
+        private const val PART_CODE: Byte = 2
+
+        /**
+         * Maps the snapshot file into memory, the mapping stays valid after the file channel is closed.
+         */
+        fun open(path: Path): DokkaBinarySnapshot {
+            FileChannel.open(path, StandardOpenOption.READ).use { channel ->
+                return DokkaBinarySnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()))
+            }
+        }
+
+        fun write(dokkaJsonModule: DokkaJsonModule, outputStream: OutputStream) {
+            val writer = Writer()
+            for (dokkaPackage in dokkaJsonModule.packages) {
+                writer.writeClasslikes(dokkaPackage, dokkaPackage.name, dokkaPackage.classlikes)
+            }
+
+            val stringIndex = Section()
+            val stringData = Section()
+            for (value in writer.strings.keys) {
+                val bytes = value.toByteArray(StandardCharsets.UTF_8)
+                stringIndex.writeInt(stringData.size())
+                stringData.writeInt(bytes.size)
+                stringData.write(bytes)
+            }
+
+            var capacity = 1
+            while (capacity < writer.classOffsets.size * 2) {
+                capacity = capacity shl 1
+            }
+            val table = IntArray(capacity) { -1 }
+            for ((qualifiedName, classOffset) in writer.classOffsets) {
+                var slot = spread(qualifiedName.hashCode()) and (capacity - 1)
+                while (table[slot] >= 0) {
+                    slot = (slot + 1) and (capacity - 1)
+                }
+                table[slot] = classOffset
+            }
+
+            val stringIndexOffset = HEADER_SIZE
+            val stringDataOffset = stringIndexOffset + stringIndex.size()
+            val documentationOffset = stringDataOffset + stringData.size()
+            val classesOffset = documentationOffset + writer.documentation.size()
+            val tableOffset = classesOffset + writer.classes.size()
+
+            val output = DataOutputStream(outputStream)
+            output.writeInt(MAGIC)
+            output.writeInt(VERSION)
+            output.writeInt(writer.strings.size)
+            output.writeInt(writer.classOffsets.size)
+            output.writeInt(capacity)
+            output.writeInt(stringIndexOffset)
+            output.writeInt(stringDataOffset)
+            output.writeInt(documentationOffset)
+            output.writeInt(classesOffset)
+            output.writeInt(tableOffset)
+            for (section in listOf(stringIndex, stringData, writer.documentation, writer.classes)) {
+                section.bytes.writeTo(output)
+            }
+            for (slot in table) {
+                output.writeInt(slot)
+            }
+            output.flush()
+        }
+
+        private fun spread(hash: Int): Int {
+            return hash xor (hash ushr 16)
+        }
+
+        private fun qualifiedName(kClass: Class<*>): String {
+            val packageName = kClass.packageName
+            val binaryName = if (packageName.isEmpty()) kClass.name else kClass.name.substring(packageName.length + 1)
+            val nestedName = binaryName.replace('$', '.')
+            return if (packageName.isEmpty()) nestedName else "$packageName.$nestedName"
+        }
+    }
+}
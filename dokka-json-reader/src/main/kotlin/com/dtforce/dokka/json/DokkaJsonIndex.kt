@@ -0,0 +1,67 @@
+package com.dtforce.dokka.json
+
+import kotlin.reflect.KClass
+
+/**
+ * Hash based lookup of classlikes and their properties, built once from a [DokkaJsonModule].
+ *
+ * Nested classlikes are indexed by their qualified name, e.g. `com.example.Outer.Inner`. When more classlikes
+ * share a name, the first one in the module wins.
+ */
+class DokkaJsonIndex(dokkaJsonModule: DokkaJsonModule) {
+
+    private val classesByName = HashMap<String, DokkaJsonClasslike>()
+
+    private val classesByDri = HashMap<String, DokkaJsonClasslike>()
+
+    private val propertiesByName = HashMap<String, DokkaJsonProperty>()
+
+    init {
+        for (dokkaPackage in dokkaJsonModule.packages) {
+            indexClasslikes(dokkaPackage.name, dokkaPackage.classlikes)
+        }
+    }
+
+    fun resolveClass(kClass: KClass<*>): DokkaJsonClasslike? {
+        return resolveClass(kClass.java)
+    }
+
+    fun resolveClass(kClass: Class<*>): DokkaJsonClasslike? {
+        return classesByName[qualifiedName(kClass)]
+    }
+
+    fun resolveClass(dri: String): DokkaJsonClasslike? {
+        return classesByDri[dri]
+    }
+
+    fun resolveProperty(kClass: Class<*>, name: String): DokkaJsonProperty? {
+        return propertiesByName[propertyKey(qualifiedName(kClass), name)]
+    }
+
+    private fun indexClasslikes(prefix: String, classlikes: List<DokkaJsonClasslike>) {
+        for (classlike in classlikes) {
+            classesByDri.putIfAbsent(classlike.dri, classlike)
+            val name = classlike.name ?: continue
+            val qualifiedName = qualify(prefix, name)
+            classesByName.putIfAbsent(qualifiedName, classlike)
+            for (property in classlike.properties) {
+                propertiesByName.putIfAbsent(propertyKey(qualifiedName, property.name), property)
+            }
+            indexClasslikes(qualifiedName, classlike.classlikes)
+        }
+    }
+
+    private fun qualifiedName(kClass: Class<*>): String {
+        val packageName = kClass.packageName
+        val binaryName = if (packageName.isEmpty()) kClass.name else kClass.name.substring(packageName.length + 1)
+        return qualify(packageName, binaryName.replace('$', '.'))
+    }
+
+    private fun qualify(prefix: String, name: String): String {
+        return if (prefix.isEmpty()) name else "$prefix.$name"
+    }
+
+    private fun propertyKey(className: String, propertyName: String): String {
+        return "$className#$propertyName"
+    }
+}
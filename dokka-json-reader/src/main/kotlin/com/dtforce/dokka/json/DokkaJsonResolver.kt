@@ -5,6 +5,7 @@ import com.fasterxml.jackson.module.kotlin.KotlinModule
 import com.fasterxml.jackson.module.kotlin.readValue
 import java.io.File
 import java.lang.reflect.Method
+import java.nio.file.Path
 import kotlin.reflect.KClass
 import kotlin.reflect.KFunction
 
@@ -21,6 +22,20 @@ object DokkaJsonResolver {
         return objectMapper.readValue(File(path))
     }
 
+    /**
+     * Reads only the given classes, see [DokkaJsonStreamingReader].
+     */
+    fun read(path: String, classNames: Collection<String>): DokkaJsonModule {
+        return DokkaJsonStreamingReader(objectMapper).read(path, classNames)
+    }
+
+    /**
+     * Opens the binary snapshot written next to the JSON, see [DokkaBinarySnapshot].
+     */
+    fun openSnapshot(path: String): DokkaBinarySnapshot {
+        return DokkaBinarySnapshot.open(Path.of(path))
+    }
+
     fun driToClassName(dri: String): String {
         return dri.replace("///PointingToDeclaration/", "").replace("/", ".")
     }
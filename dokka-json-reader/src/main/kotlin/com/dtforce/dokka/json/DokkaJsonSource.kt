@@ -0,0 +1,12 @@
+package com.dtforce.dokka.json
+
+/**
+ * Provides the Dokka model for the given classes, the model may contain other classes as well.
+ */
+fun interface DokkaJsonSource {
+
+    /**
+     * @param classNames binary names of the classes, see [Class.getName]
+     */
+    fun read(classNames: Collection<String>): DokkaJsonModule
+}
@@ -0,0 +1,227 @@
+package com.dtforce.dokka.json
+
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.core.JsonToken
+import com.fasterxml.jackson.core.type.TypeReference
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import java.io.File
+
+/**
+ * Reads the Dokka JSON as a token stream and materializes only the requested classes, their enclosing classes
+ * and packages. Everything else is skipped, so memory scales with the number of requested classes instead of
+ * the size of the documented codebase.
+ *
+ * Enclosing classes and packages are materialized without their own members. Fields which precede `name`
+ * in an object are buffered until the name is known, the renderer always writes `name` first.
+ */
+class DokkaJsonStreamingReader(
+    private val objectMapper: ObjectMapper = DokkaJsonResolver.createObjectMapper()
+) {
+
+    fun read(path: String, classNames: Collection<String>): DokkaJsonModule {
+        val filter = ClassNameFilter(classNames)
+        objectMapper.factory.createParser(File(path)).use { parser ->
+            parser.nextToken()
+            return readModule(parser, filter)
+        }
+    }
+
+    /**
+     * Streaming [DokkaJsonSource] reading the file at the given path.
+     */
+    fun source(path: String): DokkaJsonSource {
+        return DokkaJsonSource { classNames -> read(path, classNames) }
+    }
+
+    private fun readModule(parser: JsonParser, filter: ClassNameFilter): DokkaJsonModule {
+        expect(parser, JsonToken.START_OBJECT)
+        var name: String? = null
+        var dri: String? = null
+        var documentation: DokkaDocNode? = null
+        val packages = ArrayList<DokkaJsonPackage>()
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName
+            parser.nextToken()
+            when (field) {
+                "name" -> name = parser.valueAsString
+                "dri" -> dri = parser.valueAsString
+                "documentation" -> documentation = objectMapper.readValue(parser, DokkaDocNode::class.java)
+                "packages" -> forEachObject(parser) { readPackage(it, filter)?.let { dokkaPackage -> packages.add(dokkaPackage) } }
+                else -> parser.skipChildren()
+            }
+        }
+        return DokkaJsonModule(
+            name = requireNotNull(name) { "Dokka module without name" },
+            dri = requireNotNull(dri) { "Dokka module without dri" },
+            documentation = documentation,
+            packages = packages
+        )
+    }
+
+    private fun readPackage(parser: JsonParser, filter: ClassNameFilter): DokkaJsonPackage? {
+        var name: String? = null
+        var dri: String? = null
+        val classlikes = ArrayList<DokkaJsonClasslike>()
+        forEachFieldAfterName(parser, { name = it }) { field, fieldParser ->
+            val packageName = name
+            if (packageName == null || !filter.isEnclosing(packageName)) {
+                fieldParser.skipChildren()
+            } else {
+                when (field) {
+                    "dri" -> dri = fieldParser.valueAsString
+                    "classlikes" -> forEachObject(fieldParser) { readClasslike(it, packageName, filter)?.let { classlike -> classlikes.add(classlike) } }
+                    else -> fieldParser.skipChildren()
+                }
+            }
+        }
+        val packageName = name
+        if (packageName == null || classlikes.isEmpty()) {
+            return null
+        }
+        return DokkaJsonPackage(
+            name = packageName,
+            dri = requireNotNull(dri) { "Dokka package $packageName without dri" },
+            documentation = null,
+            functions = listOf(),
+            properties = listOf(),
+            classlikes = classlikes
+        )
+    }
+
+    private fun readClasslike(parser: JsonParser, prefix: String, filter: ClassNameFilter): DokkaJsonClasslike? {
+        var name: String? = null
+        var qualifiedName: String? = null
+        var dri: String? = null
+        var documentation: DokkaDocNode? = null
+        var constructors: List<DokkaJsonFunction> = listOf()
+        var functions: List<DokkaJsonFunction> = listOf()
+        var properties: List<DokkaJsonProperty> = listOf()
+        val classlikes = ArrayList<DokkaJsonClasslike>()
+        forEachFieldAfterName(parser, { name = it; qualifiedName = it?.let { qualify(prefix, it) } }) { field, fieldParser ->
+            val className = qualifiedName
+            val requested = className != null && filter.isRequested(className)
+            val enclosing = className != null && filter.isEnclosing(className)
+            when {
+                field == "dri" && (requested || enclosing) -> dri = fieldParser.valueAsString
+                field == "classlikes" && enclosing -> forEachObject(fieldParser) {
+                    readClasslike(it, className!!, filter)?.let { classlike -> classlikes.add(classlike) }
+                }
+                !requested -> fieldParser.skipChildren()
+                field == "documentation" -> documentation = objectMapper.readValue(fieldParser, DokkaDocNode::class.java)
+                field == "constructors" -> constructors = readList(fieldParser, FUNCTIONS)
+                field == "functions" -> functions = readList(fieldParser, FUNCTIONS)
+                field == "properties" -> properties = readList(fieldParser, PROPERTIES)
+                else -> fieldParser.skipChildren()
+            }
+        }
+        val className = qualifiedName ?: return null
+        if (!filter.isRequested(className) && classlikes.isEmpty()) {
+            return null
+        }
+        return DokkaJsonClasslike(
+            name = name,
+            dri = requireNotNull(dri) { "Dokka classlike $className without dri" },
+            documentation = documentation,
+            constructors = constructors,
+            functions = functions,
+            properties = properties,
+            classlikes = classlikes
+        )
+    }
+
+    /**
+     * Calls [onField] for each field of the current object except `name`, which is passed to [onName] first.
+     */
+    private fun forEachFieldAfterName(
+        parser: JsonParser,
+        onName: (String?) -> Unit,
+        onField: (String, JsonParser) -> Unit
+    ) {
+        expect(parser, JsonToken.START_OBJECT)
+        val buffered = LinkedHashMap<String, JsonNode>()
+        var nameRead = false
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val field = parser.currentName
+            parser.nextToken()
+            if (field == "name") {
+                onName(parser.valueAsString)
+                nameRead = true
+                replay(buffered, onField)
+            } else if (nameRead) {
+                onField(field, parser)
+            } else {
+                buffered[field] = objectMapper.readTree(parser)
+            }
+        }
+        if (!nameRead) {
+            onName(null)
+            replay(buffered, onField)
+        }
+    }
+
+    private fun replay(buffered: MutableMap<String, JsonNode>, onField: (String, JsonParser) -> Unit) {
+        for ((field, node) in buffered) {
+            node.traverse(objectMapper).use {
+                it.nextToken()
+                onField(field, it)
+            }
+        }
+        buffered.clear()
+    }
+
+    private fun forEachObject(parser: JsonParser, onObject: (JsonParser) -> Unit) {
+        if (parser.currentToken == JsonToken.VALUE_NULL) {
+            return
+        }
+        expect(parser, JsonToken.START_ARRAY)
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            onObject(parser)
+        }
+        expect(parser, JsonToken.END_ARRAY)
+    }
+
+    private fun <T> readList(parser: JsonParser, type: TypeReference<List<T>>): List<T> {
+        return objectMapper.readValue(parser, type) ?: listOf()
+    }
+
+    private fun expect(parser: JsonParser, token: JsonToken) {
+        if (parser.currentToken != token) {
+            throw IllegalStateException("Expected $token but got ${parser.currentToken} at ${parser.currentLocation}")
+        }
+    }
+
+    private fun qualify(prefix: String, name: String): String {
+        return if (prefix.isEmpty()) name else "$prefix.$name"
+    }
+
+    private class ClassNameFilter(classNames: Collection<String>) {
+
+        private val requested = HashSet<String>()
+
+        private val enclosing = HashSet<String>()
+
+        init {
+            for (className in classNames) {
+                val qualifiedName = className.replace('$', '.')
+                requested.add(qualifiedName)
+                enclosing.add("")
+                var idx = qualifiedName.indexOf('.')
+                while (idx >= 0) {
+                    enclosing.add(qualifiedName.substring(0, idx))
+                    idx = qualifiedName.indexOf('.', idx + 1)
+                }
+            }
+        }
+
+        fun isRequested(qualifiedName: String) = qualifiedName in requested
+
+        fun isEnclosing(qualifiedName: String) = qualifiedName in enclosing
+    }
+
+    companion object {
+        private val FUNCTIONS = object : TypeReference<List<DokkaJsonFunction>>() {}
+
+        private val PROPERTIES = object : TypeReference<List<DokkaJsonProperty>>() {}
+    }
+}
@@ -68,10 +68,22 @@ class DokkaJsonRenderer(private val context: DokkaContext) : Renderer {
                 val dModule = root.documentables.get(0) as DModule
                 val moduleDocs = convertModule(dModule)
                 outputWriter.write(path, objectMapper.writeValueAsString(moduleDocs), ".json")
+                writeSnapshot(path, moduleDocs)
             }
         }
     }
 
+    /**
+     * Writes the binary snapshot next to the JSON, see [DokkaBinarySnapshot].
+     */
+    private fun writeSnapshot(path: String, moduleDocs: DokkaJsonModule) {
+        val snapshotFile = context.configuration.outputDir.resolve("$path$SNAPSHOT_EXTENSION")
+        snapshotFile.parentFile.mkdirs()
+        snapshotFile.outputStream().buffered().use {
+            DokkaBinarySnapshot.write(moduleDocs, it)
+        }
+    }
+
     private fun convertModule(dModule: DModule): DokkaJsonModule {
         return DokkaJsonModule(
             name = dModule.name,
@@ -196,4 +208,8 @@ class DokkaJsonRenderer(private val context: DokkaContext) : Renderer {
             documentation = convertMultiDocs(dParameter.documentation),
         )
     }
+
+    companion object {
+        const val SNAPSHOT_EXTENSION = ".snapshot"
+    }
 }
@@ -1,3 +1,4 @@
+import com.dtforce.dokka.json.DokkaJsonIndex
 import com.dtforce.dokka.json.DokkaJsonResolver
 import com.dtforce.migen.platform.MigenSqlBuilder
 import org.junit.jupiter.api.Assertions
@@ -22,4 +23,38 @@ class TestResolver {
         Assertions.assertNotNull(dokkaJsonFunction)
         Assertions.assertEquals("Clones the sql builder.", dokkaJsonFunction!!.documentation!!.asText)
     }
+
+    @Test
+    fun indexedClassLookup() {
+        val read = DokkaJsonResolver.read("../build/dokka/html/index.json")
+        val index = DokkaJsonIndex(read)
+        val dokkaJsonClasslike = index.resolveClass(MigenSqlBuilder::class.java)
+        Assertions.assertNotNull(dokkaJsonClasslike)
+        Assertions.assertSame(DokkaJsonResolver.resolveClass(read, MigenSqlBuilder::class.java), dokkaJsonClasslike)
+        Assertions.assertSame(dokkaJsonClasslike, index.resolveClass(dokkaJsonClasslike!!.dri))
+    }
+
+    @Test
+    fun streamingReadOnlyRequestedClasses() {
+        val read = DokkaJsonResolver.read("../build/dokka/html/index.json", listOf(MigenSqlBuilder::class.java.name))
+        Assertions.assertEquals(1, read.packages.size)
+        Assertions.assertEquals(1, read.packages.single().classlikes.size)
+        val dokkaJsonFunction = DokkaJsonResolver.resolveMethod(read, MigenSqlBuilder::clone, MigenSqlBuilder::class)
+        Assertions.assertNotNull(dokkaJsonFunction)
+        Assertions.assertEquals("Clones the sql builder.", dokkaJsonFunction!!.documentation!!.asText)
+    }
+
+    @Test
+    fun snapshotMatchesJson() {
+        val read = DokkaJsonResolver.read("../build/dokka/html/index.json")
+        val snapshot = DokkaJsonResolver.openSnapshot("../build/dokka/html/index.snapshot")
+        val expected = DokkaJsonIndex(read).resolveClass(MigenSqlBuilder::class.java)!!
+        val actual = snapshot.resolveClass(MigenSqlBuilder::class.java)
+        Assertions.assertNotNull(actual)
+        Assertions.assertEquals(expected.dri, actual!!.dri)
+        Assertions.assertEquals(expected.documentation?.paragraphs?.firstOrNull(), actual.documentation?.paragraphs?.firstOrNull())
+        Assertions.assertEquals(expected.properties.map { it.name }, actual.properties.map { it.name })
+        val indexed = DokkaJsonIndex(snapshot.read(listOf(MigenSqlBuilder::class.java.name)))
+        Assertions.assertEquals(actual, indexed.resolveClass(MigenSqlBuilder::class.java))
+    }
 }
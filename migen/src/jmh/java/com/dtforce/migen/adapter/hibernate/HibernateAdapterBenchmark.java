@@ -0,0 +1,167 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.adapter.hibernate;
+
+import org.apache.ddlutils.model.Database;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.Table;
+import org.hibernate.tool.schema.internal.DefaultSchemaFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dtforce.migen.adapter.hibernate.integration.HibernateInfoHolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the indexed metamodel lookups of {@link HibernateAdapter} with the per-table and per-column scans
+ * they replaced, on a generated metamodel of dynamic-map entities, each with an element collection table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HibernateAdapterBenchmark
+{
+
+	@Param({"2000"})
+	private int entityCount;
+
+	private StandardServiceRegistry serviceRegistry;
+
+	private SessionFactory sessionFactory;
+
+	private Metadata metadata;
+
+	private HibernateAdapter hibernateAdapter;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		serviceRegistry = new StandardServiceRegistryBuilder()
+			.applySetting("hibernate.connection.url", "jdbc:h2:mem:benchmark")
+			.applySetting("hibernate.dialect", "org.hibernate.dialect.H2Dialect")
+			.applySetting("hibernate.hbm2ddl.auto", "none")
+			.build();
+		metadata = new MetadataSources(serviceRegistry)
+			.addInputStream(new ByteArrayInputStream(generateMapping(entityCount).getBytes(StandardCharsets.UTF_8)))
+			.buildMetadata();
+		// registers the metamodel in HibernateInfoHolder through HibernateInfoIntegrator
+		sessionFactory = metadata.buildSessionFactory();
+		hibernateAdapter = new HibernateAdapter(
+			HibernateInfoHolder.INSTANCE,
+			DefaultSchemaFilter.INSTANCE,
+			null,
+			null
+		);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		sessionFactory.close();
+		StandardServiceRegistryBuilder.destroy(serviceRegistry);
+	}
+
+	@Benchmark
+	public void indexedLookups(final Blackhole blackhole)
+	{
+		final HibernateMetadataIndex metadataIndex = new HibernateMetadataIndex(metadata);
+		for (Namespace namespace : metadata.getDatabase().getNamespaces()) {
+			for (Table table : namespace.getTables()) {
+				final var entity = metadataIndex.findEntity(table);
+				blackhole.consume(metadataIndex.findCollection(table));
+				final var propertiesByColumn = entity.map(HibernateMetadataIndex::propertiesByColumn);
+				for (Column column : table.getColumns()) {
+					blackhole.consume(propertiesByColumn.map(it -> it.get(column)));
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void scanningLookups(final Blackhole blackhole)
+	{
+		for (Namespace namespace : metadata.getDatabase().getNamespaces()) {
+			for (Table table : namespace.getTables()) {
+				final var entity = metadata.getEntityBindings()
+					.stream()
+					.filter(it -> it.getTable() == table)
+					.findFirst();
+				blackhole.consume(
+					metadata.getCollectionBindings()
+						.stream()
+						.filter(it -> it.getCollectionTable() == table)
+						.findFirst()
+				);
+				for (Column column : table.getColumns()) {
+					blackhole.consume(
+						entity.flatMap(persistentClass -> persistentClass.getProperties()
+							.stream()
+							.filter(it -> it.getColumns().contains(column))
+							.findFirst())
+					);
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public Database schemaDatabase()
+	{
+		return hibernateAdapter.getSchemaDatabase();
+	}
+
+	private static String generateMapping(final int entityCount)
+	{
+		final StringBuilder mapping = new StringBuilder("<?xml version=\"1.0\"?>\n<hibernate-mapping>\n");
+		for (int i = 0; i < entityCount; i++) {
+			mapping.append("<class entity-name=\"Entity").append(i).append("\" table=\"entity_").append(i).append("\">")
+				.append("<id name=\"id\" type=\"long\" column=\"id\"/>")
+				.append("<property name=\"name\" type=\"string\" column=\"name\" length=\"128\"/>")
+				.append("<property name=\"amount\" type=\"big_decimal\" column=\"amount\" precision=\"19\" scale=\"2\"/>")
+				.append("<property name=\"created\" type=\"timestamp\" column=\"created\" not-null=\"true\"/>");
+			if (i > 0) {
+				mapping.append("<many-to-one name=\"parent\" entity-name=\"Entity").append(i - 1)
+					.append("\" column=\"parent_id\"/>");
+			}
+			mapping.append("<set name=\"tags\" table=\"entity_").append(i).append("_tags\">")
+				.append("<key column=\"owner_id\"/>")
+				.append("<element column=\"tag\" type=\"string\"/>")
+				.append("</set>")
+				.append("</class>\n");
+		}
+		return mapping.append("</hibernate-mapping>\n").toString();
+	}
+
+}
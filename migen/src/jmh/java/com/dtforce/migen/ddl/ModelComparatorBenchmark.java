@@ -0,0 +1,145 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.ddl;
+
+import org.apache.ddlutils.PlatformInfo;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.ForeignKey;
+import org.apache.ddlutils.model.Index;
+import org.apache.ddlutils.model.IndexColumn;
+import org.apache.ddlutils.model.NonUniqueIndex;
+import org.apache.ddlutils.model.Reference;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.model.UniqueIndex;
+import org.apache.ddlutils.platform.postgresql.PostgreSqlPlatform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link IndexedModelComparator} with the scanning {@link CustomModelComparator} on two generated
+ * models, which differ in a few percent of their tables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ModelComparatorBenchmark
+{
+
+	@Param({"5000"})
+	private int tableCount;
+
+	private PlatformInfo platformInfo;
+
+	private Database sourceModel;
+
+	private Database targetModel;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		platformInfo = new PostgreSqlPlatform().getPlatformInfo();
+		sourceModel = generateModel(tableCount, false);
+		targetModel = generateModel(tableCount, true);
+	}
+
+	@Benchmark
+	public List scanningComparator()
+	{
+		return new CustomModelComparator(platformInfo, false).compare(sourceModel, targetModel);
+	}
+
+	@Benchmark
+	public List indexedComparator()
+	{
+		return new IndexedModelComparator(platformInfo, false).compare(sourceModel, targetModel);
+	}
+
+	@Benchmark
+	public List indexedComparatorCaseSensitive()
+	{
+		return new IndexedModelComparator(platformInfo, true).compare(sourceModel, targetModel);
+	}
+
+	/**
+	 * Every table references the previous one, the changed model adds a column to every 10th table, swaps
+	 * an index of every 25th table and renames every 100th table.
+	 */
+	private static Database generateModel(final int tableCount, final boolean changed)
+	{
+		final Database model = new Database();
+		model.setName("benchmark");
+		for (int i = 0; i < tableCount; i++) {
+			final Table table = new Table();
+			table.setName(changed && i % 100 == 99 ? "renamed_" + i : "table_" + i);
+			table.setDescription("Table " + i);
+			table.addColumn(column("id", Types.BIGINT, null, true));
+			table.addColumn(column("name", Types.VARCHAR, "128", false));
+			table.addColumn(column("amount", Types.NUMERIC, "19,2", false));
+			table.addColumn(column("created", Types.TIMESTAMP, null, false));
+			table.addColumn(column("parent_id", Types.BIGINT, null, false));
+			if (changed && i % 10 == 0) {
+				table.addColumn(column("note", Types.VARCHAR, "255", false));
+			}
+
+			final boolean uniqueName = changed && i % 25 == 0;
+			final Index nameIndex = uniqueName ? new UniqueIndex() : new NonUniqueIndex();
+			nameIndex.setName("ix_" + i + "_name");
+			nameIndex.addColumn(new IndexColumn("name"));
+			table.addIndex(nameIndex);
+			final var createdIndex = new NonUniqueIndex();
+			createdIndex.setName("ix_" + i + "_created");
+			createdIndex.addColumn(new IndexColumn("created"));
+			table.addIndex(createdIndex);
+
+			if (i > 0) {
+				final ForeignKey foreignKey = new ForeignKey("fk_" + i + "_parent");
+				foreignKey.setForeignTableName("table_" + (i - 1));
+				final Reference reference = new Reference();
+				reference.setLocalColumnName("parent_id");
+				reference.setForeignColumnName("id");
+				foreignKey.addReference(reference);
+				table.addForeignKey(foreignKey);
+			}
+			model.addTable(table);
+		}
+		return model;
+	}
+
+	private static Column column(final String name, final int typeCode, final String size, final boolean primaryKey)
+	{
+		final Column column = new Column();
+		column.setName(name);
+		column.setTypeCode(typeCode);
+		column.setSize(size);
+		column.setPrimaryKey(primaryKey);
+		column.setRequired(primaryKey);
+		return column;
+	}
+
+}
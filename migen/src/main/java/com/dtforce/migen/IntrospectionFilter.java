@@ -0,0 +1,60 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Selects the live tables, which are introspected. A table is read when its name matches any of the included
+ * patterns, or no pattern is included, and none of the excluded ones. Patterns are case-insensitive regular
+ * expressions matching the whole table name.
+ * <p>
+ * Only tables not mapped by entities should be left out, a mapped table missing in the live model
+ * is created by the migration.
+ */
+public class IntrospectionFilter implements Predicate<String>
+{
+
+	private final List<Pattern> includes = new ArrayList<>();
+
+	private final List<Pattern> excludes = new ArrayList<>();
+
+	public IntrospectionFilter withInclude(String pattern)
+	{
+		includes.add(Pattern.compile(pattern, Pattern.CASE_INSENSITIVE));
+		return this;
+	}
+
+	public IntrospectionFilter withExclude(String pattern)
+	{
+		excludes.add(Pattern.compile(pattern, Pattern.CASE_INSENSITIVE));
+		return this;
+	}
+
+	@Override
+	public boolean test(String tableName)
+	{
+		if (!includes.isEmpty() && includes.stream().noneMatch(it -> it.matcher(tableName).matches())) {
+			return false;
+		}
+		return excludes.stream().noneMatch(it -> it.matcher(tableName).matches());
+	}
+
+}
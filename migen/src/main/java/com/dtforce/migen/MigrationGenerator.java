@@ -16,25 +16,62 @@
 
 package com.dtforce.migen;
 
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ddlutils.DatabaseOperationException;
+import org.apache.ddlutils.alteration.AddColumnChange;
+import org.apache.ddlutils.alteration.ColumnChange;
 import org.apache.ddlutils.alteration.ColumnOrderChange;
 import org.apache.ddlutils.alteration.ModelChange;
+import org.apache.ddlutils.alteration.RemoveColumnChange;
 import org.apache.ddlutils.alteration.RemoveTableChange;
+import org.apache.ddlutils.alteration.TableChange;
 import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.ForeignKey;
+import org.apache.ddlutils.model.Table;
 import org.springframework.jdbc.datasource.DataSourceUtils;
 
 import com.dtforce.migen.adapter.MetadataAdapter;
+import com.dtforce.migen.cache.LiveModelSnapshot;
+import com.dtforce.migen.ddl.ModelFingerprint;
 import com.dtforce.migen.platform.MigenPlatform;
 import com.dtforce.migen.platform.MigenSqlBuilder;
+import com.dtforce.migen.platform.SqlPatchOptions;
 
+import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import javax.sql.DataSource;
 
 /**
  * Test
  */
+@Slf4j
 public class MigrationGenerator
 {
 
@@ -58,6 +95,20 @@ public class MigrationGenerator
 
 	private final String schemaPattern;
 
+	private int introspectionParallelism = 1;
+
+	private IntrospectionFilter introspectionFilter;
+
+	private boolean mappedTablesOnly;
+
+	private int diffParallelism = 1;
+
+	private int schemaParallelism = 1;
+
+	private final SqlPatchOptions patchOptions = new SqlPatchOptions();
+
+	private Path modelSnapshotPath;
+
 	public MigrationGenerator(
 		final MetadataAdapter metadataAdapter,
 		final DataSource dataSource,
@@ -84,6 +135,162 @@ public class MigrationGenerator
 		this.schemaPattern = schemaPattern;
 	}
 
+	/**
+	 * Reads the live schema over multiple connections, each reading a disjoint subset of tables.
+	 * Uses up to {@code parallelism + 1} connections at once, so keep it below the size of the connection pool.
+	 */
+	public MigrationGenerator withIntrospectionParallelism(int parallelism)
+	{
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Introspection parallelism must be positive, got " + parallelism);
+		}
+		this.introspectionParallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Introspects only the live tables accepted by the filter, the other tables are skipped before any
+	 * of their metadata is queried.
+	 */
+	public MigrationGenerator withIntrospectionFilter(IntrospectionFilter introspectionFilter)
+	{
+		this.introspectionFilter = introspectionFilter;
+		return this;
+	}
+
+	/**
+	 * Introspects only the live tables mapped by entities. Tables no longer mapped are then never dropped
+	 * by the migration.
+	 */
+	public MigrationGenerator withMappedTablesOnly(boolean mappedTablesOnly)
+	{
+		this.mappedTablesOnly = mappedTablesOnly;
+		return this;
+	}
+
+	/**
+	 * Compares the tables of the live and the desired model on up to {@code parallelism} threads.
+	 * The generated migration is the same as with the sequential comparison.
+	 */
+	public MigrationGenerator withDiffParallelism(int parallelism)
+	{
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Diff parallelism must be positive, got " + parallelism);
+		}
+		this.diffParallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Introspects up to {@code parallelism} schemas at once in {@link #generateSchemaMigrations(String)}, each over
+	 * its own connection. Combined with introspection parallelism, it multiplies the number of connections used.
+	 */
+	public MigrationGenerator withSchemaParallelism(int parallelism)
+	{
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Schema parallelism must be positive, got " + parallelism);
+		}
+		this.schemaParallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Creates and drops non-unique indices of existing tables with {@code CREATE/DROP INDEX CONCURRENTLY}, which
+	 * does not block writes to the table. The statements cannot run in a transaction, so they are written only
+	 * by the methods taking a separate non-transactional writer or file.
+	 */
+	public MigrationGenerator withConcurrentIndexes(boolean concurrentIndexes)
+	{
+		patchOptions.withConcurrentIndexes(concurrentIndexes);
+		return this;
+	}
+
+	/**
+	 * Adds foreign keys to existing tables as {@code NOT VALID}, which skips checking the existing rows, and
+	 * validates them by {@code ALTER TABLE ... VALIDATE CONSTRAINT}, which does not block writes. The validation
+	 * goes to the non-transactional writer or file when there is one, otherwise to the end of the migration, when
+	 * each statement runs in its own transaction. Without either, the foreign keys are added as valid.
+	 */
+	public MigrationGenerator withNotValidForeignKeys(boolean notValidForeignKeys)
+	{
+		patchOptions.withNotValidForeignKeys(notValidForeignKeys);
+		return this;
+	}
+
+	/**
+	 * Allows applying changes, which cannot be done in place, by rebuilding the table. The table is copied twice
+	 * under an exclusive lock, so generating such a migration fails unless enabled.
+	 */
+	public MigrationGenerator withTableRebuild(boolean tableRebuild)
+	{
+		patchOptions.withTableRebuild(tableRebuild);
+		return this;
+	}
+
+	/**
+	 * Adds new required columns without a default as nullable, fills them by batched updates of the given size
+	 * and then sets them not null, backed by a validated check constraint. With a non-transactional writer or
+	 * file, the batches and the constraint steps go there and each batch commits separately.
+	 */
+	public MigrationGenerator withBackfillBatchSize(int batchSize)
+	{
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Backfill batch size must be positive, got " + batchSize);
+		}
+		patchOptions.withBackfillBatchSize(batchSize);
+		return this;
+	}
+
+	/**
+	 * Sets {@code lock_timeout} for the migration, so a statement waiting for a lock held by a long-running query
+	 * fails after the timeout instead of blocking all the queries queued behind it.
+	 */
+	public MigrationGenerator withLockTimeout(Duration lockTimeout)
+	{
+		patchOptions.withLockTimeout(lockTimeout);
+		return this;
+	}
+
+	/**
+	 * Sets {@code statement_timeout} for the transactional part of the migration.
+	 */
+	public MigrationGenerator withStatementTimeout(Duration statementTimeout)
+	{
+		patchOptions.withStatementTimeout(statementTimeout);
+		return this;
+	}
+
+	/**
+	 * Runs each statement of the migration in its own transaction, so a statement failed on a lock timeout
+	 * can be retried without repeating the ones already applied. The file written by
+	 * {@link #generateMigration(Path, Path)} is then configured to run outside the Flyway transaction.
+	 */
+	public MigrationGenerator withTransactionPerStatement(boolean transactionPerStatement)
+	{
+		patchOptions.withTransactionPerStatement(transactionPerStatement);
+		return this;
+	}
+
+	/**
+	 * Alters all the columns of a table by a single {@code ALTER TABLE} statement, so the table is locked once
+	 * and rewritten at most once, instead of once per changed column.
+	 */
+	public MigrationGenerator withGroupedColumnAlterations(boolean groupedColumnAlterations)
+	{
+		patchOptions.withGroupedColumnAlterations(groupedColumnAlterations);
+		return this;
+	}
+
+	/**
+	 * Keeps a snapshot of the live model in the given file and re-reads only the tables, whose catalog
+	 * fingerprint changed since the snapshot was taken. Has no effect on platforms without table fingerprints.
+	 */
+	public MigrationGenerator withModelSnapshot(Path snapshotPath)
+	{
+		this.modelSnapshotPath = snapshotPath;
+		return this;
+	}
+
 	/**
 	 * Returns SQL required to run to migrate DB to match the entities.
 	 */
@@ -93,23 +300,127 @@ public class MigrationGenerator
 	}
 
 	public String generateMigrationSQL(Predicate<ModelChange> changeFilter)
+	{
+		final StringWriter writer = new StringWriter();
+		generateMigrationSQL(writer, changeFilter);
+		return writer.toString();
+	}
+
+	/**
+	 * Writes SQL required to run to migrate DB to match the entities to the writer, statement by statement
+	 * as they are generated. The writer is neither flushed nor closed.
+	 */
+	public void generateMigrationSQL(Writer writer)
+	{
+		generateMigrationSQL(writer, MODEL_CHANGE_PREDICATE);
+	}
+
+	public void generateMigrationSQL(Writer writer, Predicate<ModelChange> changeFilter)
+	{
+		generateMigrationSQL(writer, null, changeFilter);
+	}
+
+	/**
+	 * Same as {@link #generateMigrationSQL(Writer)}, but writes the statements, which cannot run in a transaction,
+	 * to the separate writer. They have to be run after the transactional part.
+	 */
+	public void generateMigrationSQL(Writer writer, Writer nonTransactionalWriter)
+	{
+		generateMigrationSQL(writer, nonTransactionalWriter, MODEL_CHANGE_PREDICATE);
+	}
+
+	public void generateMigrationSQL(
+		Writer writer,
+		Writer nonTransactionalWriter,
+		Predicate<ModelChange> changeFilter
+	)
 	{
 		final Connection connection = DataSourceUtils.getConnection(dataSource);
 		try {
 			final Database desiredModel = metadataAdapter.getSchemaDatabase();
-			final Database currentModel = platform.readModelFromDatabase(connection, desiredModel.getName(), schemaPattern);
+			final Database currentModel = readCurrentModel(connection, desiredModel);
 
 			final MigenSqlBuilder customPostgresqlBuilder = platform.getSqlBuilder();
-			final StringWriter ex = new StringWriter();
-			customPostgresqlBuilder.setWriter(ex);
-			final var changes = platform.diff(currentModel, desiredModel, changeFilter);
+			customPostgresqlBuilder.setWriter(writer);
+			customPostgresqlBuilder.setNonTransactionalWriter(nonTransactionalWriter);
+			customPostgresqlBuilder.setPatchOptions(patchOptions);
+			customPostgresqlBuilder.setTableSizes(platform.readTableSizes(connection, schemaPattern));
+			final var changes = platform.diff(currentModel, desiredModel, changeFilter, diffParallelism);
 			customPostgresqlBuilder.writeSqlPatch(currentModel, desiredModel, changes);
-			return ex.toString();
 		} finally {
 			DataSourceUtils.releaseConnection(connection, dataSource);
 		}
 	}
 
+	/**
+	 * Streams the migration into the given file. The file is written only when the migration is not empty,
+	 * through a temporary file, so it is never left partially written.
+	 *
+	 * @return whether the file was written, false when the schema is in sync
+	 */
+	public boolean generateMigration(Path path) throws IOException
+	{
+		return generateMigration(path, null);
+	}
+
+	/**
+	 * Same as {@link #generateMigration(Path)}, but streams the statements, which cannot run in a transaction,
+	 * into the second file. Next to it, a Flyway script configuration is written, which disables the transaction.
+	 *
+	 * @return whether any of the files was written, false when the schema is in sync
+	 */
+	public boolean generateMigration(Path path, Path nonTransactionalPath) throws IOException
+	{
+		final Path temporary = createTemporaryFile(path);
+		final Path nonTransactionalTemporary = nonTransactionalPath == null ? null : createTemporaryFile(nonTransactionalPath);
+		try {
+			try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8);
+				 Writer nonTransactionalWriter = nonTransactionalTemporary == null
+					 ? null
+					 : Files.newBufferedWriter(nonTransactionalTemporary, StandardCharsets.UTF_8)) {
+				generateMigrationSQL(writer, nonTransactionalWriter);
+			}
+			boolean written = moveIfNotEmpty(temporary, path);
+			if (written && patchOptions.isTransactionPerStatement()) {
+				writeNonTransactionalConfiguration(path);
+			}
+			if (nonTransactionalTemporary != null && moveIfNotEmpty(nonTransactionalTemporary, nonTransactionalPath)) {
+				writeNonTransactionalConfiguration(nonTransactionalPath);
+				written = true;
+			}
+			return written;
+		} finally {
+			Files.deleteIfExists(temporary);
+			if (nonTransactionalTemporary != null) {
+				Files.deleteIfExists(nonTransactionalTemporary);
+			}
+		}
+	}
+
+	private static void writeNonTransactionalConfiguration(Path path) throws IOException
+	{
+		Files.writeString(
+			path.resolveSibling(path.getFileName() + ".conf"),
+			"executeInTransaction=false\n",
+			StandardCharsets.UTF_8
+		);
+	}
+
+	private static Path createTemporaryFile(Path path) throws IOException
+	{
+		final Path absolutePath = path.toAbsolutePath();
+		return Files.createTempFile(absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+	}
+
+	private static boolean moveIfNotEmpty(Path temporary, Path path) throws IOException
+	{
+		if (Files.size(temporary) == 0) {
+			return false;
+		}
+		Files.move(temporary, path.toAbsolutePath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return true;
+	}
+
 	public List<ModelChange> generateMigrationChanges()
 	{
 		return generateMigrationChanges(MODEL_CHANGE_PREDICATE);
@@ -120,9 +431,440 @@ public class MigrationGenerator
 		final Connection connection = DataSourceUtils.getConnection(dataSource);
 		try {
 			final Database desiredModel = metadataAdapter.getSchemaDatabase();
-			final Database currentModel = platform.readModelFromDatabase(connection, desiredModel.getName(), schemaPattern);
+			final Database currentModel = readCurrentModel(connection, desiredModel);
+
+			return platform.diff(currentModel, desiredModel, changeFilter, diffParallelism);
+		} finally {
+			DataSourceUtils.releaseConnection(connection, dataSource);
+		}
+	}
+
+	/**
+	 * Checks whether the live schema matches the entities. Stops comparing at the first difference, which is
+	 * logged, so it is cheaper than generating the changes.
+	 */
+	public boolean isInSync()
+	{
+		final Optional<ModelChange> difference = findFirstDifference();
+		difference.ifPresent(change -> log.info("The schema differs from the entities: {}", describeChange(change)));
+		return difference.isEmpty();
+	}
+
+	public Optional<ModelChange> findFirstDifference()
+	{
+		return findFirstDifference(MODEL_CHANGE_PREDICATE);
+	}
+
+	/**
+	 * Returns the first change accepted by the filter, comparing table names first, then the columns of
+	 * the tables and only then indices, foreign keys and comments.
+	 */
+	public Optional<ModelChange> findFirstDifference(Predicate<ModelChange> changeFilter)
+	{
+		final Connection connection = DataSourceUtils.getConnection(dataSource);
+		try {
+			final Database desiredModel = metadataAdapter.getSchemaDatabase();
+			final Database currentModel = readCurrentModel(connection, desiredModel);
+
+			return Optional.ofNullable(platform.findFirstDifference(currentModel, desiredModel, changeFilter));
+		} finally {
+			DataSourceUtils.releaseConnection(connection, dataSource);
+		}
+	}
+
+	public List<SchemaMigration> generateSchemaMigrations(String schemaPattern)
+	{
+		return generateSchemaMigrations(schemaPattern, MODEL_CHANGE_PREDICATE);
+	}
+
+	/**
+	 * Generates migrations of all schemas matching the pattern, such as schemas of tenants sharing the entities.
+	 * The schemas are introspected concurrently and grouped by the fingerprint of their live model, only one model
+	 * per group is compared with the entities. Returns one migration per group, including the groups in sync.
+	 * The live model snapshot is not used.
+	 */
+	public List<SchemaMigration> generateSchemaMigrations(String schemaPattern, Predicate<ModelChange> changeFilter)
+	{
+		return generateSchemaMigrations(schemaPattern, changeFilter, false);
+	}
+
+	/**
+	 * Same as {@link #generateSchemaMigrations(String, Predicate)}, but with {@code splitNonTransactional} the
+	 * statements, which cannot run in a transaction, are kept apart in {@link SchemaMigration#getNonTransactionalSql()},
+	 * see {@link #generateMigrationSQL(Writer, Writer)}.
+	 */
+	public List<SchemaMigration> generateSchemaMigrations(
+		String schemaPattern,
+		Predicate<ModelChange> changeFilter,
+		boolean splitNonTransactional
+	)
+	{
+		final Database desiredModel = metadataAdapter.getSchemaDatabase();
+		final Predicate<String> tableFilter = tableFilter(desiredModel);
+
+		final List<String> schemas;
+		final String searchStringEscape;
+		final Connection connection = DataSourceUtils.getConnection(dataSource);
+		try {
+			schemas = platform.readSchemaNames(connection, schemaPattern);
+			searchStringEscape = connection.getMetaData().getSearchStringEscape();
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		} finally {
+			DataSourceUtils.releaseConnection(connection, dataSource);
+		}
+
+		// only the first model read of each fingerprint is kept, the other ones are garbage as soon as hashed
+		final Map<String, Database> models = new ConcurrentHashMap<>();
+		final Map<String, Map<String, Long>> sizesBySchema = new ConcurrentHashMap<>();
+		final List<Callable<String>> tasks = new ArrayList<>(schemas.size());
+		for (String schema : schemas) {
+			tasks.add(() -> {
+				final Database model = readSchemaModel(
+					desiredModel.getName(),
+					escapePattern(schema, searchStringEscape),
+					tableFilter,
+					tableSizes -> sizesBySchema.put(schema, tableSizes)
+				);
+				final String fingerprint = ModelFingerprint.of(model);
+				models.putIfAbsent(fingerprint, model);
+				return fingerprint;
+			});
+		}
+		final List<String> fingerprints = invokeAll(tasks, schemaParallelism);
+
+		final Map<String, List<String>> schemasByFingerprint = new LinkedHashMap<>();
+		for (int i = 0; i < schemas.size(); i++) {
+			schemasByFingerprint.computeIfAbsent(fingerprints.get(i), it -> new ArrayList<>()).add(schemas.get(i));
+		}
+		log.info("Introspected {} schemas with {} distinct models.", schemas.size(), schemasByFingerprint.size());
+
+		final List<SchemaMigration> migrations = new ArrayList<>(schemasByFingerprint.size());
+		for (Map.Entry<String, List<String>> entry : schemasByFingerprint.entrySet()) {
+			final Database currentModel = models.get(entry.getKey());
+			final var changes = platform.diff(currentModel, desiredModel, changeFilter, diffParallelism);
+
+			// the largest size of each table across the group decides its rewrite warning
+			final Map<String, Long> tableSizes = new HashMap<>();
+			for (String schema : entry.getValue()) {
+				sizesBySchema.get(schema).forEach((table, size) -> tableSizes.merge(table, size, Math::max));
+			}
 
-			return platform.diff(currentModel, desiredModel, changeFilter);
+			final StringWriter writer = new StringWriter();
+			final StringWriter nonTransactionalWriter = splitNonTransactional ? new StringWriter() : null;
+			final MigenSqlBuilder sqlBuilder = platform.getSqlBuilder();
+			sqlBuilder.setWriter(writer);
+			sqlBuilder.setNonTransactionalWriter(nonTransactionalWriter);
+			sqlBuilder.setPatchOptions(patchOptions);
+			sqlBuilder.setTableSizes(tableSizes);
+			sqlBuilder.writeSqlPatch(currentModel, desiredModel, changes);
+			migrations.add(new SchemaMigration(
+				entry.getKey(),
+				entry.getValue(),
+				changes,
+				writer.toString(),
+				nonTransactionalWriter == null ? null : nonTransactionalWriter.toString()
+			));
+		}
+		return migrations;
+	}
+
+	/**
+	 * Writes the migrations of all their schemas, each preceded by the statement selecting the schema, and resets
+	 * the schema selection at the end. Schemas in sync are skipped.
+	 *
+	 * @throws IllegalArgumentException when a migration has statements, which cannot run in a transaction, split off
+	 */
+	public void writeSchemaMigrationSQL(Writer writer, List<SchemaMigration> migrations) throws IOException
+	{
+		writeSchemaMigrationSQL(writer, null, migrations);
+	}
+
+	/**
+	 * Same as {@link #writeSchemaMigrationSQL(Writer, List)}, but writes the statements split off by
+	 * {@link #generateSchemaMigrations(String, Predicate, boolean)} to the separate writer, selecting the schemas
+	 * again. They have to be run after the transactional part.
+	 */
+	public void writeSchemaMigrationSQL(
+		Writer writer,
+		Writer nonTransactionalWriter,
+		List<SchemaMigration> migrations
+	) throws IOException
+	{
+		final MigenSqlBuilder sqlBuilder = platform.getSqlBuilder();
+		sqlBuilder.setNonTransactionalWriter(null);
+		writeSchemaScript(sqlBuilder, writer, migrations, SchemaMigration::getSql);
+		if (nonTransactionalWriter != null) {
+			writeSchemaScript(sqlBuilder, nonTransactionalWriter, migrations, SchemaMigration::getNonTransactionalSql);
+		} else if (migrations.stream().anyMatch(migration -> !isBlank(migration.getNonTransactionalSql()))) {
+			throw new IllegalArgumentException(
+				"The migrations have statements, which cannot run in a transaction, pass the writer for them."
+			);
+		}
+	}
+
+	private static void writeSchemaScript(
+		MigenSqlBuilder sqlBuilder,
+		Writer writer,
+		List<SchemaMigration> migrations,
+		Function<SchemaMigration, String> script
+	) throws IOException
+	{
+		sqlBuilder.setWriter(writer);
+		boolean written = false;
+		for (SchemaMigration migration : migrations) {
+			final String sql = script.apply(migration);
+			if (migration.isInSync() || isBlank(sql)) {
+				continue;
+			}
+			for (String schema : migration.getSchemas()) {
+				sqlBuilder.writeSchemaSelection(schema);
+				writer.write(sql);
+			}
+			written = true;
+		}
+		if (written) {
+			sqlBuilder.writeSchemaReset();
+		}
+	}
+
+	private static boolean isBlank(String sql)
+	{
+		return sql == null || sql.isBlank();
+	}
+
+	private static String describeChange(ModelChange change)
+	{
+		final StringBuilder description = new StringBuilder(change.getClass().getSimpleName());
+		if (change instanceof TableChange tableChange) {
+			description.append(" of table ").append(tableChange.getChangedTable().getName());
+		}
+		if (change instanceof ColumnChange columnChange) {
+			description.append(", column ").append(columnChange.getChangedColumn().getName());
+		} else if (change instanceof AddColumnChange addColumnChange) {
+			description.append(", column ").append(addColumnChange.getNewColumn().getName());
+		} else if (change instanceof RemoveColumnChange removeColumnChange) {
+			description.append(", column ").append(removeColumnChange.getColumn().getName());
+		}
+		return description.toString();
+	}
+
+	private Database readCurrentModel(Connection connection, Database desiredModel)
+	{
+		final String name = desiredModel.getName();
+		final Predicate<String> tableFilter = tableFilter(desiredModel);
+		if (modelSnapshotPath == null) {
+			return readFullModel(connection, name, schemaPattern, tableFilter);
+		}
+
+		Map<String, String> fingerprints = platform.readTableFingerprints(connection, schemaPattern);
+		if (fingerprints == null) {
+			return readFullModel(connection, name, schemaPattern, tableFilter);
+		}
+		if (tableFilter != null) {
+			fingerprints = new LinkedHashMap<>(fingerprints);
+			fingerprints.keySet().removeIf(tableFilter.negate());
+		}
+
+		final String snapshotKey = LiveModelSnapshot.key(platform, schemaPattern);
+		final LiveModelSnapshot snapshot = LiveModelSnapshot.read(modelSnapshotPath);
+		final Database currentModel;
+		if (snapshot == null || !snapshotKey.equals(snapshot.getKey())) {
+			currentModel = readFullModel(connection, name, schemaPattern, tableFilter);
+		} else {
+			final Set<String> changedTables = snapshot.changedTables(fingerprints);
+			final List<Table> tables = snapshot.unchangedTables(fingerprints);
+			log.debug("Reusing {} tables from the live model snapshot, reading {} changed tables.",
+				tables.size(), changedTables.size());
+			tables.addAll(readTables(connection, schemaPattern, new ArrayList<>(changedTables)));
+			if (tableFilter != null) {
+				removeDanglingForeignKeys(tables);
+			}
+			currentModel = platform.assembleModel(modelName(connection, name), tables);
+		}
+		new LiveModelSnapshot(snapshotKey, fingerprints, currentModel).write(modelSnapshotPath);
+		return currentModel;
+	}
+
+	private Database readFullModel(
+		Connection connection,
+		String name,
+		String schemaPattern,
+		Predicate<String> tableFilter
+	)
+	{
+		if (tableFilter != null) {
+			// list the names first, so the filtered out tables are not introspected at all
+			final List<String> tableNames = platform.readTableNames(connection, schemaPattern).stream()
+				.filter(tableFilter)
+				.distinct()
+				.collect(Collectors.toList());
+			final List<Table> tables = readTables(connection, schemaPattern, tableNames);
+			removeDanglingForeignKeys(tables);
+			return platform.assembleModel(modelName(connection, name), tables);
+		}
+		if (introspectionParallelism == 1) {
+			return platform.readModelFromDatabase(connection, name, schemaPattern);
+		}
+
+		// the same table name may be present in multiple schemas, the filter matches all of them
+		final List<String> tableNames = new ArrayList<>(
+			new LinkedHashSet<>(platform.readTableNames(connection, schemaPattern))
+		);
+		if (Math.min(introspectionParallelism, tableNames.size()) <= 1) {
+			return platform.readModelFromDatabase(connection, name, schemaPattern);
+		}
+		return platform.assembleModel(
+			modelName(connection, name),
+			readTables(connection, schemaPattern, tableNames)
+		);
+	}
+
+	private Database readSchemaModel(
+		String name,
+		String schemaPattern,
+		Predicate<String> tableFilter,
+		Consumer<Map<String, Long>> tableSizesConsumer
+	)
+	{
+		final Connection connection = DataSourceUtils.getConnection(dataSource);
+		try {
+			tableSizesConsumer.accept(platform.readTableSizes(connection, schemaPattern));
+			return readFullModel(connection, name, schemaPattern, tableFilter);
+		} finally {
+			DataSourceUtils.releaseConnection(connection, dataSource);
+		}
+	}
+
+	/**
+	 * Escapes the wildcards, so the pattern matches only the schema of the name.
+	 */
+	private static String escapePattern(String name, String searchStringEscape)
+	{
+		if (searchStringEscape == null || searchStringEscape.isEmpty()) {
+			return name;
+		}
+		return name.replace(searchStringEscape, searchStringEscape + searchStringEscape)
+			.replace("_", searchStringEscape + "_")
+			.replace("%", searchStringEscape + "%");
+	}
+
+	/**
+	 * Combines the introspection filter with the tables mapped by entities, returns null when all tables are read.
+	 */
+	private Predicate<String> tableFilter(Database desiredModel)
+	{
+		Predicate<String> tableFilter = introspectionFilter;
+		if (mappedTablesOnly) {
+			final Set<String> mappedTables = new HashSet<>();
+			for (Table table : desiredModel.getTables()) {
+				mappedTables.add(table.getName().toLowerCase());
+			}
+			final Predicate<String> mappedTableFilter = tableName -> mappedTables.contains(tableName.toLowerCase());
+			tableFilter = tableFilter == null ? mappedTableFilter : tableFilter.and(mappedTableFilter);
+		}
+		return tableFilter;
+	}
+
+	/**
+	 * Removes foreign keys referencing tables, which were filtered out, the model could not be assembled otherwise.
+	 */
+	private static void removeDanglingForeignKeys(List<Table> tables)
+	{
+		final Set<String> tableNames = new HashSet<>();
+		for (Table table : tables) {
+			tableNames.add(table.getName().toLowerCase());
+		}
+		for (Table table : tables) {
+			for (ForeignKey foreignKey : table.getForeignKeys()) {
+				if (!tableNames.contains(foreignKey.getForeignTableName().toLowerCase())) {
+					log.debug("Ignoring foreign key {} to the filtered out table {}.",
+						foreignKey.getName(), foreignKey.getForeignTableName());
+					table.removeForeignKey(foreignKey);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the given tables, partitioned over multiple connections when introspection parallelism is enabled.
+	 */
+	private List<Table> readTables(Connection connection, String schemaPattern, List<String> tableNames)
+	{
+		final int partitionCount = Math.min(introspectionParallelism, tableNames.size());
+		if (partitionCount == 0) {
+			return new ArrayList<>();
+		}
+		if (partitionCount == 1) {
+			return new ArrayList<>(platform.readNamedTables(connection, schemaPattern, tableNames));
+		}
+
+		final List<List<String>> partitions = new ArrayList<>(partitionCount);
+		for (int i = 0; i < partitionCount; i++) {
+			partitions.add(new ArrayList<>());
+		}
+		for (int i = 0; i < tableNames.size(); i++) {
+			partitions.get(i % partitionCount).add(tableNames.get(i));
+		}
+
+		final List<Callable<List<Table>>> tasks = new ArrayList<>(partitionCount);
+		for (List<String> partition : partitions) {
+			tasks.add(() -> readPartition(schemaPattern, partition));
+		}
+		final List<Table> tables = new ArrayList<>(tableNames.size());
+		invokeAll(tasks, partitionCount).forEach(tables::addAll);
+		return tables;
+	}
+
+	/**
+	 * Runs the tasks on up to {@code parallelism} threads, returns their results in the order of the tasks.
+	 */
+	private static <T> List<T> invokeAll(List<Callable<T>> tasks, int parallelism)
+	{
+		if (tasks.isEmpty()) {
+			return new ArrayList<>();
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()));
+		try {
+			final List<Future<T>> futures = new ArrayList<>(tasks.size());
+			for (Callable<T> task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			final List<T> results = new ArrayList<>(tasks.size());
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new DatabaseOperationException("Interrupted while reading the database model", ex);
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new DatabaseOperationException(ex.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private String modelName(Connection connection, String name)
+	{
+		if (name != null) {
+			return name;
+		}
+		try {
+			return connection.getCatalog();
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+	}
+
+	private List<Table> readPartition(String schemaPattern, List<String> tableNames)
+	{
+		final Connection connection = DataSourceUtils.getConnection(dataSource);
+		try {
+			return new ArrayList<>(platform.readNamedTables(connection, schemaPattern, tableNames));
 		} finally {
 			DataSourceUtils.releaseConnection(connection, dataSource);
 		}
@@ -0,0 +1,65 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.ddlutils.alteration.ModelChange;
+
+import java.util.List;
+
+/**
+ * Migration shared by the schemas, whose live models have the same fingerprint, see
+ * {@link MigrationGenerator#generateSchemaMigrations(String)}.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class SchemaMigration
+{
+
+	/**
+	 * Fingerprint of the live model, see {@link com.dtforce.migen.ddl.ModelFingerprint}.
+	 */
+	private final String fingerprint;
+
+	/**
+	 * Names of the schemas in the order they were listed by the database.
+	 */
+	private final List<String> schemas;
+
+	private final List<ModelChange> changes;
+
+	/**
+	 * Migration with unqualified table names, to be run with each of the schemas selected, e.g. by Flyway
+	 * migrating the schemas one by one. Estimated table sizes are the largest of the schemas.
+	 */
+	private final String sql;
+
+	/**
+	 * Statements, which cannot run in a transaction, when split off by
+	 * {@link MigrationGenerator#generateSchemaMigrations(String, java.util.function.Predicate, boolean)},
+	 * otherwise null.
+	 */
+	private final String nonTransactionalSql;
+
+	public boolean isInSync()
+	{
+		return changes.isEmpty();
+	}
+
+}
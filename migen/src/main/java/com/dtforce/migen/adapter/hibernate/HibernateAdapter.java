@@ -26,7 +26,6 @@ import org.apache.ddlutils.model.UniqueIndex;
 import org.hibernate.boot.Metadata;
 import org.hibernate.boot.model.relational.Namespace;
 import org.hibernate.dialect.Dialect;
-import org.hibernate.engine.jdbc.spi.JdbcServices;
 import org.hibernate.mapping.Collection;
 import org.hibernate.mapping.Column;
 import org.hibernate.mapping.ForeignKey;
@@ -41,17 +40,21 @@ import com.dtforce.dokka.json.DokkaDocCodeInline;
 import com.dtforce.dokka.json.DokkaDocLink;
 import com.dtforce.dokka.json.DokkaDocNode;
 import com.dtforce.dokka.json.DokkaJsonClasslike;
+import com.dtforce.dokka.json.DokkaJsonIndex;
 import com.dtforce.dokka.json.DokkaJsonModule;
 import com.dtforce.dokka.json.DokkaJsonResolver;
+import com.dtforce.dokka.json.DokkaJsonSource;
 import com.dtforce.migen.adapter.MetadataAdapter;
 import com.dtforce.migen.adapter.hibernate.integration.HibernateInfoHolder;
 import com.dtforce.migen.ddl.RawTypedColumn;
 import com.dtforce.migen.platform.type.PlatformTypeMapping;
 
 import java.sql.Types;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
@@ -62,10 +65,12 @@ public class HibernateAdapter implements MetadataAdapter
 
 	private final SchemaFilter schemaFilter;
 
-	private final DokkaJsonModule dokkaModel;
+	private final DokkaJsonSource dokkaSource;
 
 	private final PlatformTypeMapping platformTypeMapping;
 
+	private DokkaJsonIndex dokkaIndex;
+
 	public HibernateAdapter(
 		final HibernateInfoHolder hibernateInfoHolder,
 		final SchemaFilter schemaFilter,
@@ -74,69 +79,90 @@ public class HibernateAdapter implements MetadataAdapter
 	) {
 		this.hibernateInfoHolder = hibernateInfoHolder;
 		this.schemaFilter = schemaFilter;
-		this.dokkaModel = dokkaModel;
+		this.dokkaSource = null;
+		this.platformTypeMapping = platformTypeMapping;
+		this.dokkaIndex = dokkaModel != null ? new DokkaJsonIndex(dokkaModel) : null;
+	}
+
+	private HibernateAdapter(
+		final HibernateInfoHolder hibernateInfoHolder,
+		final SchemaFilter schemaFilter,
+		final DokkaJsonSource dokkaSource,
+		@Nullable final PlatformTypeMapping platformTypeMapping
+	) {
+		this.hibernateInfoHolder = hibernateInfoHolder;
+		this.schemaFilter = schemaFilter;
+		this.dokkaSource = dokkaSource;
 		this.platformTypeMapping = platformTypeMapping;
 	}
 
+	/**
+	 * Creates the adapter reading the Dokka model lazily.
+	 *
+	 * @param dokkaSource asked only for the classes mapped by Hibernate, on the first {@link #getSchemaDatabase()}
+	 */
+	public static HibernateAdapter withDokkaSource(
+		final HibernateInfoHolder hibernateInfoHolder,
+		final SchemaFilter schemaFilter,
+		final DokkaJsonSource dokkaSource,
+		@Nullable final PlatformTypeMapping platformTypeMapping
+	) {
+		return new HibernateAdapter(hibernateInfoHolder, schemaFilter, dokkaSource, platformTypeMapping);
+	}
+
 	@Override
 	public Database getSchemaDatabase()
 	{
 		final Metadata metadata = metadata();
+		if (dokkaIndex == null && dokkaSource != null) {
+			dokkaIndex = new DokkaJsonIndex(dokkaSource.read(mappedClassNames(metadata)));
+		}
+		final HibernateMetadataIndex metadataIndex = new HibernateMetadataIndex(metadata);
 		final Database database = new Database();
 		for ( Namespace namespace : metadata.getDatabase().getNamespaces() ) {
 			if (schemaFilter.includeNamespace(namespace)) {
-				createTables(namespace, database);
+				createTables(namespace, database, metadataIndex);
 			}
 		}
 		return database;
 	}
 
-	private void createTables(final Namespace namespace, final Database database)
+	private void createTables(final Namespace namespace, final Database database, final HibernateMetadataIndex metadataIndex)
 	{
 		for (Table table : namespace.getTables()) {
 			if ( schemaFilter.includeTable( table ) && table.isPhysicalTable() ) {
-				database.addTable(convertTable(table));
+				database.addTable(convertTable(table, metadataIndex));
 			}
 		}
 	}
 
-	private org.apache.ddlutils.model.Table convertTable(final Table table)
+	private org.apache.ddlutils.model.Table convertTable(final Table table, final HibernateMetadataIndex metadataIndex)
 	{
-		final Metadata metadata = metadata();
-		final var entity = metadata.getEntityBindings()
-				.stream()
-				.filter(it -> it.getTable() == table)
-				.findFirst();
-
-		final var collectionOpt = metadata.getCollectionBindings()
-				.stream()
-				.filter(it -> it.getCollectionTable() == table)
-				.findFirst();
+		final var entity = metadataIndex.findEntity(table);
+		final var collectionOpt = metadataIndex.findCollection(table);
 
 		org.apache.ddlutils.model.Table tableResult = new org.apache.ddlutils.model.Table();
 		tableResult.setName(table.getName());
 		tableResult.setDescription(table.getComment());
 
-		if (dokkaModel != null && table.getComment() == null) {
+		if (dokkaIndex != null && table.getComment() == null) {
 			if (entity.isPresent() && entity.get().getMappedClass() != null) {
-				final DokkaJsonClasslike dokkaJsonClasslike = DokkaJsonResolver.INSTANCE
-						.resolveClass(dokkaModel, entity.get().getMappedClass());
+				final DokkaJsonClasslike dokkaJsonClasslike = dokkaIndex.resolveClass(entity.get().getMappedClass());
 				if (dokkaJsonClasslike == null) {
 					log.warn("Could not find Dokka for Entity {}", entity.get().getMappedClass().getName());
 				} else if (dokkaJsonClasslike.getDocumentation() != null) {
-					tableResult.setDescription(translateDocumentationToComment(dokkaJsonClasslike.getDocumentation()));
+					tableResult.setDescription(translateDocumentationToComment(dokkaJsonClasslike.getDocumentation(), metadataIndex));
 				}
 			} else if (collectionOpt.isPresent()) {
 				final Collection collection = collectionOpt.get();
 				final var propName = deduceCollectionPropName(collection);
 				if (propName.isPresent()) {
-					var propertyDokka = DokkaJsonResolver.INSTANCE
-							.resolveProperty(dokkaModel, collection.getOwner().getMappedClass(), propName.get());
+					var propertyDokka = dokkaIndex.resolveProperty(collection.getOwner().getMappedClass(), propName.get());
 
 					if (propertyDokka == null) {
 						log.warn("Could not find Dokka for collection json for {}.{}", collection.getOwner().getMappedClass(), propName.get());
 					} else if (propertyDokka.getDocumentation() != null) {
-						tableResult.setDescription(translateDocumentationToComment(propertyDokka.getDocumentation()));
+						tableResult.setDescription(translateDocumentationToComment(propertyDokka.getDocumentation(), metadataIndex));
 					}
 				} else {
 					log.warn("Could not determine collection property name for {}.", collection.getRole());
@@ -148,13 +174,14 @@ public class HibernateAdapter implements MetadataAdapter
 			log.warn("Table {} does not have a primary key.", table.getName());
 		}
 
+		final Map<Column, Property> propertiesByColumn = entity
+			.map(HibernateMetadataIndex::propertiesByColumn)
+			.orElse(Collections.emptyMap());
+
 		for (Column column : table.getColumns()) {
-			final Optional<Property> property = entity.flatMap(persistentClass -> persistentClass.getProperties()
-                    .stream()
-                    .filter(it -> it.getColumns().contains(column))
-                    .findFirst());
+			final Optional<Property> property = Optional.ofNullable(propertiesByColumn.get(column));
 
-			final org.apache.ddlutils.model.Column convertColumn = convertColumn(table, column, property);
+			final org.apache.ddlutils.model.Column convertColumn = convertColumn(table, column, property, metadataIndex);
 			tableResult.addColumn(convertColumn);
 			if (column.isUnique()) {
 				UniqueIndex index = new UniqueIndex();
@@ -188,7 +215,16 @@ public class HibernateAdapter implements MetadataAdapter
 		return tableResult;
 	}
 
-	private String translateDocumentationToComment(final DokkaDocNode documentation)
+	private static Set<String> mappedClassNames(final Metadata metadata)
+	{
+		return metadata.getEntityBindings()
+			.stream()
+			.filter(it -> it.getMappedClass() != null)
+			.map(it -> it.getMappedClass().getName())
+			.collect(Collectors.toSet());
+	}
+
+	private String translateDocumentationToComment(final DokkaDocNode documentation, final HibernateMetadataIndex metadataIndex)
 	{
 		return documentation.getParagraphs()
 			.stream()
@@ -198,7 +234,7 @@ public class HibernateAdapter implements MetadataAdapter
 					.stream()
 					.map(dokkaDocPart -> {
 						if (dokkaDocPart instanceof DokkaDocLink link) {
-							return translateDocumentationLink(link);
+							return translateDocumentationLink(link, metadataIndex);
 						} else if (dokkaDocPart instanceof DokkaDocCodeInline inline) {
 							return putInBackTicks(inline.getText());
 						} else {
@@ -210,25 +246,11 @@ public class HibernateAdapter implements MetadataAdapter
 			.orElse(null);
 	}
 
-	private String translateDocumentationLink(final DokkaDocLink link)
+	private String translateDocumentationLink(final DokkaDocLink link, final HibernateMetadataIndex metadataIndex)
 	{
-		final var metadata = metadata();
-
-		final var first = metadata.getEntityBindings()
-			.stream()
-			.filter(
-				it -> Objects.equals(
-					it.getClassName(),
-					DokkaJsonResolver.INSTANCE.driToClassName(link.getDri())
-				)
-			)
-			.findFirst();
-
-		if (first.isPresent() && first.get().getTable() != null) {
-			return putInBackTicks(first.get().getTable().getName());
-		} else {
-			return putInBackTicks(link.getText());
-		}
+		return metadataIndex.findTable(DokkaJsonResolver.INSTANCE.driToClassName(link.getDri()))
+			.map(table -> putInBackTicks(table.getName()))
+			.orElseGet(() -> putInBackTicks(link.getText()));
 	}
 
 	private String putInBackTicks(final String text)
@@ -311,7 +333,8 @@ public class HibernateAdapter implements MetadataAdapter
 	private org.apache.ddlutils.model.Column convertColumn(
 		final Table table,
 		final Column column,
-		Optional<Property> property
+		Optional<Property> property,
+		final HibernateMetadataIndex metadataIndex
 	)
 	{
 		RawTypedColumn columnResult = new RawTypedColumn();
@@ -322,18 +345,17 @@ public class HibernateAdapter implements MetadataAdapter
 
 		if (
 			column.getComment() == null &&
-			dokkaModel != null &&
+			dokkaIndex != null &&
 			property.isPresent() &&
 			property.get().getPersistentClass().getMappedClass() != null
 		) {
 			final Property prop = property.get();
-			var propertyDokka = DokkaJsonResolver.INSTANCE
-					.resolveProperty(dokkaModel, prop.getPersistentClass().getMappedClass(), prop.getName());
+			var propertyDokka = dokkaIndex.resolveProperty(prop.getPersistentClass().getMappedClass(), prop.getName());
 
 			if (propertyDokka == null) {
 				log.warn("Could not find Dokka property json for {}.{}", prop.getPersistentClass().getMappedClass().getName(), prop.getName());
 			} else if (propertyDokka.getDocumentation() != null) {
-				columnResult.setDescription(translateDocumentationToComment(propertyDokka.getDocumentation()));
+				columnResult.setDescription(translateDocumentationToComment(propertyDokka.getDocumentation(), metadataIndex));
 			}
 		}
 
@@ -379,19 +401,19 @@ public class HibernateAdapter implements MetadataAdapter
 		}
 	}
 
+	/**
+	 * Taken from the metadata, so it is available also without a session factory.
+	 */
 	private JdbcTypeRegistry getJdbcTypeRegistry()
 	{
-		return hibernateInfoHolder.getBootstrapContext()
+		return metadata().getDatabase()
 			.getTypeConfiguration()
 			.getJdbcTypeRegistry();
 	}
 
 	private Dialect getDialect()
 	{
-		return hibernateInfoHolder.getSessionFactory()
-			.getServiceRegistry()
-			.getService(JdbcServices.class)
-			.getDialect();
+		return metadata().getDatabase().getDialect();
 	}
 
 
@@ -0,0 +1,90 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.adapter.hibernate;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.mapping.Collection;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.mapping.Property;
+import org.hibernate.mapping.Table;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Lookups into the Hibernate metamodel used while converting tables, built once per schema conversion.
+ * The first binding wins, where more of them map the same table.
+ */
+class HibernateMetadataIndex
+{
+
+	private final Map<Table, PersistentClass> entitiesByTable = new IdentityHashMap<>();
+
+	private final Map<Table, Collection> collectionsByTable = new IdentityHashMap<>();
+
+	private final Map<String, PersistentClass> entitiesByClassName = new HashMap<>();
+
+	HibernateMetadataIndex(final Metadata metadata)
+	{
+		for (PersistentClass entity : metadata.getEntityBindings()) {
+			if (entity.getTable() != null) {
+				entitiesByTable.putIfAbsent(entity.getTable(), entity);
+			}
+			if (!entitiesByClassName.containsKey(entity.getClassName())) {
+				entitiesByClassName.put(entity.getClassName(), entity);
+			}
+		}
+		for (Collection collection : metadata.getCollectionBindings()) {
+			if (collection.getCollectionTable() != null) {
+				collectionsByTable.putIfAbsent(collection.getCollectionTable(), collection);
+			}
+		}
+	}
+
+	Optional<PersistentClass> findEntity(final Table table)
+	{
+		return Optional.ofNullable(entitiesByTable.get(table));
+	}
+
+	Optional<Collection> findCollection(final Table table)
+	{
+		return Optional.ofNullable(collectionsByTable.get(table));
+	}
+
+	Optional<Table> findTable(final String className)
+	{
+		return Optional.ofNullable(entitiesByClassName.get(className)).map(PersistentClass::getTable);
+	}
+
+	/**
+	 * Maps columns of the entity to the first of its properties mapping the column.
+	 */
+	static Map<Column, Property> propertiesByColumn(final PersistentClass entity)
+	{
+		final Map<Column, Property> result = new HashMap<>();
+		for (Property property : entity.getProperties()) {
+			for (Column column : property.getColumns()) {
+				result.putIfAbsent(column, property);
+			}
+		}
+		return result;
+	}
+
+}
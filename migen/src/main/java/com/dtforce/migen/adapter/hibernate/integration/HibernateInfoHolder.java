@@ -41,4 +41,15 @@ public class HibernateInfoHolder
 
 	}
 
+	/**
+	 * Creates a holder for metadata built without a session factory, the session factory and bootstrap context
+	 * stay empty.
+	 */
+	public static HibernateInfoHolder ofMetadata(Metadata metadata)
+	{
+		final HibernateInfoHolder hibernateInfoHolder = new HibernateInfoHolder();
+		hibernateInfoHolder.setMetadata(metadata);
+		return hibernateInfoHolder;
+	}
+
 }
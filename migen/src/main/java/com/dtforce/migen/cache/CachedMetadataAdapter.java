@@ -0,0 +1,205 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ddlutils.model.Database;
+import org.hibernate.Version;
+
+import com.dtforce.migen.adapter.MetadataAdapter;
+import com.dtforce.migen.platform.type.PlatformTypeMapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the desired model in a file together with a fingerprint of everything it was built from: the bytecode
+ * of the mapped classes and their superclasses, the Hibernate settings, the type mapping, the Dokka input and
+ * the versions of migen and Hibernate. While the fingerprint matches, the model is loaded from the file and the
+ * delegate, usually a {@link com.dtforce.migen.adapter.hibernate.HibernateAdapter} over a bootstrapped Hibernate,
+ * is never created.
+ * <p>
+ * Only the configured inputs are fingerprinted. Classes used by the mapping, which are not passed to
+ * {@link #withClasses(Collection)}, such as embeddables or attribute converters, have to be added as well.
+ */
+@Slf4j
+public class CachedMetadataAdapter implements MetadataAdapter
+{
+
+	private static final String JDK_PACKAGE = "java.";
+
+	private final Path cachePath;
+
+	private final Supplier<MetadataAdapter> delegateSupplier;
+
+	private final List<Class<?>> classes = new ArrayList<>();
+
+	private final Map<String, String> settings = new TreeMap<>();
+
+	private final List<Path> inputFiles = new ArrayList<>();
+
+	private PlatformTypeMapping platformTypeMapping;
+
+	private MetadataAdapter delegate;
+
+	/**
+	 * @param delegateSupplier called only when the cached model is missing or outdated
+	 */
+	public CachedMetadataAdapter(Path cachePath, Supplier<MetadataAdapter> delegateSupplier)
+	{
+		this.cachePath = cachePath;
+		this.delegateSupplier = delegateSupplier;
+	}
+
+	public CachedMetadataAdapter withClasses(Collection<Class<?>> mappedClasses)
+	{
+		classes.addAll(mappedClasses);
+		return this;
+	}
+
+	public CachedMetadataAdapter withSettings(Map<String, ?> hibernateSettings)
+	{
+		hibernateSettings.forEach((key, value) -> settings.put(key, String.valueOf(value)));
+		return this;
+	}
+
+	public CachedMetadataAdapter withTypeMapping(PlatformTypeMapping typeMapping)
+	{
+		this.platformTypeMapping = typeMapping;
+		return this;
+	}
+
+	/**
+	 * Adds a file, or all files of a directory, the model depends on, such as the Dokka JSON.
+	 */
+	public CachedMetadataAdapter withInputFile(Path path)
+	{
+		inputFiles.add(path);
+		return this;
+	}
+
+	@Override
+	public Database getSchemaDatabase()
+	{
+		final String fingerprint = fingerprint();
+		final Snapshot snapshot = Snapshot.read(cachePath);
+		if (snapshot != null && fingerprint.equals(snapshot.fingerprint)) {
+			log.debug("Using the desired model cached in {}.", cachePath);
+			return snapshot.model;
+		}
+
+		if (delegate == null) {
+			delegate = delegateSupplier.get();
+		}
+		final Database model = delegate.getSchemaDatabase();
+		new Snapshot(fingerprint, model).write(cachePath);
+		return model;
+	}
+
+	private String fingerprint()
+	{
+		final MessageDigest digest = Fingerprints.newDigest();
+		Fingerprints.update(digest, "hibernate " + Version.getVersionString());
+		Fingerprints.updateCode(digest, CachedMetadataAdapter.class);
+		final Map<String, Class<?>> hierarchy = new TreeMap<>();
+		for (Class<?> mappedClass : classes) {
+			Class<?> type = mappedClass;
+			while (type != null && !type.getName().startsWith(JDK_PACKAGE)) {
+				hierarchy.putIfAbsent(type.getName(), type);
+				type = type.getSuperclass();
+			}
+		}
+		hierarchy.values().forEach(type -> Fingerprints.updateClass(digest, type));
+		settings.forEach((key, value) -> Fingerprints.update(digest, "setting " + key + "=" + value));
+		if (platformTypeMapping != null) {
+			Fingerprints.updateTypeMapping(digest, platformTypeMapping);
+		}
+		for (Path inputFile : inputFiles) {
+			Fingerprints.updateFiles(digest, "file ", inputFile);
+		}
+		return Fingerprints.hex(digest);
+	}
+
+	private record Snapshot(String fingerprint, Database model) implements Serializable
+	{
+
+		@Serial
+		private static final long serialVersionUID = 1L;
+
+		static Snapshot read(Path path)
+		{
+			try (InputStream inputStream = Files.newInputStream(path);
+				 ObjectInputStream objectInputStream = new ObjectInputStream(inputStream)) {
+				return (Snapshot) objectInputStream.readObject();
+			} catch (NoSuchFileException ex) {
+				return null;
+			} catch (IOException | ClassNotFoundException | ClassCastException ex) {
+				log.warn("Ignoring unreadable desired model cache {}.", path, ex);
+				return null;
+			}
+		}
+
+		/**
+		 * Writes the snapshot through a temporary file, so concurrent readers never see a partial one.
+		 */
+		void write(Path path)
+		{
+			try {
+				final Path absolutePath = path.toAbsolutePath();
+				Files.createDirectories(absolutePath.getParent());
+				final Path temporary = Files.createTempFile(
+					absolutePath.getParent(),
+					absolutePath.getFileName().toString(),
+					".tmp"
+				);
+				try {
+					try (OutputStream outputStream = Files.newOutputStream(temporary);
+						 ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+						objectOutputStream.writeObject(this);
+					}
+					Files.move(
+						temporary,
+						absolutePath,
+						StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE
+					);
+				} finally {
+					Files.deleteIfExists(temporary);
+				}
+			} catch (IOException ex) {
+				log.warn("Could not write desired model cache {}.", path, ex);
+			}
+		}
+	}
+
+}
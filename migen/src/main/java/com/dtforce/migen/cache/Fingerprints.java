@@ -0,0 +1,171 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.cache;
+
+import com.dtforce.migen.platform.type.PlatformTypeMapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Hashes the inputs, which the cached models are derived from, into SHA-256 fingerprints.
+ */
+public final class Fingerprints
+{
+
+	private static final String LAMBDA_MARKER = "$$Lambda";
+
+	private Fingerprints()
+	{
+	}
+
+	public static MessageDigest newDigest()
+	{
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	public static String hex(MessageDigest digest)
+	{
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	public static void update(MessageDigest digest, String value)
+	{
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+	public static void updateClass(MessageDigest digest, Class<?> type)
+	{
+		update(digest, "class " + type.getName());
+		digest.update(bytecode(type));
+	}
+
+	/**
+	 * Hashes the mapped types and the code of the processors, which rewrite the columns of those types.
+	 */
+	public static void updateTypeMapping(MessageDigest digest, PlatformTypeMapping typeMapping)
+	{
+		typeMapping.getMappedTypes().forEach(type -> update(digest, "type " + type));
+		for (Class<?> processorClass : typeMapping.getProcessorClasses()) {
+			final Class<?> declaringClass = declaringClass(processorClass);
+			update(digest, "processor " + declaringClass.getName());
+			digest.update(bytecode(declaringClass));
+		}
+	}
+
+	/**
+	 * Hashes the jar or class directory the class is loaded from, as the jars do not record their versions.
+	 * Only when that is not a plain file, such as a jar nested in another, the package version is used.
+	 */
+	public static void updateCode(MessageDigest digest, Class<?> type)
+	{
+		final CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+		final Path location = codeSource == null ? null : codePath(codeSource.getLocation());
+		if (location == null) {
+			update(digest, "code " + type.getName() + " " + type.getPackage().getImplementationVersion());
+			return;
+		}
+		updateFiles(digest, "code ", location);
+	}
+
+	/**
+	 * Hashes the file, or all files of the directory.
+	 */
+	public static void updateFiles(MessageDigest digest, String prefix, Path path)
+	{
+		for (Path file : files(path)) {
+			update(digest, prefix + file);
+			try {
+				digest.update(Files.readAllBytes(file));
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}
+	}
+
+	private static Path codePath(URL location)
+	{
+		try {
+			return location == null ? null : Path.of(location.toURI());
+		} catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Lambdas are compiled into hidden classes without bytecode of their own, the class declaring them
+	 * holds their code.
+	 */
+	private static Class<?> declaringClass(Class<?> processorClass)
+	{
+		final String name = processorClass.getName();
+		final int lambdaIdx = name.indexOf(LAMBDA_MARKER);
+		if (lambdaIdx < 0) {
+			return processorClass;
+		}
+		try {
+			return Class.forName(name.substring(0, lambdaIdx), false, processorClass.getClassLoader());
+		} catch (ClassNotFoundException ex) {
+			throw new IllegalStateException("Cannot find class declaring " + name, ex);
+		}
+	}
+
+	private static byte[] bytecode(Class<?> type)
+	{
+		final String resource = "/" + type.getName().replace('.', '/') + ".class";
+		try (InputStream inputStream = type.getResourceAsStream(resource)) {
+			if (inputStream == null) {
+				throw new IllegalStateException("Cannot read bytecode of " + type.getName());
+			}
+			return inputStream.readAllBytes();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	private static List<Path> files(Path path)
+	{
+		if (!Files.isDirectory(path)) {
+			return List.of(path);
+		}
+		try (Stream<Path> files = Files.walk(path)) {
+			return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+}
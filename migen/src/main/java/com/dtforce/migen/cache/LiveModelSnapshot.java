@@ -0,0 +1,181 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.ForeignKey;
+import org.apache.ddlutils.model.Reference;
+import org.apache.ddlutils.model.Table;
+
+import com.dtforce.migen.platform.MigenPlatform;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Last read live database model together with the per table fingerprints it was read at.
+ * <p>
+ * Tables, whose fingerprint did not change since, can be taken from the snapshot instead of being introspected
+ * again. The snapshot is used only while its {@link #key(MigenPlatform, String)} matches.
+ */
+@Slf4j
+public class LiveModelSnapshot implements Serializable
+{
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Identifies how the model was read, see {@link #key(MigenPlatform, String)}.
+	 */
+	@Getter
+	private final String key;
+
+	private final HashMap<String, String> fingerprints;
+
+	private final Database model;
+
+	public LiveModelSnapshot(String key, Map<String, String> fingerprints, Database model)
+	{
+		this.key = key;
+		this.fingerprints = new HashMap<>(fingerprints);
+		this.model = model;
+	}
+
+	/**
+	 * Fingerprints the platform and schema pattern the model is read with, the options and type mapping of the
+	 * reader and the code of migen and DdlUtils, any of which changes the tables read.
+	 */
+	public static String key(MigenPlatform platform, String schemaPattern)
+	{
+		final MessageDigest digest = Fingerprints.newDigest();
+		Fingerprints.update(digest, "platform " + platform.getClass().getName());
+		Fingerprints.update(digest, "reader " + platform.getModelReaderOptions());
+		Fingerprints.update(digest, "schema " + schemaPattern);
+		Fingerprints.updateTypeMapping(digest, platform.getPlatformTypeMapping());
+		Fingerprints.updateCode(digest, LiveModelSnapshot.class);
+		Fingerprints.updateCode(digest, Database.class);
+		return Fingerprints.hex(digest);
+	}
+
+	/**
+	 * Returns names of the tables, which are new or whose fingerprint differs from the snapshot.
+	 */
+	public Set<String> changedTables(Map<String, String> currentFingerprints)
+	{
+		final Set<String> changed = new LinkedHashSet<>();
+		for (var entry : currentFingerprints.entrySet()) {
+			if (!Objects.equals(fingerprints.get(entry.getKey()), entry.getValue())) {
+				changed.add(entry.getKey());
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Returns the snapshot tables, which still exist and did not change. Their foreign keys reference
+	 * other tables only by name, so they can be assembled with freshly read tables.
+	 */
+	public List<Table> unchangedTables(Map<String, String> currentFingerprints)
+	{
+		final List<Table> tables = new ArrayList<>();
+		for (Table table : model.getTables()) {
+			final String fingerprint = currentFingerprints.get(table.getName());
+			if (fingerprint != null && fingerprint.equals(fingerprints.get(table.getName()))) {
+				tables.add(detach(table));
+			}
+		}
+		return tables;
+	}
+
+	/**
+	 * Reads the snapshot, returns null when there is none or it cannot be read.
+	 */
+	public static LiveModelSnapshot read(Path path)
+	{
+		try (InputStream inputStream = Files.newInputStream(path);
+			 ObjectInputStream objectInputStream = new ObjectInputStream(inputStream)) {
+			return (LiveModelSnapshot) objectInputStream.readObject();
+		} catch (NoSuchFileException ex) {
+			return null;
+		} catch (IOException | ClassNotFoundException | ClassCastException ex) {
+			log.warn("Ignoring unreadable live model snapshot {}.", path, ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the snapshot through a temporary file, so concurrent readers never see a partial snapshot.
+	 */
+	public void write(Path path)
+	{
+		try {
+			final Path absolutePath = path.toAbsolutePath();
+			Files.createDirectories(absolutePath.getParent());
+			final Path temporary = Files.createTempFile(absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+			try {
+				try (OutputStream outputStream = Files.newOutputStream(temporary);
+					 ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+					objectOutputStream.writeObject(this);
+				}
+				Files.move(temporary, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temporary);
+			}
+		} catch (IOException ex) {
+			log.warn("Could not write live model snapshot {}.", path, ex);
+		}
+	}
+
+	private static Table detach(Table table)
+	{
+		for (int idx = 0; idx < table.getForeignKeyCount(); idx++) {
+			final ForeignKey foreignKey = table.getForeignKey(idx);
+			final ForeignKey detached = new ForeignKey(foreignKey.getName());
+			detached.setForeignTableName(foreignKey.getForeignTableName());
+			for (Reference reference : foreignKey.getReferences()) {
+				final Reference detachedReference = new Reference();
+				detachedReference.setLocalColumnName(reference.getLocalColumnName());
+				detachedReference.setForeignColumnName(reference.getForeignColumnName());
+				detached.addReference(detachedReference);
+			}
+			table.removeForeignKey(idx);
+			table.addForeignKey(idx, detached);
+		}
+		return table;
+	}
+
+}
@@ -26,8 +26,10 @@ import org.apache.ddlutils.model.Column;
 import org.apache.ddlutils.model.Database;
 import org.apache.ddlutils.model.Table;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 public class CustomModelComparator extends ModelComparator
 {
@@ -83,44 +85,62 @@ public class CustomModelComparator extends ModelComparator
 		final Database sourceModel, final Table sourceTable, final Database targetModel, final Table targetTable
 	)
 	{
-		final List changes = super.compareTables(sourceModel, sourceTable, targetModel, targetTable);
+		final List changes = compareTableStructure(sourceModel, sourceTable, targetModel, targetTable);
 		// remove primary key changes based on reordering columns
-		changes.removeIf(o -> {
-			if (o instanceof PrimaryKeyChange) {
-				Column[] sourcePK = sourceTable.getPrimaryKeyColumns();
-				Column[] targetPK = targetTable.getPrimaryKeyColumns();
-				if (sourcePK.length == targetPK.length) {
-					boolean pkChanged = false;
-					for (Column sourceCol : sourcePK) {
-						boolean isFound = false;
-						for (Column targetCol : targetPK) {
-							if(compareColumnName(sourceCol, targetCol)) {
-								isFound = true;
-								break;
-							}
-						}
-						if (!isFound) {
-							pkChanged = true;
-							break;
-						}
-					}
-					return !pkChanged;
-				} else {
-					return false;
-				}
-			} else {
-				return false;
-			}
-		});
+		changes.removeIf(o -> o instanceof PrimaryKeyChange && isPrimaryKeyReordered(sourceTable, targetTable));
 		if (!Objects.equals(sourceTable.getDescription(), targetTable.getDescription())) {
 			changes.add(new TableDescriptionChanged(targetTable, targetTable.getDescription()));
 		}
 		return changes;
 	}
 
-	private boolean compareColumnName(final Column sourceCol, final Column targetCol)
+	/**
+	 * Compares foreign keys, indices, columns and primary keys of the tables.
+	 */
+	protected List compareTableStructure(
+		final Database sourceModel, final Table sourceTable, final Database targetModel, final Table targetTable
+	)
+	{
+		return super.compareTables(sourceModel, sourceTable, targetModel, targetTable);
+	}
+
+	/**
+	 * Returns key under which names equal according to the case sensitivity of this comparator match.
+	 */
+	protected String nameKey(final String name)
+	{
+		if (caseSensitive || name == null) {
+			return name;
+		}
+		final StringBuilder key = new StringBuilder(name.length());
+		for (int idx = 0; idx < name.length(); idx++) {
+			key.append(Character.toLowerCase(Character.toUpperCase(name.charAt(idx))));
+		}
+		return key.toString();
+	}
+
+	protected boolean isCaseSensitive()
+	{
+		return caseSensitive;
+	}
+
+	private boolean isPrimaryKeyReordered(final Table sourceTable, final Table targetTable)
 	{
-		return this.caseSensitive && !sourceCol.getName().equals(targetCol.getName()) || !this.caseSensitive && !sourceCol.getName().equalsIgnoreCase(targetCol.getName());
+		final Column[] sourcePK = sourceTable.getPrimaryKeyColumns();
+		final Column[] targetPK = targetTable.getPrimaryKeyColumns();
+		if (sourcePK.length != targetPK.length) {
+			return false;
+		}
+		final Set<String> sourceNames = new HashSet<>(sourcePK.length);
+		for (Column column : sourcePK) {
+			sourceNames.add(nameKey(column.getName()));
+		}
+		for (Column column : targetPK) {
+			if (!sourceNames.contains(nameKey(column.getName()))) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	private boolean isRawTyped(Column sourceColumn, Column targetColumn)
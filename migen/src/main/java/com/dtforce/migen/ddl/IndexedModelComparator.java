@@ -0,0 +1,468 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.ddl;
+
+import org.apache.ddlutils.PlatformInfo;
+import org.apache.ddlutils.alteration.AddColumnChange;
+import org.apache.ddlutils.alteration.AddForeignKeyChange;
+import org.apache.ddlutils.alteration.AddIndexChange;
+import org.apache.ddlutils.alteration.AddPrimaryKeyChange;
+import org.apache.ddlutils.alteration.AddTableChange;
+import org.apache.ddlutils.alteration.ColumnOrderChange;
+import org.apache.ddlutils.alteration.ModelChange;
+import org.apache.ddlutils.alteration.PrimaryKeyChange;
+import org.apache.ddlutils.alteration.RemoveColumnChange;
+import org.apache.ddlutils.alteration.RemoveForeignKeyChange;
+import org.apache.ddlutils.alteration.RemoveIndexChange;
+import org.apache.ddlutils.alteration.RemovePrimaryKeyChange;
+import org.apache.ddlutils.alteration.RemoveTableChange;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.ForeignKey;
+import org.apache.ddlutils.model.Index;
+import org.apache.ddlutils.model.IndexColumn;
+import org.apache.ddlutils.model.Reference;
+import org.apache.ddlutils.model.Table;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Model comparator, which looks up tables, columns, foreign keys and indices in hash maps built once per
+ * comparison instead of scanning the other model for each of them.
+ * <p>
+ * Produces the same changes in the same order as {@link CustomModelComparator}, not as DdlUtils' own model
+ * comparator, whose primary key handling differs. Foreign keys and indices are bucketed by a key derived from
+ * their structure, the bucket is then searched with DdlUtils' {@code equals}/{@code equalsIgnoreCase}, so the
+ * first matching one in table order still wins. The matching thus keeps DdlUtils' semantics rather than exact
+ * equality: names are only compared when both sides have one and, case-insensitively, foreign key references are
+ * compared as an unordered collection. The bucket key is built from the same parts, so it never separates two
+ * foreign keys or indices these methods consider equal.
+ */
+public class IndexedModelComparator extends CustomModelComparator
+{
+
+	private ForkJoinPool pool;
+
+	private Map<Table, List> tableChanges;
+
+	public IndexedModelComparator(PlatformInfo platformInfo, boolean caseSensitive)
+	{
+		super(platformInfo, caseSensitive);
+	}
+
+	/**
+	 * Compares the pairs of tables present in both models in the given pool. The changes are merged in the
+	 * order of the target model, so they are the same as when compared sequentially.
+	 */
+	public IndexedModelComparator withPool(ForkJoinPool pool)
+	{
+		this.pool = pool;
+		return this;
+	}
+
+	@Override
+	public List compare(final Database sourceModel, final Database targetModel)
+	{
+		final IndexedDatabase indexedSourceModel = new IndexedDatabase(sourceModel);
+		final IndexedDatabase indexedTargetModel = new IndexedDatabase(targetModel);
+		if (pool == null) {
+			return super.compare(indexedSourceModel, indexedTargetModel);
+		}
+
+		final List<Table[]> tablePairs = new ArrayList<>(targetModel.getTableCount());
+		for (Table targetTable : targetModel.getTables()) {
+			final Table sourceTable = indexedSourceModel.findTable(targetTable.getName(), isCaseSensitive());
+			if (sourceTable != null) {
+				tablePairs.add(new Table[]{sourceTable, targetTable});
+			}
+		}
+		final List<List> changes = pool.invoke(ForkJoinTask.adapt(() -> tablePairs.parallelStream()
+			.map(it -> compareTables(indexedSourceModel, it[0], indexedTargetModel, it[1]))
+			.collect(Collectors.toList())
+		));
+
+		tableChanges = new IdentityHashMap<>(tablePairs.size());
+		for (int idx = 0; idx < tablePairs.size(); idx++) {
+			tableChanges.put(tablePairs.get(idx)[1], changes.get(idx));
+		}
+		try {
+			return super.compare(indexedSourceModel, indexedTargetModel);
+		} finally {
+			tableChanges = null;
+		}
+	}
+
+	/**
+	 * Finds the first change accepted by the predicate, comparing the cheap parts of the models first: the table
+	 * names, then the columns of the tables and only then the complete tables including indices, foreign keys
+	 * and comments. Returns null when there is no such change.
+	 */
+	public ModelChange findFirstChange(
+		final Database sourceModel,
+		final Database targetModel,
+		final Predicate<ModelChange> predicate
+	)
+	{
+		final IndexedDatabase indexedSourceModel = new IndexedDatabase(sourceModel);
+		final IndexedDatabase indexedTargetModel = new IndexedDatabase(targetModel);
+
+		final List<Table[]> tablePairs = new ArrayList<>(targetModel.getTableCount());
+		for (Table targetTable : targetModel.getTables()) {
+			final Table sourceTable = indexedSourceModel.findTable(targetTable.getName(), isCaseSensitive());
+			if (sourceTable != null) {
+				tablePairs.add(new Table[]{sourceTable, targetTable});
+				continue;
+			}
+			final List<ModelChange> changes = new ArrayList<>();
+			changes.add(new AddTableChange(targetTable));
+			for (ForeignKey foreignKey : targetTable.getForeignKeys()) {
+				changes.add(new AddForeignKeyChange(targetTable, foreignKey));
+			}
+			final ModelChange change = findFirst(changes, predicate);
+			if (change != null) {
+				return change;
+			}
+		}
+		for (Table sourceTable : sourceModel.getTables()) {
+			if (indexedTargetModel.findTable(sourceTable.getName(), isCaseSensitive()) != null) {
+				continue;
+			}
+			final List<ModelChange> changes = new ArrayList<>();
+			for (ForeignKey foreignKey : sourceTable.getForeignKeys()) {
+				changes.add(new RemoveForeignKeyChange(sourceTable, foreignKey));
+			}
+			changes.add(new RemoveTableChange(sourceTable));
+			final ModelChange change = findFirst(changes, predicate);
+			if (change != null) {
+				return change;
+			}
+		}
+
+		for (Table[] tablePair : tablePairs) {
+			final ModelChange change = findFirstColumnChange(tablePair[0], tablePair[1], predicate);
+			if (change != null) {
+				return change;
+			}
+		}
+		for (Table[] tablePair : tablePairs) {
+			@SuppressWarnings("unchecked")
+			final List<ModelChange> changes = compareTables(
+				indexedSourceModel,
+				tablePair[0],
+				indexedTargetModel,
+				tablePair[1]
+			);
+			final ModelChange change = findFirst(changes, predicate);
+			if (change != null) {
+				return change;
+			}
+		}
+		return null;
+	}
+
+	private ModelChange findFirstColumnChange(
+		final Table sourceTable,
+		final Table targetTable,
+		final Predicate<ModelChange> predicate
+	)
+	{
+		final Map<String, Column> sourceColumns = indexColumns(sourceTable);
+		for (Column targetColumn : targetTable.getColumns()) {
+			final Column sourceColumn = sourceColumns.get(nameKey(targetColumn.getName()));
+			final List<? extends ModelChange> changes = sourceColumn == null
+				? List.of(new AddColumnChange(targetTable, targetColumn, null, null))
+				: compareColumns(sourceTable, sourceColumn, targetTable, targetColumn);
+			final ModelChange change = findFirst(changes, predicate);
+			if (change != null) {
+				return change;
+			}
+		}
+		final Map<String, Column> targetColumns = indexColumns(targetTable);
+		for (Column sourceColumn : sourceTable.getColumns()) {
+			if (!targetColumns.containsKey(nameKey(sourceColumn.getName()))) {
+				final ModelChange change = new RemoveColumnChange(sourceTable, sourceColumn);
+				if (predicate.test(change)) {
+					return change;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static ModelChange findFirst(
+		final List<? extends ModelChange> changes,
+		final Predicate<ModelChange> predicate
+	)
+	{
+		for (ModelChange change : changes) {
+			if (predicate.test(change)) {
+				return change;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public List compareTables(
+		final Database sourceModel, final Table sourceTable, final Database targetModel, final Table targetTable
+	)
+	{
+		if (tableChanges != null) {
+			final List changes = tableChanges.remove(targetTable);
+			if (changes != null) {
+				return changes;
+			}
+		}
+		return super.compareTables(sourceModel, sourceTable, targetModel, targetTable);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected List compareTableStructure(
+		final Database sourceModel, final Table sourceTable, final Database targetModel, final Table targetTable
+	)
+	{
+		final List changes = new ArrayList();
+
+		final Map<String, List<ForeignKey>> sourceForeignKeys = indexForeignKeys(sourceTable);
+		final Map<String, List<ForeignKey>> targetForeignKeys = indexForeignKeys(targetTable);
+		for (ForeignKey sourceForeignKey : sourceTable.getForeignKeys()) {
+			if (findForeignKey(targetForeignKeys, sourceForeignKey) == null) {
+				changes.add(new RemoveForeignKeyChange(sourceTable, sourceForeignKey));
+			}
+		}
+		for (ForeignKey targetForeignKey : targetTable.getForeignKeys()) {
+			if (findForeignKey(sourceForeignKeys, targetForeignKey) == null) {
+				changes.add(new AddForeignKeyChange(targetTable, targetForeignKey));
+			}
+		}
+
+		final Map<String, List<Index>> sourceIndices = indexIndices(sourceTable);
+		final Map<String, List<Index>> targetIndices = indexIndices(targetTable);
+		for (Index sourceIndex : sourceTable.getIndices()) {
+			if (findIndex(targetIndices, sourceIndex) == null) {
+				changes.add(new RemoveIndexChange(sourceTable, sourceIndex));
+			}
+		}
+		for (Index targetIndex : targetTable.getIndices()) {
+			if (findIndex(sourceIndices, targetIndex) == null) {
+				changes.add(new AddIndexChange(targetTable, targetIndex));
+			}
+		}
+
+		final Map<String, Column> sourceColumns = indexColumns(sourceTable);
+		final Map<String, Column> targetColumns = indexColumns(targetTable);
+		final Map<Column, AddColumnChange> addColumnChanges = new IdentityHashMap<>();
+		final int targetColumnCount = targetTable.getColumnCount();
+		for (int columnIdx = 0; columnIdx < targetColumnCount; columnIdx++) {
+			final Column targetColumn = targetTable.getColumn(columnIdx);
+			final Column sourceColumn = sourceColumns.get(nameKey(targetColumn.getName()));
+			if (sourceColumn == null) {
+				final AddColumnChange change = new AddColumnChange(
+					targetTable,
+					targetColumn,
+					columnIdx > 0 ? targetTable.getColumn(columnIdx - 1) : null,
+					columnIdx < targetColumnCount - 1 ? targetTable.getColumn(columnIdx + 1) : null
+				);
+				changes.add(change);
+				addColumnChanges.put(targetColumn, change);
+			} else {
+				changes.addAll(compareColumns(sourceTable, sourceColumn, targetTable, targetColumn));
+			}
+		}
+		// columns added after the last existing one can be simply appended
+		for (int columnIdx = targetColumnCount - 1; columnIdx >= 0; columnIdx--) {
+			final AddColumnChange change = addColumnChanges.get(targetTable.getColumn(columnIdx));
+			if (change == null) {
+				break;
+			}
+			change.setAtEnd(true);
+		}
+
+		final Column[] sourcePK = sourceTable.getPrimaryKeyColumns();
+		final Column[] targetPK = targetTable.getPrimaryKeyColumns();
+		if (sourcePK.length == 0 && targetPK.length > 0) {
+			changes.add(new AddPrimaryKeyChange(targetTable, targetPK));
+		} else if (targetPK.length == 0 && sourcePK.length > 0) {
+			changes.add(new RemovePrimaryKeyChange(sourceTable, sourcePK));
+		} else if (sourcePK.length > 0 && isPrimaryKeyChanged(sourcePK, targetPK)) {
+			changes.add(new PrimaryKeyChange(sourceTable, sourcePK, targetPK));
+		}
+
+		final Map<Column, Integer> targetPositions = new IdentityHashMap<>(targetColumnCount);
+		for (int columnIdx = 0; columnIdx < targetColumnCount; columnIdx++) {
+			targetPositions.put(targetTable.getColumn(columnIdx), columnIdx);
+		}
+		final HashMap columnPosChanges = new HashMap();
+		for (int columnIdx = 0; columnIdx < sourceTable.getColumnCount(); columnIdx++) {
+			final Column sourceColumn = sourceTable.getColumn(columnIdx);
+			final Column targetColumn = targetColumns.get(nameKey(sourceColumn.getName()));
+			if (targetColumn == null) {
+				changes.add(new RemoveColumnChange(sourceTable, sourceColumn));
+			} else {
+				final int targetColumnIdx = targetPositions.get(targetColumn);
+				if (targetColumnIdx != columnIdx) {
+					columnPosChanges.put(sourceColumn, targetColumnIdx);
+				}
+			}
+		}
+		if (!columnPosChanges.isEmpty()) {
+			changes.add(new ColumnOrderChange(sourceTable, columnPosChanges));
+		}
+		return changes;
+	}
+
+	private boolean isPrimaryKeyChanged(final Column[] sourcePK, final Column[] targetPK)
+	{
+		if (sourcePK.length != targetPK.length) {
+			return true;
+		}
+		for (int idx = 0; idx < sourcePK.length; idx++) {
+			if (!nameKey(sourcePK[idx].getName()).equals(nameKey(targetPK[idx].getName()))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Map<String, Column> indexColumns(final Table table)
+	{
+		final Map<String, Column> columns = new HashMap<>(table.getColumnCount() * 2);
+		for (Column column : table.getColumns()) {
+			columns.putIfAbsent(nameKey(column.getName()), column);
+		}
+		return columns;
+	}
+
+	private Map<String, List<ForeignKey>> indexForeignKeys(final Table table)
+	{
+		final Map<String, List<ForeignKey>> foreignKeys = new HashMap<>();
+		for (ForeignKey foreignKey : table.getForeignKeys()) {
+			foreignKeys.computeIfAbsent(foreignKeyKey(foreignKey), key -> new ArrayList<>(1)).add(foreignKey);
+		}
+		return foreignKeys;
+	}
+
+	private ForeignKey findForeignKey(final Map<String, List<ForeignKey>> foreignKeys, final ForeignKey foreignKey)
+	{
+		final List<ForeignKey> candidates = foreignKeys.get(foreignKeyKey(foreignKey));
+		if (candidates != null) {
+			for (ForeignKey candidate : candidates) {
+				if (isCaseSensitive() ? foreignKey.equals(candidate) : foreignKey.equalsIgnoreCase(candidate)) {
+					return candidate;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Foreign table and the set of references, the name is left out as it is only compared when both are set.
+	 */
+	private String foreignKeyKey(final ForeignKey foreignKey)
+	{
+		final TreeSet<String> references = new TreeSet<>();
+		for (Reference reference : foreignKey.getReferences()) {
+			references.add(nameKey(reference.getLocalColumnName()) + '\u0000' + nameKey(reference.getForeignColumnName()));
+		}
+		return nameKey(foreignKey.getForeignTableName()) + '\u0001' + String.join("\u0001", references);
+	}
+
+	private Map<String, List<Index>> indexIndices(final Table table)
+	{
+		final Map<String, List<Index>> indices = new HashMap<>();
+		for (Index index : table.getIndices()) {
+			indices.computeIfAbsent(indexKey(index), key -> new ArrayList<>(1)).add(index);
+		}
+		return indices;
+	}
+
+	private Index findIndex(final Map<String, List<Index>> indices, final Index index)
+	{
+		final List<Index> candidates = indices.get(indexKey(index));
+		if (candidates != null) {
+			for (Index candidate : candidates) {
+				if (isCaseSensitive() ? index.equals(candidate) : index.equalsIgnoreCase(candidate)) {
+					return candidate;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Uniqueness and the ordered index columns, the name is left out as it is only compared when both are set.
+	 */
+	private String indexKey(final Index index)
+	{
+		final StringBuilder key = new StringBuilder(index.isUnique() ? "U" : "N");
+		for (IndexColumn column : index.getColumns()) {
+			key.append('\u0001').append(nameKey(column.getName()));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Shares the tables of the wrapped model, but finds them by name in constant time.
+	 */
+	private class IndexedDatabase extends Database
+	{
+
+		@Serial
+		private static final long serialVersionUID = 1L;
+
+		private final Map<String, Table> tablesByName = new HashMap<>();
+
+		IndexedDatabase(final Database model)
+		{
+			setName(model.getName());
+			setVersion(model.getVersion());
+			setIdMethod(model.getIdMethod());
+			for (Table table : model.getTables()) {
+				addTable(table);
+				tablesByName.putIfAbsent(nameKey(table.getName()), table);
+			}
+		}
+
+		@Override
+		public Table findTable(final String name)
+		{
+			return findTable(name, false);
+		}
+
+		@Override
+		public Table findTable(final String name, final boolean caseSensitive)
+		{
+			if (caseSensitive != isCaseSensitive()) {
+				return super.findTable(name, caseSensitive);
+			}
+			return tablesByName.get(nameKey(name));
+		}
+
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.ddl;
+
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.ForeignKey;
+import org.apache.ddlutils.model.Index;
+import org.apache.ddlutils.model.IndexColumn;
+import org.apache.ddlutils.model.Reference;
+import org.apache.ddlutils.model.Table;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Hashes the structure of a model, the name of the model and the schema of its tables are left out, so models
+ * of schemas with identical tables share the fingerprint. Tables, indices and foreign keys are hashed ordered
+ * by name, columns in their order in the table.
+ */
+public final class ModelFingerprint
+{
+
+	private ModelFingerprint()
+	{
+
+	}
+
+	public static String of(Database database)
+	{
+		final MessageDigest digest = newDigest();
+		final List<Table> tables = new ArrayList<>(Arrays.asList(database.getTables()));
+		tables.sort(Comparator.comparing(table -> table.getName().toLowerCase()));
+		for (Table table : tables) {
+			update(digest, "table", table.getName(), table.getDescription());
+			for (Column column : table.getColumns()) {
+				update(
+					digest,
+					"column",
+					column.getName(),
+					column instanceof RawTypedColumn rawTypedColumn ? rawTypedColumn.getRawCompleteType() : null,
+					String.valueOf(column.getTypeCode()),
+					column.getSize(),
+					String.valueOf(column.getScale()),
+					String.valueOf(column.isPrimaryKey()),
+					String.valueOf(column.isRequired()),
+					String.valueOf(column.isAutoIncrement()),
+					column.getDefaultValue(),
+					column.getDescription()
+				);
+			}
+
+			final List<Index> indices = new ArrayList<>(Arrays.asList(table.getIndices()));
+			indices.sort(Comparator.comparing(index -> String.valueOf(index.getName()).toLowerCase()));
+			for (Index index : indices) {
+				update(
+					digest,
+					"index",
+					index.getName(),
+					String.valueOf(index.isUnique()),
+					index instanceof FilterIndexDef filterIndex ? filterIndex.getFilterCondition() : null
+				);
+				for (IndexColumn indexColumn : index.getColumns()) {
+					update(digest, "index column", indexColumn.getName());
+				}
+			}
+
+			final List<ForeignKey> foreignKeys = new ArrayList<>(Arrays.asList(table.getForeignKeys()));
+			foreignKeys.sort(Comparator.comparing(foreignKey -> String.valueOf(foreignKey.getName()).toLowerCase()));
+			for (ForeignKey foreignKey : foreignKeys) {
+				update(digest, "foreign key", foreignKey.getName(), foreignKey.getForeignTableName());
+				for (Reference reference : foreignKey.getReferences()) {
+					update(digest, "reference", reference.getLocalColumnName(), reference.getForeignColumnName());
+				}
+			}
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static void update(MessageDigest digest, String... values)
+	{
+		for (String value : values) {
+			if (value != null) {
+				digest.update(value.getBytes(StandardCharsets.UTF_8));
+			}
+			digest.update((byte) (value == null ? 1 : 0));
+		}
+		digest.update((byte) 2);
+	}
+
+	private static MessageDigest newDigest()
+	{
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+}
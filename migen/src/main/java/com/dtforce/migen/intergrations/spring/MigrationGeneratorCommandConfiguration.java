@@ -24,8 +24,7 @@ import org.springframework.context.annotation.Profile;
 
 import com.dtforce.migen.MigrationGenerator;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -48,20 +47,18 @@ public class MigrationGeneratorCommandConfiguration
 				description = "DESCRIPTION";
 			}
 
-			final String fileName = "V" +
+			final String version = "V" +
 				LocalDateTime.now().format(
 					DateTimeFormatter.ofPattern("yyyy_MM_dd_HHmm")
-				) + "__" + description + ".sql";
+				);
+			final String fileName = version + "__" + description + ".sql";
+			// runs right after the transactional migration
+			final String nonTransactionalFileName = version + "_1__" + description + "_non_transactional.sql";
 
 			log.info("Generating migration {}.", fileName);
 
-			final String migrationSQL = migrationGenerator.generateMigrationSQL();
-
-			if (!migrationSQL.isEmpty()) {
-				log.info("Migration sql generated {}.", migrationSQL);
-				BufferedWriter writer = new BufferedWriter(new FileWriter(fileName));
-				writer.write(migrationSQL);
-				writer.close();
+			if (migrationGenerator.generateMigration(Path.of(fileName), Path.of(nonTransactionalFileName))) {
+				log.info("Migration sql generated into {}.", fileName);
 			} else {
 				log.info("Schema is in sync.");
 			}
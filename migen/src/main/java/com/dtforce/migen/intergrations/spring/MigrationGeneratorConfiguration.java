@@ -24,6 +24,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.datasource.DataSourceUtils;
 
 import com.dtforce.dokka.json.DokkaJsonModule;
+import com.dtforce.dokka.json.DokkaJsonSource;
 import com.dtforce.migen.MigrationGenerator;
 import com.dtforce.migen.adapter.MetadataAdapter;
 import com.dtforce.migen.adapter.hibernate.HibernateAdapter;
@@ -54,9 +55,18 @@ public class MigrationGeneratorConfiguration
 	public MetadataAdapter metadataAdapter(
 		final HibernateInfoHolder hibernateInfoHolder,
 		final Optional<DokkaJsonModule> dokkaJsonModuleOptional,
+		final Optional<DokkaJsonSource> dokkaJsonSourceOptional,
 		final Optional<PlatformTypeMapping> platformTypeMapping
 	)
 	{
+		if (dokkaJsonSourceOptional.isPresent()) {
+			return HibernateAdapter.withDokkaSource(
+				hibernateInfoHolder,
+				DefaultSchemaFilter.INSTANCE,
+				dokkaJsonSourceOptional.get(),
+				platformTypeMapping.orElse(null)
+			);
+		}
 		return new HibernateAdapter(
 			hibernateInfoHolder,
 			DefaultSchemaFilter.INSTANCE,
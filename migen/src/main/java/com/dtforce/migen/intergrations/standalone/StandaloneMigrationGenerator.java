@@ -0,0 +1,266 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.intergrations.standalone;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.model.naming.ImplicitNamingStrategyJpaCompliantImpl;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.tool.schema.internal.DefaultSchemaFilter;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import com.dtforce.dokka.json.DokkaJsonSource;
+import com.dtforce.migen.MigrationGenerator;
+import com.dtforce.migen.adapter.MetadataAdapter;
+import com.dtforce.migen.adapter.hibernate.HibernateAdapter;
+import com.dtforce.migen.adapter.hibernate.integration.HibernateInfoHolder;
+import com.dtforce.migen.cache.CachedMetadataAdapter;
+import com.dtforce.migen.platform.MigenPlatform;
+import com.dtforce.migen.platform.PlatformFactory;
+import com.dtforce.migen.platform.type.PlatformTypeMapping;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * Creates a {@link MigrationGenerator} without Spring. Only the Hibernate {@link Metadata} of the given entity
+ * classes is built, the session factory and a connection pool are never started.
+ * <p>
+ * The naming strategies default to the ones of Spring Boot, so the model matches the one generated inside the
+ * application. Without Spring Boot on the class path, the implicit naming falls back to the JPA compliant one of
+ * Hibernate, which names join tables after both entities instead of the owning table and property. With a
+ * dialect set, Hibernate does not touch the database at all, otherwise it connects once through the data source
+ * to detect it.
+ * <pre>
+ * try (var bootstrap = new StandaloneMigrationGenerator()
+ *     .withAnnotatedClasses(entityClasses)
+ *     .withDialect(PostgreSQLDialect.class.getName())) {
+ *     bootstrap.create(dataSource).generateMigration(path);
+ * }
+ * </pre>
+ */
+@Slf4j
+public class StandaloneMigrationGenerator implements AutoCloseable
+{
+
+	/**
+	 * Stops Hibernate from reading the JDBC metadata on boot, Hibernate 6.5 and newer use
+	 * {@code hibernate.boot.allow_jdbc_metadata_access} instead.
+	 */
+	private static final String USE_JDBC_METADATA_DEFAULTS = "hibernate.temp.use_jdbc_metadata_defaults";
+
+	private static final String ALLOW_JDBC_METADATA_ACCESS = "hibernate.boot.allow_jdbc_metadata_access";
+
+	private static final String SPRING_IMPLICIT_NAMING_STRATEGY =
+		"org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy";
+
+	private final List<Class<?>> annotatedClasses = new ArrayList<>();
+
+	private final Map<String, Object> settings = new LinkedHashMap<>();
+
+	private DokkaJsonSource dokkaSource;
+
+	private PlatformTypeMapping platformTypeMapping;
+
+	private Path modelCachePath;
+
+	private final List<Path> modelCacheInputs = new ArrayList<>();
+
+	private StandardServiceRegistry serviceRegistry;
+
+	public StandaloneMigrationGenerator()
+	{
+		settings.put(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName());
+		settings.put(
+			AvailableSettings.IMPLICIT_NAMING_STRATEGY,
+			defaultImplicitNamingStrategy(StandaloneMigrationGenerator.class.getClassLoader())
+		);
+	}
+
+	/**
+	 * @return the implicit naming strategy of Spring Boot, if it can be loaded, otherwise the one of Hibernate
+	 */
+	public static String defaultImplicitNamingStrategy(ClassLoader classLoader)
+	{
+		try {
+			Class.forName(SPRING_IMPLICIT_NAMING_STRATEGY, false, classLoader);
+			return SPRING_IMPLICIT_NAMING_STRATEGY;
+		} catch (ClassNotFoundException | LinkageError ex) {
+			log.debug(
+				"{} is not available, using {}.",
+				SPRING_IMPLICIT_NAMING_STRATEGY,
+				ImplicitNamingStrategyJpaCompliantImpl.class.getName()
+			);
+			return ImplicitNamingStrategyJpaCompliantImpl.class.getName();
+		}
+	}
+
+	public StandaloneMigrationGenerator withAnnotatedClasses(Class<?>... classes)
+	{
+		return withAnnotatedClasses(Arrays.asList(classes));
+	}
+
+	public StandaloneMigrationGenerator withAnnotatedClasses(Collection<Class<?>> classes)
+	{
+		annotatedClasses.addAll(classes);
+		return this;
+	}
+
+	/**
+	 * Sets a Hibernate setting, see {@link AvailableSettings}.
+	 */
+	public StandaloneMigrationGenerator withSetting(String name, Object value)
+	{
+		settings.put(name, value);
+		return this;
+	}
+
+	/**
+	 * @param dialect class name of the Hibernate dialect
+	 */
+	public StandaloneMigrationGenerator withDialect(String dialect)
+	{
+		return withSetting(AvailableSettings.DIALECT, dialect);
+	}
+
+	public StandaloneMigrationGenerator withDokkaSource(DokkaJsonSource dokkaSource)
+	{
+		this.dokkaSource = dokkaSource;
+		return this;
+	}
+
+	public StandaloneMigrationGenerator withPlatformTypeMapping(PlatformTypeMapping platformTypeMapping)
+	{
+		this.platformTypeMapping = platformTypeMapping;
+		return this;
+	}
+
+	/**
+	 * Keeps the desired model in the file, while the entity classes and settings do not change, Hibernate is
+	 * not bootstrapped at all, see {@link CachedMetadataAdapter}.
+	 *
+	 * @param inputs files the model depends on besides the classes, such as the Dokka JSON
+	 */
+	public StandaloneMigrationGenerator withModelCache(Path cachePath, Path... inputs)
+	{
+		this.modelCachePath = cachePath;
+		this.modelCacheInputs.addAll(Arrays.asList(inputs));
+		return this;
+	}
+
+	public MetadataAdapter createMetadataAdapter(DataSource dataSource)
+	{
+		if (modelCachePath == null) {
+			return createHibernateAdapter(dataSource);
+		}
+		final CachedMetadataAdapter cachedAdapter = new CachedMetadataAdapter(
+			modelCachePath,
+			() -> createHibernateAdapter(dataSource)
+		)
+			.withClasses(annotatedClasses)
+			.withSettings(settings);
+		if (platformTypeMapping != null) {
+			cachedAdapter.withTypeMapping(platformTypeMapping);
+		}
+		modelCacheInputs.forEach(cachedAdapter::withInputFile);
+		return cachedAdapter;
+	}
+
+	public MigrationGenerator create(DataSource dataSource)
+	{
+		return new MigrationGenerator(createMetadataAdapter(dataSource), dataSource, createPlatform(dataSource));
+	}
+
+	/**
+	 * Releases the Hibernate service registry, if it was built.
+	 */
+	@Override
+	public void close()
+	{
+		if (serviceRegistry != null) {
+			StandardServiceRegistryBuilder.destroy(serviceRegistry);
+			serviceRegistry = null;
+		}
+	}
+
+	private HibernateAdapter createHibernateAdapter(DataSource dataSource)
+	{
+		final HibernateInfoHolder hibernateInfoHolder = HibernateInfoHolder.ofMetadata(buildMetadata(dataSource));
+		if (dokkaSource != null) {
+			return HibernateAdapter.withDokkaSource(
+				hibernateInfoHolder,
+				DefaultSchemaFilter.INSTANCE,
+				dokkaSource,
+				platformTypeMapping
+			);
+		}
+		return new HibernateAdapter(hibernateInfoHolder, DefaultSchemaFilter.INSTANCE, null, platformTypeMapping);
+	}
+
+	private Metadata buildMetadata(DataSource dataSource)
+	{
+		final long start = System.nanoTime();
+		final StandardServiceRegistryBuilder registryBuilder = new StandardServiceRegistryBuilder()
+			.applySettings(settings);
+		if (settings.containsKey(AvailableSettings.DIALECT)) {
+			registryBuilder.applySetting(USE_JDBC_METADATA_DEFAULTS, false);
+			registryBuilder.applySetting(ALLOW_JDBC_METADATA_ACCESS, false);
+		} else {
+			registryBuilder.applySetting(AvailableSettings.DATASOURCE, dataSource);
+		}
+		close();
+		serviceRegistry = registryBuilder.build();
+
+		final MetadataSources metadataSources = new MetadataSources(serviceRegistry);
+		annotatedClasses.forEach(metadataSources::addAnnotatedClass);
+		final Metadata metadata = metadataSources.buildMetadata();
+		log.debug(
+			"Built Hibernate metadata of {} classes in {} ms.",
+			annotatedClasses.size(),
+			(System.nanoTime() - start) / 1_000_000
+		);
+		return metadata;
+	}
+
+	private MigenPlatform createPlatform(DataSource dataSource)
+	{
+		final Connection connection = DataSourceUtils.getConnection(dataSource);
+		try {
+			return PlatformFactory.INSTANCE.createPlatform(
+				connection.getMetaData().getDatabaseProductName(),
+				platformTypeMapping
+			);
+		} catch (SQLException ex) {
+			throw new IllegalStateException("Cannot detect the database platform.", ex);
+		} finally {
+			DataSourceUtils.releaseConnection(connection, dataSource);
+		}
+	}
+
+}
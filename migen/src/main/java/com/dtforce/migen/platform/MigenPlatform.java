@@ -16,12 +16,26 @@
 
 package com.dtforce.migen.platform;
 
+import org.apache.ddlutils.DatabaseOperationException;
 import org.apache.ddlutils.alteration.ModelChange;
 import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+
+import com.dtforce.migen.ddl.IndexedModelComparator;
+import com.dtforce.migen.platform.type.PlatformTypeMapping;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * Adapter interface to isolate ddl utils classes from the rest of code.
@@ -33,9 +47,127 @@ public interface MigenPlatform {
 
 	Database readModelFromDatabase(Connection connection, String name, String schemaPattern);
 
-	List<ModelChange> diff(
+	/**
+	 * Lists names of the tables, which are read by {@link #readModelFromDatabase(Connection, String, String)}.
+	 */
+	List<String> readTableNames(Connection connection, String schemaPattern);
+
+	/**
+	 * Reads only the tables accepted by the filter. Safe to call concurrently over different connections,
+	 * use {@link #assembleModel(String, Collection)} to merge the tables into one model.
+	 */
+	Collection<Table> readTables(Connection connection, String schemaPattern, Predicate<String> tableFilter);
+
+	/**
+	 * Reads only the named tables, same as {@link #readTables(Connection, String, Predicate)}, but lets the platform
+	 * restrict its queries to the tables instead of filtering the rows of the whole schema.
+	 */
+	default Collection<Table> readNamedTables(Connection connection, String schemaPattern, Collection<String> tableNames)
+	{
+		final Set<String> names = new HashSet<>(tableNames);
+		return readTables(connection, schemaPattern, names::contains);
+	}
+
+	Database assembleModel(String name, Collection<Table> tables);
+
+	/**
+	 * Lists names of the schemas matching the pattern, see {@link java.sql.DatabaseMetaData#getSchemas(String, String)}.
+	 */
+	default List<String> readSchemaNames(Connection connection, String schemaPattern)
+	{
+		final List<String> schemaNames = new ArrayList<>();
+		try (ResultSet resultSet = connection.getMetaData().getSchemas(connection.getCatalog(), schemaPattern)) {
+			while (resultSet.next()) {
+				schemaNames.add(resultSet.getString("TABLE_SCHEM"));
+			}
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+		return schemaNames;
+	}
+
+	/**
+	 * Reads a fingerprint for each table, which changes whenever the definition of the table changes.
+	 * Returns null when the platform cannot fingerprint its tables.
+	 */
+	default Map<String, String> readTableFingerprints(Connection connection, String schemaPattern)
+	{
+		return null;
+	}
+
+	/**
+	 * Reads an estimate of the size of each table in bytes. Returns an empty map when the platform cannot
+	 * estimate it.
+	 */
+	default Map<String, Long> readTableSizes(Connection connection, String schemaPattern)
+	{
+		return Map.of();
+	}
+
+	/**
+	 * Creates the comparator of the models, with the identifier rules of the platform.
+	 */
+	IndexedModelComparator createModelComparator();
+
+	/**
+	 * Returns the mapping of the raw column types applied by the live model reader.
+	 */
+	PlatformTypeMapping getPlatformTypeMapping();
+
+	/**
+	 * Describes the options of the live model reader, other than the type mapping, which change the model read.
+	 */
+	default String getModelReaderOptions()
+	{
+		return "";
+	}
+
+	default List<ModelChange> diff(
+		Database currentModel,
+		Database desiredModel,
+		Predicate<ModelChange> predicate
+	)
+	{
+		return diff(currentModel, desiredModel, predicate, 1);
+	}
+
+	/**
+	 * Same as {@link #diff(Database, Database, Predicate)}, but may compare the tables on up to
+	 * {@code parallelism} threads. The changes are returned in the same order as by the sequential diff.
+	 */
+	@SuppressWarnings("unchecked")
+	default List<ModelChange> diff(
+		Database currentModel,
+		Database desiredModel,
+		Predicate<ModelChange> predicate,
+		int parallelism
+	)
+	{
+		final IndexedModelComparator comparator = createModelComparator();
+		final List<ModelChange> changes;
+		if (parallelism <= 1) {
+			changes = comparator.compare(currentModel, desiredModel);
+		} else {
+			final ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				changes = comparator.withPool(pool).compare(currentModel, desiredModel);
+			} finally {
+				pool.shutdown();
+			}
+		}
+		return changes.stream().filter(predicate).collect(Collectors.toList());
+	}
+
+	/**
+	 * Returns the first change accepted by the predicate, without comparing the rest of the models,
+	 * or null when the models match.
+	 */
+	default ModelChange findFirstDifference(
 		Database currentModel,
 		Database desiredModel,
 		Predicate<ModelChange> predicate
-	);
+	)
+	{
+		return createModelComparator().findFirstChange(currentModel, desiredModel, predicate);
+	}
 }
@@ -22,6 +22,7 @@ import org.apache.ddlutils.model.Database;
 
 import java.io.Writer;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Adapter interface to isolate ddl utils classes from the rest of code.
@@ -37,5 +38,28 @@ public interface MigenSqlBuilder extends Cloneable
 
 	void writeSqlPatch(Database currentModel, Database desiredModel, List<ModelChange> changes);
 
+	/**
+	 * Writes the statement selecting the schema, which the following statements with unqualified names apply to.
+	 */
+	void writeSchemaSelection(String schema);
+
+	/**
+	 * Writes the statement restoring the schema selection of the session, after the statements of the schemas.
+	 */
+	void writeSchemaReset();
+
 	void setWriter(Writer ex);
+
+	/**
+	 * Sets the writer for statements, which cannot run inside a transaction, e.g. {@code CREATE INDEX CONCURRENTLY}.
+	 * When null, their transactional variants are written to the main writer instead.
+	 */
+	void setNonTransactionalWriter(Writer writer);
+
+	void setPatchOptions(SqlPatchOptions patchOptions);
+
+	/**
+	 * Sets estimated sizes of the live tables in bytes, used to warn about statements rewriting them.
+	 */
+	void setTableSizes(Map<String, Long> tableSizes);
 }
@@ -0,0 +1,117 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.platform;
+
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+
+import java.sql.SQLException;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Lets a {@link org.apache.ddlutils.platform.JdbcModelReader} read only the tables accepted by a filter and merges
+ * the tables of several such reads into one model.
+ * <p>
+ * The full read of the reader runs with the filter, the tables it reads are collected instead of being added to its
+ * model, which would try to resolve foreign keys to tables of other reads. The reader passes its {@code readTable}
+ * and {@code readTables} hooks through {@link #isSkipped(String)} and {@link #collect(Collection)}. The state is
+ * kept during the read, concurrent reads need separate reader instances.
+ */
+public class PartialModelRead
+{
+
+	private static final String PARTIAL_MODEL_NAME = "partial";
+
+	private Predicate<String> tableFilter;
+
+	private Collection<Table> tables;
+
+	/**
+	 * Runs the full read and returns the tables read by it.
+	 *
+	 * @param modelRead reads the model of the given name, e.g. by {@code getDatabase}
+	 */
+	public Collection<Table> read(Predicate<String> tableFilter, ModelRead modelRead) throws SQLException
+	{
+		this.tableFilter = tableFilter;
+		this.tables = new ArrayList<>();
+		try {
+			modelRead.read(PARTIAL_MODEL_NAME);
+			return tables;
+		} finally {
+			this.tableFilter = null;
+			this.tables = null;
+		}
+	}
+
+	public boolean isSkipped(String tableName)
+	{
+		return tableFilter != null && !tableFilter.test(tableName);
+	}
+
+	/**
+	 * Keeps the tables read during {@link #read(Predicate, ModelRead)} away from the model.
+	 *
+	 * @return the tables to add to the model
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public Collection collect(Collection readTables)
+	{
+		if (tables == null) {
+			return readTables;
+		}
+		tables.addAll(readTables);
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Merges the tables into one model, ordered by name as {@code JdbcModelReader.getDatabase} orders them.
+	 *
+	 * @param foreignKeySorter sorts the foreign keys of the model, null to keep their order
+	 */
+	public static Database assemble(String name, Collection<Table> tables, Consumer<Database> foreignKeySorter)
+	{
+		final List<Table> sortedTables = new ArrayList<>(tables);
+		final Collator collator = Collator.getInstance();
+		sortedTables.sort((table1, table2) -> collator.compare(
+			table1.getName().toUpperCase(),
+			table2.getName().toUpperCase()
+		));
+
+		Database db = new Database();
+		db.setName(name);
+		db.addTables(sortedTables);
+		if (foreignKeySorter != null) {
+			foreignKeySorter.accept(db);
+		}
+		db.initialize();
+		return db;
+	}
+
+	@FunctionalInterface
+	public interface ModelRead
+	{
+		void read(String modelName) throws SQLException;
+	}
+
+}
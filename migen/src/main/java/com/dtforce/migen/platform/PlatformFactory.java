@@ -18,6 +18,8 @@ package com.dtforce.migen.platform;
 
 import lombok.extern.slf4j.Slf4j;
 
+import com.dtforce.migen.platform.h2.CustomH2Platform;
+import com.dtforce.migen.platform.mysql.CustomMySqlPlatform;
 import com.dtforce.migen.platform.postgres.CustomPostgresqlPlatform;
 import com.dtforce.migen.platform.type.PlatformTypeMapping;
 
@@ -33,9 +35,10 @@ public class PlatformFactory
 		final MigenPlatform platform;
 		if (databaseProductName.toLowerCase().startsWith("postgres")) {
 			platform = new CustomPostgresqlPlatform(platformTypeMapping);
+		} else if (databaseProductName.equalsIgnoreCase("mysql") || databaseProductName.equalsIgnoreCase("mariadb")) {
+			platform = new CustomMySqlPlatform(platformTypeMapping);
 		} else if (databaseProductName.equalsIgnoreCase("h2")) {
-			log.warn("Using Postgres platform for H2");
-			platform = new CustomPostgresqlPlatform(platformTypeMapping);
+			platform = new CustomH2Platform(platformTypeMapping);
 		} else {
 			log.error("Unknown platform {}.", databaseProductName);
 			throw new RuntimeException("Unknown platform: " + databaseProductName);
@@ -0,0 +1,128 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.platform;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Options of the SQL written by {@link MigenSqlBuilder#writeSqlPatch}. The defaults produce plain DDL, which runs
+ * in a single transaction.
+ */
+@Getter
+public class SqlPatchOptions
+{
+
+	private boolean concurrentIndexes;
+
+	private boolean notValidForeignKeys;
+
+	private boolean tableRebuild;
+
+	private int backfillBatchSize;
+
+	private Duration lockTimeout;
+
+	private Duration statementTimeout;
+
+	private boolean transactionPerStatement;
+
+	private boolean groupedColumnAlterations;
+
+	/**
+	 * Creates and drops non-unique indices of existing tables concurrently, using the non-transactional writer.
+	 */
+	public SqlPatchOptions withConcurrentIndexes(boolean concurrentIndexes)
+	{
+		this.concurrentIndexes = concurrentIndexes;
+		return this;
+	}
+
+	/**
+	 * Adds foreign keys to existing tables as {@code NOT VALID} and validates them by a separate statement,
+	 * written to the non-transactional writer when there is one, otherwise at the end of the patch, which then
+	 * needs {@link #withTransactionPerStatement(boolean)}. Without either, the foreign keys are added as valid.
+	 */
+	public SqlPatchOptions withNotValidForeignKeys(boolean notValidForeignKeys)
+	{
+		this.notValidForeignKeys = notValidForeignKeys;
+		return this;
+	}
+
+	/**
+	 * Allows changes, which cannot be done by {@code ALTER TABLE}, to be applied by copying the table into
+	 * a temporary one and back. When disabled, writing such a patch fails.
+	 */
+	public SqlPatchOptions withTableRebuild(boolean tableRebuild)
+	{
+		this.tableRebuild = tableRebuild;
+		return this;
+	}
+
+	/**
+	 * When positive, required columns without a default are added as nullable, filled in batches of this size
+	 * and set not null afterwards. Zero adds them with a placeholder default at once.
+	 */
+	public SqlPatchOptions withBackfillBatchSize(int backfillBatchSize)
+	{
+		this.backfillBatchSize = backfillBatchSize;
+		return this;
+	}
+
+	/**
+	 * Sets {@code lock_timeout} before the statements of each writer and resets it afterwards, so a statement
+	 * waiting for a lock fails instead of queueing every later query on the table behind it. Null disables it.
+	 */
+	public SqlPatchOptions withLockTimeout(Duration lockTimeout)
+	{
+		this.lockTimeout = lockTimeout;
+		return this;
+	}
+
+	/**
+	 * Sets {@code statement_timeout} around the transactional statements. The non-transactional ones, index builds
+	 * and backfills, are long by nature and are not limited. Null disables it.
+	 */
+	public SqlPatchOptions withStatementTimeout(Duration statementTimeout)
+	{
+		this.statementTimeout = statementTimeout;
+		return this;
+	}
+
+	/**
+	 * Wraps every transactional statement into its own {@code BEGIN/COMMIT}, so each lock is held only for
+	 * a single statement and a migration failed on a lock timeout can be resumed. The script then has to be run
+	 * outside a transaction.
+	 */
+	public SqlPatchOptions withTransactionPerStatement(boolean transactionPerStatement)
+	{
+		this.transactionPerStatement = transactionPerStatement;
+		return this;
+	}
+
+	/**
+	 * Writes the type, size, required and default changes of the columns of one table as a single
+	 * {@code ALTER TABLE} with multiple {@code ALTER COLUMN} clauses.
+	 */
+	public SqlPatchOptions withGroupedColumnAlterations(boolean groupedColumnAlterations)
+	{
+		this.groupedColumnAlterations = groupedColumnAlterations;
+		return this;
+	}
+
+}
@@ -0,0 +1,355 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.platform.h2;
+
+import lombok.SneakyThrows;
+import org.apache.ddlutils.DdlUtilsException;
+import org.apache.ddlutils.alteration.AddColumnChange;
+import org.apache.ddlutils.alteration.AddPrimaryKeyChange;
+import org.apache.ddlutils.alteration.ColumnChange;
+import org.apache.ddlutils.alteration.ColumnDataTypeChange;
+import org.apache.ddlutils.alteration.ColumnDefaultValueChange;
+import org.apache.ddlutils.alteration.ColumnOrderChange;
+import org.apache.ddlutils.alteration.ColumnRequiredChange;
+import org.apache.ddlutils.alteration.ColumnSizeChange;
+import org.apache.ddlutils.alteration.ModelChange;
+import org.apache.ddlutils.alteration.PrimaryKeyChange;
+import org.apache.ddlutils.alteration.RemoveColumnChange;
+import org.apache.ddlutils.alteration.RemovePrimaryKeyChange;
+import org.apache.ddlutils.alteration.TableChange;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Index;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.CreationParameters;
+import org.apache.ddlutils.platform.hsqldb.HsqlDbBuilder;
+
+import com.dtforce.migen.ddl.ColumnDescriptionChanged;
+import com.dtforce.migen.ddl.RawTypedColumn;
+import com.dtforce.migen.ddl.TableDescriptionChanged;
+import com.dtforce.migen.platform.MigenSqlBuilder;
+import com.dtforce.migen.platform.SqlPatchOptions;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies all changes of existing tables by {@code ALTER TABLE}, H2 never needs to rebuild a table.
+ * Locking is of no concern for an in-memory test database, so the online options are ignored.
+ */
+public class CustomH2Builder extends HsqlDbBuilder implements MigenSqlBuilder
+{
+
+	private final CustomH2Platform platform;
+
+	public CustomH2Builder(CustomH2Platform platform)
+	{
+		super(platform.getWrappedPlatform());
+		this.platform = platform;
+	}
+
+	@Override
+	@SneakyThrows
+	public void writeSqlPatch(
+		Database currentModel,
+		Database desiredModel,
+		List<ModelChange> changes
+	)
+	{
+		processChanges(currentModel, desiredModel, changes, null);
+	}
+
+	@Override
+	@SneakyThrows
+	public void writeSchemaSelection(String schema)
+	{
+		print("SET SCHEMA " + getDelimitedIdentifier(schema));
+		printEndOfStatement();
+	}
+
+	/**
+	 * H2 cannot restore the previous schema, the default one is selected.
+	 */
+	@Override
+	@SneakyThrows
+	public void writeSchemaReset()
+	{
+		print("SET SCHEMA PUBLIC");
+		printEndOfStatement();
+	}
+
+	@Override
+	protected void processChanges(Database currentModel, Database desiredModel, List changes, CreationParameters params)
+		throws IOException
+	{
+		super.processChanges(currentModel, desiredModel, changes, params);
+		for (Object change : changes) {
+			if (change instanceof ColumnDescriptionChanged columnDescriptionChanged) {
+				processColumnCommentChange(currentModel, columnDescriptionChanged);
+			}
+			if (change instanceof TableDescriptionChanged tableDescriptionChanged) {
+				processTableCommentChange(currentModel, tableDescriptionChanged);
+			}
+		}
+	}
+
+	@Override
+	protected void processTableStructureChanges(
+		Database currentModel,
+		Database desiredModel,
+		Table sourceTable,
+		Table targetTable,
+		Map parameters,
+		List changes
+	) throws IOException
+	{
+		@SuppressWarnings("unchecked")
+		Iterator<TableChange> changeIt = (Iterator<TableChange>) changes.iterator();
+		while (changeIt.hasNext()) {
+			TableChange change = changeIt.next();
+			boolean handled = true;
+			if (change instanceof ColumnOrderChange) {
+				// ignored
+			} else if (change instanceof AddColumnChange addColumnChange) {
+				writeTableAlterStmt(addColumnChange.getChangedTable());
+				print("ADD COLUMN ");
+				writeColumn(addColumnChange.getChangedTable(), addColumnChange.getNewColumn());
+				printEndOfStatement();
+			} else if (change instanceof RemoveColumnChange removeColumnChange) {
+				writeTableAlterStmt(removeColumnChange.getChangedTable());
+				print("DROP COLUMN ");
+				printIdentifier(getColumnName(removeColumnChange.getColumn()));
+				printEndOfStatement();
+			} else if (change instanceof AddPrimaryKeyChange addPrimaryKeyChange) {
+				writeTableAlterStmt(addPrimaryKeyChange.getChangedTable());
+				print("ADD ");
+				writePrimaryKeyStmt(addPrimaryKeyChange.getChangedTable(), addPrimaryKeyChange.getPrimaryKeyColumns());
+				printEndOfStatement();
+			} else if (change instanceof RemovePrimaryKeyChange removePrimaryKeyChange) {
+				writePrimaryKeyDropStmt(removePrimaryKeyChange.getChangedTable());
+			} else if (change instanceof PrimaryKeyChange primaryKeyChange) {
+				writePrimaryKeyDropStmt(primaryKeyChange.getChangedTable());
+				writeTableAlterStmt(primaryKeyChange.getChangedTable());
+				print("ADD ");
+				writePrimaryKeyStmt(primaryKeyChange.getChangedTable(), primaryKeyChange.getNewPrimaryKeyColumns());
+				printEndOfStatement();
+			} else if (change instanceof ColumnDataTypeChange || change instanceof ColumnSizeChange) {
+				final Column desiredColumn = findDesiredColumn(desiredModel, (ColumnChange) change);
+				writeColumnAlterStmt(change.getChangedTable(), desiredColumn);
+				print("SET DATA TYPE ");
+				print(getSqlType(desiredColumn));
+				printEndOfStatement();
+			} else if (change instanceof ColumnRequiredChange columnRequiredChange) {
+				writeColumnAlterStmt(change.getChangedTable(), columnRequiredChange.getChangedColumn());
+				print(columnRequiredChange.getChangedColumn().isRequired() ? "DROP NOT NULL" : "SET NOT NULL");
+				printEndOfStatement();
+			} else if (change instanceof ColumnDefaultValueChange columnDefaultValueChange) {
+				final Column desiredColumn = findDesiredColumn(desiredModel, columnDefaultValueChange);
+				writeColumnAlterStmt(change.getChangedTable(), desiredColumn);
+				if (desiredColumn.getDefaultValue() != null) {
+					print("SET DEFAULT ");
+					print(getNativeDefaultValue(desiredColumn));
+				} else {
+					print("DROP DEFAULT");
+				}
+				printEndOfStatement();
+			} else {
+				handled = false;
+			}
+			if (handled) {
+				change.apply(currentModel, isCaseSensitive());
+				changeIt.remove();
+			}
+		}
+	}
+
+	@Override
+	protected void processTableStructureChanges(
+		Database currentModel,
+		Database desiredModel,
+		String tableName,
+		Map parameters,
+		List changes
+	) throws IOException
+	{
+		Table sourceTable = currentModel.findTable(tableName, isCaseSensitive());
+		Table targetTable = desiredModel.findTable(tableName, isCaseSensitive());
+
+		processTableStructureChanges(currentModel, desiredModel, sourceTable, targetTable, parameters, changes);
+
+		if (!changes.isEmpty()) {
+			final StringBuilder changeNames = new StringBuilder();
+			for (Object change : changes) {
+				if (!changeNames.isEmpty()) {
+					changeNames.append(", ");
+				}
+				changeNames.append(change.getClass().getSimpleName());
+			}
+			throw new DdlUtilsException("Cannot apply " + changeNames + " to table " + tableName);
+		}
+	}
+
+	@Override
+	public void createTable(Database database, Table table, Map parameters) throws IOException
+	{
+		super.createTable(database, table, parameters);
+
+		if (table.getDescription() != null) {
+			writeComment("TABLE", getDelimitedIdentifier(getTableName(table)), table.getDescription());
+		}
+		for (Column column : table.getColumns()) {
+			if (column.getDescription() != null) {
+				writeComment("COLUMN", columnIdentifier(table, column), column.getDescription());
+			}
+		}
+	}
+
+	@Override
+	public void dropTable(Table table) throws IOException
+	{
+		// HSQLDB places IF EXISTS after the name, which H2 does not accept
+		print("DROP TABLE ");
+		printIdentifier(getTableName(table));
+		printEndOfStatement();
+	}
+
+	@Override
+	public String getIndexName(Index index)
+	{
+		return shortenName(index.getName(), getMaxConstraintNameLength());
+	}
+
+	@Override
+	protected String getNativeType(Column column)
+	{
+		if (column instanceof RawTypedColumn) {
+			return ((RawTypedColumn) column).getTypeToCompare();
+		} else {
+			return super.getNativeType(column);
+		}
+	}
+
+	@Override
+	protected String getSqlType(Column column)
+	{
+		if (column instanceof RawTypedColumn && ((RawTypedColumn) column).getRawCompleteType() != null) {
+			return ((RawTypedColumn) column).getRawCompleteType();
+		} else {
+			return super.getSqlType(column);
+		}
+	}
+
+	private void writeColumnAlterStmt(Table table, Column column) throws IOException
+	{
+		writeTableAlterStmt(table);
+		print("ALTER COLUMN ");
+		printIdentifier(getColumnName(column));
+		print(" ");
+	}
+
+	private void writePrimaryKeyDropStmt(Table table) throws IOException
+	{
+		writeTableAlterStmt(table);
+		print("DROP PRIMARY KEY");
+		printEndOfStatement();
+	}
+
+	private void processColumnCommentChange(Database currentModel, ColumnDescriptionChanged change)
+		throws IOException
+	{
+		writeComment(
+			"COLUMN",
+			columnIdentifier(change.getChangedTable(), change.getChangedColumn()),
+			change.getDescription()
+		);
+		change.apply(currentModel, isCaseSensitive());
+	}
+
+	private void processTableCommentChange(Database currentModel, TableDescriptionChanged change)
+		throws IOException
+	{
+		writeComment("TABLE", getDelimitedIdentifier(getTableName(change.getChangedTable())), change.getDescription());
+		change.apply(currentModel, isCaseSensitive());
+	}
+
+	private void writeComment(String type, String ident, String description) throws IOException
+	{
+		print("COMMENT ON " + type + " ");
+		print(ident);
+		print(" IS ");
+		if (description != null) {
+			print(getPlatformInfo().getValueQuoteToken());
+			print(escapeStringValue(description));
+			print(getPlatformInfo().getValueQuoteToken());
+		} else {
+			print("NULL");
+		}
+		printEndOfStatement();
+	}
+
+	private String columnIdentifier(Table table, Column column)
+	{
+		return getDelimitedIdentifier(getTableName(table)) + "." + getDelimitedIdentifier(getColumnName(column));
+	}
+
+	private Column findDesiredColumn(Database desiredModel, ColumnChange change)
+	{
+		Table desiredTable = desiredModel.findTable(change.getChangedTable().getName(), isCaseSensitive());
+		return desiredTable.findColumn(change.getChangedColumn().getName(), isCaseSensitive());
+	}
+
+	private boolean isCaseSensitive()
+	{
+		return getPlatform().isDelimitedIdentifierModeOn();
+	}
+
+	@Override
+	public void setNonTransactionalWriter(Writer writer)
+	{
+		// H2 runs all DDL in transactions, everything is written to the main writer
+	}
+
+	@Override
+	public void setPatchOptions(SqlPatchOptions patchOptions)
+	{
+		// the online options are meant for production databases, the test database is not locked by anyone else
+	}
+
+	@Override
+	public void setTableSizes(Map<String, Long> tableSizes)
+	{
+		// H2 never rewrites tables by ALTER TABLE
+	}
+
+	@Override
+	@SneakyThrows
+	public MigenSqlBuilder clone()
+	{
+		return new CustomH2Builder(platform);
+	}
+
+	@Override
+	@SneakyThrows
+	public void writeSqlColumnType(Column column)
+	{
+		print(getSqlType(column));
+	}
+
+}
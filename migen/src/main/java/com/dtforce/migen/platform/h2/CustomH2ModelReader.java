@@ -0,0 +1,180 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.platform.h2;
+
+import org.apache.ddlutils.Platform;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.ForeignKey;
+import org.apache.ddlutils.model.Index;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.DatabaseMetaDataWrapper;
+import org.apache.ddlutils.platform.JdbcModelReader;
+import org.apache.ddlutils.platform.MetaDataColumnDescriptor;
+
+import com.dtforce.migen.ddl.RawTypedColumn;
+import com.dtforce.migen.platform.PartialModelRead;
+import com.dtforce.migen.platform.type.PlatformTypeMapping;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Reads the model of an H2 2.x database through the JDBC metadata.
+ */
+public class CustomH2ModelReader extends JdbcModelReader
+{
+
+	private static final String TYPE_NAME = "TYPE_NAME";
+
+	/**
+	 * H2 2.x reports ordinary tables as {@code BASE TABLE}, older versions as {@code TABLE}.
+	 */
+	private static final String[] TABLE_TYPES = {"TABLE", "BASE TABLE"};
+
+	private final PlatformTypeMapping typeProcessors;
+
+	private final PartialModelRead partialRead = new PartialModelRead();
+
+	public CustomH2ModelReader(Platform platform, PlatformTypeMapping typeTable)
+	{
+		super(platform);
+		this.typeProcessors = typeTable;
+		setDefaultSchemaPattern("PUBLIC");
+		setDefaultTableTypes(TABLE_TYPES);
+	}
+
+	/**
+	 * Reads only the tables accepted by the filter, see {@link PartialModelRead}.
+	 */
+	public Collection<Table> readTables(
+		Connection connection,
+		String schemaPattern,
+		Predicate<String> tableFilter
+	) throws SQLException
+	{
+		return partialRead.read(
+			tableFilter,
+			modelName -> getDatabase(connection, modelName, null, schemaPattern, null)
+		);
+	}
+
+	/**
+	 * Lists the names of the tables read by {@link #readTables(Connection, String, Predicate)}, by a single
+	 * {@link java.sql.DatabaseMetaData#getTables} call without reading their columns, keys and indices.
+	 */
+	public List<String> readTableNames(Connection connection, String schemaPattern) throws SQLException
+	{
+		final List<String> tableNames = new ArrayList<>();
+		try (ResultSet resultSet = connection.getMetaData().getTables(
+			null,
+			schemaPattern == null ? getDefaultSchemaPattern() : schemaPattern,
+			"%",
+			getDefaultTableTypes()
+		)) {
+			while (resultSet.next()) {
+				tableNames.add(resultSet.getString("TABLE_NAME"));
+			}
+		}
+		return tableNames;
+	}
+
+	/**
+	 * Merges tables read by {@link #readTables(Connection, String, Predicate)} into one model.
+	 */
+	public Database assembleDatabase(String name, Collection<Table> tables)
+	{
+		return PartialModelRead.assemble(
+			name,
+			tables,
+			getPlatform().isForeignKeysSorted() ? this::sortForeignKeys : null
+		);
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	protected Collection readTables(String catalog, String schemaPattern, String[] tableTypes) throws SQLException
+	{
+		return partialRead.collect(super.readTables(catalog, schemaPattern, tableTypes));
+	}
+
+	@Override
+	protected Table readTable(DatabaseMetaDataWrapper metaData, Map values) throws SQLException
+	{
+		if (partialRead.isSkipped((String) values.get("TABLE_NAME"))) {
+			return null;
+		}
+		Table table = super.readTable(metaData, values);
+		if (table != null && "".equals(table.getDescription())) {
+			// H2 reports missing comments as empty strings
+			table.setDescription(null);
+		}
+		return table;
+	}
+
+	@Override
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	protected List initColumnsForColumn()
+	{
+		List result = super.initColumnsForColumn();
+		result.add(new MetaDataColumnDescriptor(TYPE_NAME, Types.VARCHAR));
+		return result;
+	}
+
+	@Override
+	protected Column readColumn(DatabaseMetaDataWrapper metaData, Map values) throws SQLException
+	{
+		RawTypedColumn rawTypedColumn = RawTypedColumn.fromColumn(super.readColumn(metaData, values));
+		if ("".equals(rawTypedColumn.getDescription())) {
+			rawTypedColumn.setDescription(null);
+		}
+		String dbType = ((String) values.get(TYPE_NAME)).toUpperCase();
+		return typeProcessors.map(dbType, rawTypedColumn);
+	}
+
+	/**
+	 * H2 names the index backing a primary key {@code PRIMARY_KEY_<suffix>}.
+	 */
+	@Override
+	protected boolean isInternalPrimaryKeyIndex(DatabaseMetaDataWrapper metaData, Table table, Index index)
+	{
+		return index.getName() != null && index.getName().toUpperCase().startsWith("PRIMARY_KEY_");
+	}
+
+	/**
+	 * H2 names the index it creates for a foreign key {@code <constraint>_INDEX_<suffix>}.
+	 */
+	@Override
+	protected boolean isInternalForeignKeyIndex(
+		DatabaseMetaDataWrapper metaData,
+		Table table,
+		ForeignKey fk,
+		Index index
+	)
+	{
+		return index.getName() != null && fk.getName() != null &&
+			index.getName().toUpperCase().startsWith(fk.getName().toUpperCase() + "_INDEX_");
+	}
+
+}
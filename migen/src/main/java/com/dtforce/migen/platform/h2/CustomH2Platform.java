@@ -0,0 +1,203 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.platform.h2;
+
+import com.google.common.base.MoreObjects;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.ddlutils.DatabaseOperationException;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.hsqldb.HsqlDbPlatform;
+
+import com.dtforce.migen.ddl.IndexedModelComparator;
+import com.dtforce.migen.platform.MigenPlatform;
+import com.dtforce.migen.platform.MigenSqlBuilder;
+import com.dtforce.migen.platform.type.PlatformTypeMapping;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Platform for H2 2.x, meant mainly for verifying migrations against an in-memory database in tests.
+ * DdlUtils has no H2 platform, the closest one, HSQLDB, provides the platform info.
+ */
+public class CustomH2Platform implements MigenPlatform
+{
+
+	@Getter(AccessLevel.PACKAGE)
+	private final DdlUtilsWrapper wrappedPlatform;
+
+	/**
+	 * Spells the types the way Hibernate H2 dialect does.
+	 */
+	public static final PlatformTypeMapping DEFAULT_TYPE_MAPPING;
+
+	static {
+		DEFAULT_TYPE_MAPPING = new PlatformTypeMapping()
+			.withGeneralProcessor((dbType, chain, rawTypedColumn) -> {
+				if (dbType.endsWith(" ARRAY")) {
+					final var typedColumn = chain.map(dbType.substring(0, dbType.length() - 6), rawTypedColumn);
+					typedColumn.setRawCompleteType(typedColumn.getRawCompleteType() + " ARRAY");
+					return typedColumn;
+				} else {
+					return chain.map(dbType, rawTypedColumn);
+				}
+			})
+			.withMapping("CHARACTER VARYING", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(String.format("VARCHAR(%d)", rawTypedColumn.getSizeAsInt()));
+				return rawTypedColumn;
+			})
+			.withMapping("CHARACTER", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(String.format("CHAR(%d)", rawTypedColumn.getSizeAsInt()));
+				return rawTypedColumn;
+			})
+			.withMapping("BINARY VARYING", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(String.format("VARBINARY(%d)", rawTypedColumn.getSizeAsInt()));
+				return rawTypedColumn;
+			})
+			.withMapping("BINARY", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(String.format("BINARY(%d)", rawTypedColumn.getSizeAsInt()));
+				return rawTypedColumn;
+			})
+			.withMapping("CHARACTER LARGE OBJECT", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType("CLOB");
+				return rawTypedColumn;
+			})
+			.withMapping("BINARY LARGE OBJECT", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType("BLOB");
+				return rawTypedColumn;
+			})
+			.withMapping("NUMERIC", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(
+					String.format(
+						"NUMERIC(%d,%d)",
+						rawTypedColumn.getSizeAsInt(),
+						rawTypedColumn.getScale()
+					)
+				);
+				return rawTypedColumn;
+			})
+			.withMapping("TIMESTAMP", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(String.format("TIMESTAMP(%d)", rawTypedColumn.getScale()));
+				return rawTypedColumn;
+			})
+			.withMapping("TIMESTAMP WITH TIME ZONE", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(
+					String.format("TIMESTAMP(%d) WITH TIME ZONE", rawTypedColumn.getScale())
+				);
+				return rawTypedColumn;
+			});
+	}
+
+	public CustomH2Platform(PlatformTypeMapping platformTypeMapping)
+	{
+		wrappedPlatform = new DdlUtilsWrapper(
+			MoreObjects.firstNonNull(platformTypeMapping, DEFAULT_TYPE_MAPPING),
+			this
+		);
+	}
+
+	@Override
+	public MigenSqlBuilder getSqlBuilder()
+	{
+		return ((CustomH2Builder) wrappedPlatform.getSqlBuilder()).clone();
+	}
+
+	@Override
+	public Database readModelFromDatabase(Connection connection, String name)
+	{
+		return readModelFromDatabase(connection, name, null);
+	}
+
+	@Override
+	public Database readModelFromDatabase(Connection connection, String name, String schemaPattern)
+	{
+		try {
+			return wrappedPlatform.createModelReader().getDatabase(connection, name, null, schemaPattern, null);
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+	}
+
+	@Override
+	public List<String> readTableNames(Connection connection, String schemaPattern)
+	{
+		try {
+			return wrappedPlatform.createModelReader().readTableNames(connection, schemaPattern);
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+	}
+
+	@Override
+	public Collection<Table> readTables(Connection connection, String schemaPattern, Predicate<String> tableFilter)
+	{
+		try {
+			return wrappedPlatform.createModelReader().readTables(connection, schemaPattern, tableFilter);
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+	}
+
+	@Override
+	public Database assembleModel(String name, Collection<Table> tables)
+	{
+		return wrappedPlatform.createModelReader().assembleDatabase(name, tables);
+	}
+
+	@Override
+	public IndexedModelComparator createModelComparator()
+	{
+		return new IndexedModelComparator(wrappedPlatform.getPlatformInfo(), false);
+	}
+
+	@Override
+	public PlatformTypeMapping getPlatformTypeMapping()
+	{
+		return wrappedPlatform.platformTypeMapping;
+	}
+
+	static class DdlUtilsWrapper extends HsqlDbPlatform
+	{
+
+		private final PlatformTypeMapping platformTypeMapping;
+
+		private DdlUtilsWrapper(PlatformTypeMapping platformTypeMapping, CustomH2Platform platform)
+		{
+			super();
+			this.platformTypeMapping = platformTypeMapping;
+			setModelReader(createModelReader());
+
+			CustomH2Builder builder = new CustomH2Builder(platform);
+			setSqlBuilder(builder);
+			setDelimitedIdentifierModeOn(true);
+		}
+
+		/**
+		 * Creates a new model reader, model readers are not thread safe.
+		 */
+		private CustomH2ModelReader createModelReader()
+		{
+			return new CustomH2ModelReader(this, platformTypeMapping);
+		}
+	}
+
+}
@@ -0,0 +1,523 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.platform.mysql;
+
+import lombok.SneakyThrows;
+import org.apache.ddlutils.DdlUtilsException;
+import org.apache.ddlutils.alteration.AddColumnChange;
+import org.apache.ddlutils.alteration.AddPrimaryKeyChange;
+import org.apache.ddlutils.alteration.ColumnChange;
+import org.apache.ddlutils.alteration.ColumnDataTypeChange;
+import org.apache.ddlutils.alteration.ColumnDefaultValueChange;
+import org.apache.ddlutils.alteration.ColumnOrderChange;
+import org.apache.ddlutils.alteration.ColumnSizeChange;
+import org.apache.ddlutils.alteration.ModelChange;
+import org.apache.ddlutils.alteration.PrimaryKeyChange;
+import org.apache.ddlutils.alteration.RemoveColumnChange;
+import org.apache.ddlutils.alteration.RemovePrimaryKeyChange;
+import org.apache.ddlutils.alteration.TableChange;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Index;
+import org.apache.ddlutils.model.IndexColumn;
+import org.apache.ddlutils.model.ModelException;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.CreationParameters;
+import org.apache.ddlutils.platform.mysql.MySqlBuilder;
+
+import com.dtforce.migen.ddl.ColumnDescriptionChanged;
+import com.dtforce.migen.ddl.FilterIndexDef;
+import com.dtforce.migen.ddl.RawTypedColumn;
+import com.dtforce.migen.ddl.TableDescriptionChanged;
+import com.dtforce.migen.platform.MigenSqlBuilder;
+import com.dtforce.migen.platform.SqlPatchOptions;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Applies all changes of existing tables by {@code ALTER TABLE}. Statements, which MySQL 8 is able to run without
+ * copying the table or blocking writes, carry explicit {@code ALGORITHM} and {@code LOCK} clauses, so the migration
+ * fails instead of silently falling back to a blocking table copy.
+ * <p>
+ * MySQL commits DDL implicitly, so there is no separate non-transactional part.
+ */
+public class CustomMySqlBuilder extends MySqlBuilder implements MigenSqlBuilder
+{
+
+	private static final String INSTANT = "ALGORITHM=INSTANT";
+
+	private static final String INPLACE = "ALGORITHM=INPLACE, LOCK=NONE";
+
+	private static final String INDEX_INPLACE = "ALGORITHM=INPLACE LOCK=NONE";
+
+	private final CustomMySqlPlatform platform;
+
+	private SqlPatchOptions patchOptions = new SqlPatchOptions();
+
+	private Map<String, Long> tableSizes = Map.of();
+
+	public CustomMySqlBuilder(CustomMySqlPlatform platform)
+	{
+		super(platform.getWrappedPlatform());
+		this.platform = platform;
+	}
+
+	@Override
+	@SneakyThrows
+	public void writeSqlPatch(
+		Database currentModel,
+		Database desiredModel,
+		List<ModelChange> changes
+	)
+	{
+		final boolean lockTimeout = patchOptions.getLockTimeout() != null && !changes.isEmpty();
+		if (lockTimeout) {
+			// the variable is in whole seconds
+			final long seconds = Math.max(1, (patchOptions.getLockTimeout().toMillis() + 999) / 1000);
+			print("SET SESSION lock_wait_timeout = " + seconds);
+			printEndOfStatement();
+		}
+		processChanges(currentModel, desiredModel, changes, null);
+		if (lockTimeout) {
+			print("SET SESSION lock_wait_timeout = DEFAULT");
+			printEndOfStatement();
+		}
+	}
+
+	@Override
+	@SneakyThrows
+	public void writeSchemaSelection(String schema)
+	{
+		print("USE " + getDelimitedIdentifier(schema));
+		printEndOfStatement();
+	}
+
+	/**
+	 * MySQL cannot restore the database the session started with, the last one stays selected.
+	 */
+	@Override
+	public void writeSchemaReset()
+	{
+	}
+
+	@Override
+	protected void processChanges(Database currentModel, Database desiredModel, List changes, CreationParameters params)
+		throws IOException
+	{
+		super.processChanges(currentModel, desiredModel, changes, params);
+		for (Object change : changes) {
+			if (change instanceof ColumnDescriptionChanged columnDescriptionChanged) {
+				processColumnCommentChange(currentModel, desiredModel, columnDescriptionChanged);
+			}
+			if (change instanceof TableDescriptionChanged tableDescriptionChanged) {
+				processTableCommentChange(currentModel, tableDescriptionChanged);
+			}
+		}
+	}
+
+	@Override
+	protected void processTableStructureChanges(
+		Database currentModel,
+		Database desiredModel,
+		Table sourceTable,
+		Table targetTable,
+		Map parameters,
+		List changes
+	) throws IOException
+	{
+		final Map<String, List<ColumnChange>> columnChanges = new LinkedHashMap<>();
+
+		@SuppressWarnings("unchecked")
+		Iterator<TableChange> changeIt = (Iterator<TableChange>) changes.iterator();
+		while (changeIt.hasNext()) {
+			TableChange change = changeIt.next();
+			boolean handled = true;
+			if (change instanceof ColumnOrderChange) {
+				// ignored
+			} else if (change instanceof AddColumnChange addColumnChange) {
+				processAddColumnChange(currentModel, addColumnChange);
+			} else if (change instanceof RemoveColumnChange removeColumnChange) {
+				processRemoveColumnChange(currentModel, removeColumnChange);
+			} else if (change instanceof AddPrimaryKeyChange addPrimaryKeyChange) {
+				writeTableAlterStmt(addPrimaryKeyChange.getChangedTable());
+				print("ADD ");
+				writePrimaryKeyStmt(addPrimaryKeyChange.getChangedTable(), addPrimaryKeyChange.getPrimaryKeyColumns());
+				printEndOfStatement();
+				addPrimaryKeyChange.apply(currentModel, isCaseSensitive());
+			} else if (change instanceof RemovePrimaryKeyChange removePrimaryKeyChange) {
+				writeTableAlterStmt(removePrimaryKeyChange.getChangedTable());
+				print("DROP PRIMARY KEY");
+				printEndOfStatement();
+				removePrimaryKeyChange.apply(currentModel, isCaseSensitive());
+			} else if (change instanceof PrimaryKeyChange primaryKeyChange) {
+				// replacing the primary key in one statement does not block writes
+				writeTableAlterStmt(primaryKeyChange.getChangedTable());
+				print("DROP PRIMARY KEY, ADD ");
+				writePrimaryKeyStmt(primaryKeyChange.getChangedTable(), primaryKeyChange.getNewPrimaryKeyColumns());
+				print(", " + INPLACE);
+				printEndOfStatement();
+				primaryKeyChange.apply(currentModel, isCaseSensitive());
+			} else if (change instanceof ColumnChange columnChange) {
+				columnChanges.computeIfAbsent(columnChange.getChangedColumn().getName(), it -> new ArrayList<>())
+					.add(columnChange);
+			} else {
+				handled = false;
+			}
+			if (handled) {
+				changeIt.remove();
+			}
+		}
+
+		for (List<ColumnChange> changesOfColumn : columnChanges.values()) {
+			processColumnChanges(currentModel, desiredModel, changesOfColumn);
+		}
+	}
+
+	@Override
+	protected void processTableStructureChanges(
+		Database currentModel,
+		Database desiredModel,
+		String tableName,
+		Map parameters,
+		List changes
+	) throws IOException
+	{
+		Table sourceTable = currentModel.findTable(tableName, isCaseSensitive());
+		Table targetTable = desiredModel.findTable(tableName, isCaseSensitive());
+
+		processTableStructureChanges(currentModel, desiredModel, sourceTable, targetTable, parameters, changes);
+
+		if (!changes.isEmpty()) {
+			final StringBuilder changeNames = new StringBuilder();
+			for (Object change : changes) {
+				if (!changeNames.isEmpty()) {
+					changeNames.append(", ");
+				}
+				changeNames.append(change.getClass().getSimpleName());
+			}
+			throw new DdlUtilsException("Cannot apply " + changeNames + " to table " + tableName);
+		}
+	}
+
+	/**
+	 * Columns appended to the end of the table are added instantly, only changing the metadata. Columns added
+	 * in the middle need a table rebuild, which still allows concurrent writes.
+	 */
+	private void processAddColumnChange(Database currentModel, AddColumnChange change) throws IOException
+	{
+		final Column column = change.getNewColumn();
+		writeTableAlterStmt(change.getChangedTable());
+		print("ADD COLUMN ");
+		writeColumn(change.getChangedTable(), column);
+		if (change.isAtEnd() || change.getNextColumn() == null) {
+			if (!column.isAutoIncrement()) {
+				print(", " + INSTANT);
+			}
+		} else {
+			if (change.getPreviousColumn() != null) {
+				print(" AFTER ");
+				printIdentifier(getColumnName(change.getPreviousColumn()));
+			} else {
+				print(" FIRST");
+			}
+			if (!column.isAutoIncrement()) {
+				print(", " + INPLACE);
+			}
+		}
+		printEndOfStatement();
+		change.apply(currentModel, isCaseSensitive());
+	}
+
+	private void processRemoveColumnChange(Database currentModel, RemoveColumnChange change) throws IOException
+	{
+		writeTableAlterStmt(change.getChangedTable());
+		print("DROP COLUMN ");
+		printIdentifier(getColumnName(change.getColumn()));
+		print(", " + INPLACE);
+		printEndOfStatement();
+		change.apply(currentModel, isCaseSensitive());
+	}
+
+	/**
+	 * Changes only of the default value are done instantly by {@code ALTER COLUMN}, any other change redefines
+	 * the column by {@code MODIFY COLUMN} and lets MySQL choose the algorithm, as it depends on the types.
+	 */
+	private void processColumnChanges(
+		Database currentModel,
+		Database desiredModel,
+		List<ColumnChange> changes
+	) throws IOException
+	{
+		final ColumnChange firstChange = changes.get(0);
+		final Table table = firstChange.getChangedTable();
+		final Column desiredColumn = findDesiredColumn(desiredModel, firstChange);
+
+		if (changes.stream().anyMatch(change -> change instanceof ColumnDataTypeChange ||
+			change instanceof ColumnSizeChange)) {
+			printComment(copyWarning(table, desiredColumn));
+		}
+		writeTableAlterStmt(table);
+		if (changes.stream().allMatch(change -> change instanceof ColumnDefaultValueChange)) {
+			print("ALTER COLUMN ");
+			printIdentifier(getColumnName(desiredColumn));
+			if (desiredColumn.getDefaultValue() != null) {
+				print(" SET DEFAULT ");
+				print(getNativeDefaultValue(desiredColumn));
+			} else {
+				print(" DROP DEFAULT");
+			}
+			print(", " + INSTANT);
+		} else {
+			print("MODIFY COLUMN ");
+			writeColumn(table, desiredColumn);
+		}
+		printEndOfStatement();
+		for (ColumnChange change : changes) {
+			change.apply(currentModel, isCaseSensitive());
+		}
+	}
+
+	private String copyWarning(Table table, Column column)
+	{
+		final Long tableSize = tableSizes.get(table.getName());
+		final String estimate = tableSize == null
+			? "unknown size"
+			: String.format(
+				Locale.ROOT,
+				"%.1f MB estimated from information_schema.TABLES",
+				tableSize / (1024.0 * 1024.0)
+			);
+		final String warning = "WARNING - changing type of " + table.getName() + "." + column.getName() +
+			" may copy the table (" + estimate + ")";
+		_log.warn(warning);
+		return warning;
+	}
+
+	/**
+	 * MySQL can change the comment of a column only together with its whole definition.
+	 */
+	private void processColumnCommentChange(
+		Database currentModel,
+		Database desiredModel,
+		ColumnDescriptionChanged change
+	) throws IOException
+	{
+		writeTableAlterStmt(change.getChangedTable());
+		print("MODIFY COLUMN ");
+		writeColumn(change.getChangedTable(), findDesiredColumn(desiredModel, change));
+		printEndOfStatement();
+		change.apply(currentModel, isCaseSensitive());
+	}
+
+	private void processTableCommentChange(Database currentModel, TableDescriptionChanged change) throws IOException
+	{
+		writeTableAlterStmt(change.getChangedTable());
+		print("COMMENT = ");
+		printStringLiteral(change.getDescription());
+		printEndOfStatement();
+		change.apply(currentModel, isCaseSensitive());
+	}
+
+	@Override
+	protected void writeColumn(Table table, Column column) throws IOException
+	{
+		super.writeColumn(table, column);
+		if (column.getDescription() != null) {
+			print(" COMMENT ");
+			printStringLiteral(column.getDescription());
+		}
+	}
+
+	@Override
+	protected void writeTableCreationStmtEnding(Table table, Map parameters) throws IOException
+	{
+		if (table.getDescription() != null) {
+			print(" COMMENT = ");
+			printStringLiteral(table.getDescription());
+		}
+		super.writeTableCreationStmtEnding(table, parameters);
+	}
+
+	/**
+	 * Adding and dropping secondary indices does not block writes to the table.
+	 */
+	@Override
+	protected void writeExternalIndexCreateStmt(Table table, Index index) throws IOException
+	{
+		if (index.getName() == null) {
+			_log.warn("Cannot write unnamed index " + index);
+			return;
+		}
+		if (index instanceof FilterIndexDef filterIndex) {
+			final String warning = "WARNING - skipping index " + index.getName() + " of " + table.getName() +
+				", MySQL does not support partial indices: WHERE " + filterIndex.getFilterCondition();
+			_log.warn(warning);
+			printComment(warning);
+			return;
+		}
+		print("CREATE");
+		if (index.isUnique()) {
+			print(" UNIQUE");
+		}
+		print(" INDEX ");
+		printIdentifier(getIndexName(index));
+		print(" ON ");
+		printIdentifier(getTableName(table));
+		print(" (");
+		for (int idx = 0; idx < index.getColumnCount(); idx++) {
+			IndexColumn idxColumn = index.getColumn(idx);
+			Column col = table.findColumn(idxColumn.getName());
+			if (col == null) {
+				throw new ModelException(
+					"Invalid column '" + idxColumn.getName() +
+					"' on index " + index.getName() +
+					" for table " + table.getName()
+				);
+			}
+			if (idx > 0) {
+				print(", ");
+			}
+			printIdentifier(getColumnName(col));
+		}
+		print(") " + INDEX_INPLACE);
+		printEndOfStatement();
+	}
+
+	@Override
+	public void writeExternalIndexDropStmt(Table table, Index index) throws IOException
+	{
+		print("DROP INDEX ");
+		printIdentifier(getIndexName(index));
+		print(" ON ");
+		printIdentifier(getTableName(table));
+		print(" " + INDEX_INPLACE);
+		printEndOfStatement();
+	}
+
+	@Override
+	public String getIndexName(Index index)
+	{
+		return shortenName(index.getName(), getMaxConstraintNameLength());
+	}
+
+	@Override
+	protected String getNativeType(Column column)
+	{
+		if (column instanceof RawTypedColumn) {
+			return ((RawTypedColumn) column).getTypeToCompare();
+		} else {
+			return super.getNativeType(column);
+		}
+	}
+
+	@Override
+	protected String getSqlType(Column column)
+	{
+		if (column instanceof RawTypedColumn && ((RawTypedColumn) column).getRawCompleteType() != null) {
+			return ((RawTypedColumn) column).getRawCompleteType();
+		} else {
+			return super.getSqlType(column);
+		}
+	}
+
+	/**
+	 * Prints the comment of a table or a column as a string literal.
+	 */
+	private void printStringLiteral(String description) throws IOException
+	{
+		print(getPlatformInfo().getValueQuoteToken());
+		print(escapeStringValue(description));
+		print(getPlatformInfo().getValueQuoteToken());
+	}
+
+	private Column findDesiredColumn(Database desiredModel, ColumnChange change)
+	{
+		Table desiredTable = desiredModel.findTable(change.getChangedTable().getName(), isCaseSensitive());
+		return desiredTable.findColumn(change.getChangedColumn().getName(), isCaseSensitive());
+	}
+
+	private boolean isCaseSensitive()
+	{
+		return getPlatform().isDelimitedIdentifierModeOn();
+	}
+
+	@Override
+	public void setNonTransactionalWriter(Writer writer)
+	{
+		// MySQL commits every DDL statement implicitly, everything is written to the main writer
+	}
+
+	/**
+	 * The lock timeout is mapped to {@code lock_wait_timeout}. Indices are always built online, columns are never
+	 * rebuilt through a copy of the table and every DDL statement commits on its own, so the options of those
+	 * are met anyway. The others have no MySQL counterpart and are ignored with a warning.
+	 */
+	@Override
+	public void setPatchOptions(SqlPatchOptions patchOptions)
+	{
+		this.patchOptions = patchOptions;
+		if (patchOptions.getStatementTimeout() != null) {
+			// max_execution_time limits only SELECT statements
+			warnUnsupported("statement timeout");
+		}
+		if (patchOptions.isNotValidForeignKeys()) {
+			warnUnsupported("not valid foreign keys");
+		}
+		if (patchOptions.getBackfillBatchSize() > 0) {
+			warnUnsupported("batched backfill");
+		}
+		if (patchOptions.isGroupedColumnAlterations()) {
+			warnUnsupported("grouped column alterations");
+		}
+	}
+
+	private void warnUnsupported(String option)
+	{
+		_log.warn("The " + option + " option is not supported by MySQL and is ignored");
+	}
+
+	/**
+	 * Used to estimate the size of tables, which a column type change may copy.
+	 */
+	@Override
+	public void setTableSizes(Map<String, Long> tableSizes)
+	{
+		this.tableSizes = tableSizes;
+	}
+
+	@Override
+	@SneakyThrows
+	public MigenSqlBuilder clone()
+	{
+		return new CustomMySqlBuilder(platform);
+	}
+
+	@Override
+	@SneakyThrows
+	public void writeSqlColumnType(Column column)
+	{
+		print(getSqlType(column));
+	}
+
+}
@@ -0,0 +1,403 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.platform.mysql;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ddlutils.Platform;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.ForeignKey;
+import org.apache.ddlutils.model.Index;
+import org.apache.ddlutils.model.IndexColumn;
+import org.apache.ddlutils.model.NonUniqueIndex;
+import org.apache.ddlutils.model.Reference;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.model.UniqueIndex;
+import org.apache.ddlutils.platform.mysql.MySql50ModelReader;
+
+import com.dtforce.migen.ddl.RawTypedColumn;
+import com.dtforce.migen.platform.PartialModelRead;
+import com.dtforce.migen.platform.type.PlatformTypeMapping;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Model reader, which loads the whole schema in one query per object kind against {@code information_schema},
+ * instead of issuing separate {@link java.sql.DatabaseMetaData} round-trips for every table.
+ * <p>
+ * Without a schema pattern, the tables of the current database are read.
+ */
+@Slf4j
+public class CustomMySqlModelReader extends MySql50ModelReader
+{
+
+	private static final String TABLES_QUERY = """
+		SELECT t.TABLE_SCHEMA, t.TABLE_NAME, t.TABLE_COMMENT
+		FROM information_schema.TABLES t
+		WHERE t.TABLE_TYPE = 'BASE TABLE'
+			%s
+		ORDER BY t.TABLE_SCHEMA, t.TABLE_NAME
+		""";
+
+	private static final String SCHEMAS_QUERY = """
+		SELECT t.SCHEMA_NAME
+		FROM information_schema.SCHEMATA t
+		WHERE t.SCHEMA_NAME LIKE ?
+		ORDER BY t.SCHEMA_NAME
+		""";
+
+	private static final String TABLE_SIZES_QUERY = """
+		SELECT t.TABLE_NAME, t.DATA_LENGTH
+		FROM information_schema.TABLES t
+		WHERE t.TABLE_TYPE = 'BASE TABLE'
+			%s
+		ORDER BY t.TABLE_SCHEMA, t.TABLE_NAME
+		""";
+
+	private static final String COLUMNS_QUERY = """
+		SELECT t.TABLE_SCHEMA, t.TABLE_NAME, t.COLUMN_NAME, t.DATA_TYPE, t.COLUMN_TYPE, t.IS_NULLABLE,
+			t.COLUMN_DEFAULT, t.CHARACTER_MAXIMUM_LENGTH, t.NUMERIC_PRECISION, t.NUMERIC_SCALE,
+			t.DATETIME_PRECISION, t.EXTRA, t.COLUMN_COMMENT
+		FROM information_schema.COLUMNS t
+		WHERE 1 = 1
+			%s
+		ORDER BY t.TABLE_SCHEMA, t.TABLE_NAME, t.ORDINAL_POSITION
+		""";
+
+	private static final String INDICES_QUERY = """
+		SELECT t.TABLE_SCHEMA, t.TABLE_NAME, t.INDEX_NAME, t.NON_UNIQUE, t.COLUMN_NAME
+		FROM information_schema.STATISTICS t
+		WHERE t.COLUMN_NAME IS NOT NULL
+			%s
+		ORDER BY t.TABLE_SCHEMA, t.TABLE_NAME, t.INDEX_NAME, t.SEQ_IN_INDEX
+		""";
+
+	private static final String FOREIGN_KEYS_QUERY = """
+		SELECT t.TABLE_SCHEMA, t.TABLE_NAME, t.CONSTRAINT_NAME, t.COLUMN_NAME, t.REFERENCED_TABLE_NAME,
+			t.REFERENCED_COLUMN_NAME
+		FROM information_schema.KEY_COLUMN_USAGE t
+		WHERE t.REFERENCED_TABLE_NAME IS NOT NULL
+			%s
+		ORDER BY t.TABLE_SCHEMA, t.TABLE_NAME, t.CONSTRAINT_NAME, t.ORDINAL_POSITION
+		""";
+
+	private static final String PRIMARY_KEY_NAME = "PRIMARY";
+
+	private static final Map<String, Integer> TYPE_CODES = Map.ofEntries(
+		Map.entry("BIT", Types.BIT),
+		Map.entry("TINYINT", Types.TINYINT),
+		Map.entry("SMALLINT", Types.SMALLINT),
+		Map.entry("MEDIUMINT", Types.INTEGER),
+		Map.entry("INT", Types.INTEGER),
+		Map.entry("BIGINT", Types.BIGINT),
+		Map.entry("DECIMAL", Types.DECIMAL),
+		Map.entry("FLOAT", Types.REAL),
+		Map.entry("DOUBLE", Types.DOUBLE),
+		Map.entry("CHAR", Types.CHAR),
+		Map.entry("VARCHAR", Types.VARCHAR),
+		Map.entry("TINYTEXT", Types.LONGVARCHAR),
+		Map.entry("TEXT", Types.LONGVARCHAR),
+		Map.entry("MEDIUMTEXT", Types.LONGVARCHAR),
+		Map.entry("LONGTEXT", Types.LONGVARCHAR),
+		Map.entry("ENUM", Types.CHAR),
+		Map.entry("SET", Types.CHAR),
+		Map.entry("BINARY", Types.BINARY),
+		Map.entry("VARBINARY", Types.VARBINARY),
+		Map.entry("TINYBLOB", Types.LONGVARBINARY),
+		Map.entry("BLOB", Types.LONGVARBINARY),
+		Map.entry("MEDIUMBLOB", Types.LONGVARBINARY),
+		Map.entry("LONGBLOB", Types.LONGVARBINARY),
+		Map.entry("DATE", Types.DATE),
+		Map.entry("TIME", Types.TIME),
+		Map.entry("DATETIME", Types.TIMESTAMP),
+		Map.entry("TIMESTAMP", Types.TIMESTAMP),
+		Map.entry("YEAR", Types.SMALLINT)
+	);
+
+	private final PlatformTypeMapping typeProcessors;
+
+	/**
+	 * Creates a new model reader for MySQL databases.
+	 *
+	 * @param platform The platform that this model reader belongs to
+	 */
+	public CustomMySqlModelReader(
+		Platform platform,
+		PlatformTypeMapping typeTable
+	)
+	{
+		super(platform);
+		this.typeProcessors = typeTable;
+	}
+
+	@Override
+	public Database getDatabase(
+		Connection connection,
+		String name,
+		String catalog,
+		String schema,
+		String[] tableTypes
+	) throws SQLException
+	{
+		String modelName = name;
+
+		if (modelName == null) {
+			try {
+				modelName = connection.getCatalog();
+			} catch (Exception ex) {
+				log.info("Cannot determine the catalog name from connection.", ex);
+			}
+		}
+
+		return assembleDatabase(modelName, readTables(connection, schema, null));
+	}
+
+	/**
+	 * Merges the tables read by {@link #readTables(Connection, String, Predicate)} into one model, ordered
+	 * by name.
+	 */
+	public Database assembleDatabase(String name, Collection<Table> tables)
+	{
+		return PartialModelRead.assemble(
+			name,
+			tables,
+			getPlatform().isForeignKeysSorted() ? this::sortForeignKeys : null
+		);
+	}
+
+	/**
+	 * Lists the databases matching the pattern, MySQL drivers report them as catalogs instead of schemas.
+	 */
+	public List<String> readSchemaNames(Connection connection, String schemaPattern) throws SQLException
+	{
+		final List<String> schemaNames = new ArrayList<>();
+		try (PreparedStatement statement = connection.prepareStatement(SCHEMAS_QUERY)) {
+			statement.setString(1, schemaPattern == null ? "%" : schemaPattern);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					schemaNames.add(resultSet.getString("SCHEMA_NAME"));
+				}
+			}
+		}
+		return schemaNames;
+	}
+
+	/**
+	 * Lists the names of the tables read by {@link #readTables(Connection, String, Predicate)}, without reading
+	 * their columns, keys and indices.
+	 */
+	public List<String> readTableNames(Connection connection, String schemaPattern) throws SQLException
+	{
+		final List<String> tableNames = new ArrayList<>();
+		try (PreparedStatement statement = prepare(connection, TABLES_QUERY, schemaPattern);
+			 ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				tableNames.add(resultSet.getString("TABLE_NAME"));
+			}
+		}
+		return tableNames;
+	}
+
+	/**
+	 * Reads the data length of each table from {@code information_schema.TABLES}, which is an estimate
+	 * maintained by the storage engine. Sizes of tables with the same name in more schemas are summed up.
+	 */
+	public Map<String, Long> readTableSizes(Connection connection, String schemaPattern) throws SQLException
+	{
+		final Map<String, Long> sizes = new LinkedHashMap<>();
+		try (PreparedStatement statement = prepare(connection, TABLE_SIZES_QUERY, schemaPattern);
+			 ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				sizes.merge(resultSet.getString("TABLE_NAME"), resultSet.getLong("DATA_LENGTH"), Long::sum);
+			}
+		}
+		return sizes;
+	}
+
+	/**
+	 * Reads all tables of the schema accepted by the filter including their columns, primary keys,
+	 * foreign keys and indices. The foreign keys are not resolved, so the tables of several partial reads
+	 * can be merged with {@link #assembleDatabase(String, Collection)}.
+	 */
+	public Collection<Table> readTables(
+		Connection connection,
+		String schemaPattern,
+		Predicate<String> tableFilter
+	) throws SQLException
+	{
+		final Map<String, Table> tables = new LinkedHashMap<>();
+		try (PreparedStatement statement = prepare(connection, TABLES_QUERY, schemaPattern);
+			 ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				String tableName = resultSet.getString("TABLE_NAME");
+				if (tableFilter != null && !tableFilter.test(tableName)) {
+					continue;
+				}
+				Table table = new Table();
+				table.setName(tableName);
+				table.setType("TABLE");
+				table.setSchema(resultSet.getString("TABLE_SCHEMA"));
+				table.setDescription(emptyToNull(resultSet.getString("TABLE_COMMENT")));
+				tables.put(tableKey(table.getSchema(), tableName), table);
+			}
+		}
+
+		if (tables.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		try (PreparedStatement statement = prepare(connection, COLUMNS_QUERY, schemaPattern);
+			 ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				Table table = tables.get(tableKey(resultSet.getString("TABLE_SCHEMA"), resultSet.getString("TABLE_NAME")));
+				if (table != null) {
+					table.addColumn(readColumn(resultSet));
+				}
+			}
+		}
+
+		final Map<String, Map<String, ForeignKey>> foreignKeys = new HashMap<>();
+		try (PreparedStatement statement = prepare(connection, FOREIGN_KEYS_QUERY, schemaPattern);
+			 ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				String key = tableKey(resultSet.getString("TABLE_SCHEMA"), resultSet.getString("TABLE_NAME"));
+				if (tables.containsKey(key)) {
+					ForeignKey foreignKey = foreignKeys.computeIfAbsent(key, it -> new LinkedHashMap<>())
+						.computeIfAbsent(resultSet.getString("CONSTRAINT_NAME"), ForeignKey::new);
+					foreignKey.setForeignTableName(resultSet.getString("REFERENCED_TABLE_NAME"));
+					Reference reference = new Reference();
+					reference.setLocalColumnName(resultSet.getString("COLUMN_NAME"));
+					reference.setForeignColumnName(resultSet.getString("REFERENCED_COLUMN_NAME"));
+					foreignKey.addReference(reference);
+				}
+			}
+		}
+
+		final Map<String, Map<String, Index>> indices = new HashMap<>();
+		try (PreparedStatement statement = prepare(connection, INDICES_QUERY, schemaPattern);
+			 ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				String key = tableKey(resultSet.getString("TABLE_SCHEMA"), resultSet.getString("TABLE_NAME"));
+				Table table = tables.get(key);
+				if (table == null) {
+					continue;
+				}
+				String indexName = resultSet.getString("INDEX_NAME");
+				String columnName = resultSet.getString("COLUMN_NAME");
+				if (PRIMARY_KEY_NAME.equals(indexName)) {
+					Column column = table.findColumn(columnName, true);
+					if (column != null) {
+						column.setPrimaryKey(true);
+					}
+					continue;
+				}
+				boolean unique = !resultSet.getBoolean("NON_UNIQUE");
+				Index index = indices.computeIfAbsent(key, it -> new LinkedHashMap<>())
+					.computeIfAbsent(indexName, it -> unique ? new UniqueIndex() : new NonUniqueIndex());
+				index.setName(indexName);
+				index.addColumn(new IndexColumn(columnName));
+			}
+		}
+
+		final List<Table> result = new ArrayList<>(tables.size());
+		for (Map.Entry<String, Table> entry : tables.entrySet()) {
+			final Table table = entry.getValue();
+			final Map<String, ForeignKey> tableForeignKeys = foreignKeys.getOrDefault(entry.getKey(), Map.of());
+			table.addForeignKeys(tableForeignKeys.values());
+			for (Index index : indices.getOrDefault(entry.getKey(), Map.of()).values()) {
+				// MySQL creates an index named after the foreign key, when there is no other index to back it
+				if (!tableForeignKeys.containsKey(index.getName())) {
+					table.addIndex(index);
+				}
+			}
+			result.add(table);
+		}
+		return result;
+	}
+
+	private Column readColumn(ResultSet resultSet) throws SQLException
+	{
+		final String dataType = resultSet.getString("DATA_TYPE").toUpperCase(Locale.ROOT);
+		final String columnType = resultSet.getString("COLUMN_TYPE").toUpperCase(Locale.ROOT);
+		final String extra = resultSet.getString("EXTRA");
+
+		RawTypedColumn column = new RawTypedColumn();
+		column.setName(resultSet.getString("COLUMN_NAME"));
+		column.setTypeCode(TYPE_CODES.getOrDefault(dataType, Types.OTHER));
+		column.setRequired("NO".equals(resultSet.getString("IS_NULLABLE")));
+		column.setAutoIncrement(extra != null && extra.toLowerCase(Locale.ROOT).contains("auto_increment"));
+		column.setDefaultValue(resultSet.getString("COLUMN_DEFAULT"));
+		column.setDescription(emptyToNull(resultSet.getString("COLUMN_COMMENT")));
+
+		final long length = resultSet.getLong("CHARACTER_MAXIMUM_LENGTH");
+		final boolean hasLength = !resultSet.wasNull();
+		final int precision = resultSet.getInt("NUMERIC_PRECISION");
+		final boolean hasPrecision = !resultSet.wasNull();
+		final int scale = resultSet.getInt("NUMERIC_SCALE");
+		final int datetimePrecision = resultSet.getInt("DATETIME_PRECISION");
+		final boolean hasDatetimePrecision = !resultSet.wasNull();
+		if (hasLength) {
+			column.setSizeAndScale((int) Math.min(length, Integer.MAX_VALUE), 0);
+		} else if (hasPrecision) {
+			column.setSizeAndScale(precision, scale);
+		} else if (hasDatetimePrecision) {
+			column.setScale(datetimePrecision);
+		}
+
+		final String dbType = columnType.endsWith(" UNSIGNED") ? dataType + " UNSIGNED" : dataType;
+		return typeProcessors.map(dbType, column);
+	}
+
+	private PreparedStatement prepare(
+		Connection connection,
+		String query,
+		String schemaPattern
+	) throws SQLException
+	{
+		final String schemaCondition = schemaPattern == null
+			? "AND t.TABLE_SCHEMA = DATABASE()"
+			: "AND t.TABLE_SCHEMA LIKE ?";
+		PreparedStatement statement = connection.prepareStatement(String.format(query, schemaCondition));
+		if (schemaPattern != null) {
+			statement.setString(1, schemaPattern);
+		}
+		return statement;
+	}
+
+	private static String emptyToNull(String value)
+	{
+		return value == null || value.isEmpty() ? null : value;
+	}
+
+	private static String tableKey(String schema, String tableName)
+	{
+		return schema + "." + tableName;
+	}
+
+}
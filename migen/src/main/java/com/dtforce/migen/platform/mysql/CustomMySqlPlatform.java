@@ -0,0 +1,234 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.platform.mysql;
+
+import com.google.common.base.MoreObjects;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.apache.ddlutils.DatabaseOperationException;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.mysql.MySql50Platform;
+
+import com.dtforce.migen.ddl.IndexedModelComparator;
+import com.dtforce.migen.platform.MigenPlatform;
+import com.dtforce.migen.platform.MigenSqlBuilder;
+import com.dtforce.migen.platform.type.PlatformTypeMapping;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Platform for MySQL 8 and MariaDB. The live model is read from {@code information_schema} and the migration
+ * uses online DDL, see {@link CustomMySqlBuilder}.
+ */
+public class CustomMySqlPlatform implements MigenPlatform
+{
+
+	@Getter(AccessLevel.PACKAGE)
+	private final DdlUtilsWrapper wrappedPlatform;
+
+	/**
+	 * Spells the types the way Hibernate MySQL dialects do.
+	 */
+	public static final PlatformTypeMapping DEFAULT_TYPE_MAPPING;
+
+	static {
+		DEFAULT_TYPE_MAPPING = new PlatformTypeMapping()
+			.withGeneralProcessor((dbType, chain, rawTypedColumn) -> {
+				if (dbType.endsWith(" UNSIGNED")) {
+					final var typedColumn = chain.map(dbType.substring(0, dbType.length() - 9), rawTypedColumn);
+					typedColumn.setRawCompleteType(typedColumn.getRawCompleteType() + " UNSIGNED");
+					return typedColumn;
+				} else {
+					return chain.map(dbType, rawTypedColumn);
+				}
+			})
+			.withMapping("INT", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType("INTEGER");
+				return rawTypedColumn;
+			})
+			.withMapping("BIT", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(
+					rawTypedColumn.getSizeAsInt() > 1 ? String.format("BIT(%d)", rawTypedColumn.getSizeAsInt()) : "BIT"
+				);
+				return rawTypedColumn;
+			})
+			.withMapping("CHAR", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(String.format("CHAR(%d)", rawTypedColumn.getSizeAsInt()));
+				return rawTypedColumn;
+			})
+			.withMapping("VARCHAR", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(String.format("VARCHAR(%d)", rawTypedColumn.getSizeAsInt()));
+				return rawTypedColumn;
+			})
+			.withMapping("BINARY", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(String.format("BINARY(%d)", rawTypedColumn.getSizeAsInt()));
+				return rawTypedColumn;
+			})
+			.withMapping("VARBINARY", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(String.format("VARBINARY(%d)", rawTypedColumn.getSizeAsInt()));
+				return rawTypedColumn;
+			})
+			.withMapping("DECIMAL", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(
+					String.format(
+						"DECIMAL(%d,%d)",
+						rawTypedColumn.getSizeAsInt(),
+						rawTypedColumn.getScale()
+					)
+				);
+				return rawTypedColumn;
+			})
+			.withMapping("DATETIME", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(temporalType("DATETIME", rawTypedColumn.getScale()));
+				return rawTypedColumn;
+			})
+			.withMapping("TIMESTAMP", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(temporalType("TIMESTAMP", rawTypedColumn.getScale()));
+				return rawTypedColumn;
+			})
+			.withMapping("TIME", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType(temporalType("TIME", rawTypedColumn.getScale()));
+				return rawTypedColumn;
+			});
+	}
+
+	public CustomMySqlPlatform(PlatformTypeMapping platformTypeMapping)
+	{
+		wrappedPlatform = new DdlUtilsWrapper(
+			MoreObjects.firstNonNull(platformTypeMapping, DEFAULT_TYPE_MAPPING),
+			this
+		);
+	}
+
+	private static String temporalType(String type, int fractionalDigits)
+	{
+		return fractionalDigits > 0 ? String.format("%s(%d)", type, fractionalDigits) : type;
+	}
+
+	@Override
+	public MigenSqlBuilder getSqlBuilder()
+	{
+		return ((CustomMySqlBuilder) wrappedPlatform.getSqlBuilder()).clone();
+	}
+
+	@Override
+	public Database readModelFromDatabase(Connection connection, String name)
+	{
+		return readModelFromDatabase(connection, name, null);
+	}
+
+	@Override
+	public Database readModelFromDatabase(Connection connection, String name, String schemaPattern)
+	{
+		try {
+			return wrappedPlatform.createModelReader().getDatabase(connection, name, null, schemaPattern, null);
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+	}
+
+	@Override
+	public List<String> readTableNames(Connection connection, String schemaPattern)
+	{
+		try {
+			return wrappedPlatform.createModelReader().readTableNames(connection, schemaPattern);
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+	}
+
+	@Override
+	public Collection<Table> readTables(Connection connection, String schemaPattern, Predicate<String> tableFilter)
+	{
+		try {
+			return wrappedPlatform.createModelReader().readTables(connection, schemaPattern, tableFilter);
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+	}
+
+	@Override
+	public List<String> readSchemaNames(Connection connection, String schemaPattern)
+	{
+		try {
+			return wrappedPlatform.createModelReader().readSchemaNames(connection, schemaPattern);
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+	}
+
+	@Override
+	public Map<String, Long> readTableSizes(Connection connection, String schemaPattern)
+	{
+		try {
+			return wrappedPlatform.createModelReader().readTableSizes(connection, schemaPattern);
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+	}
+
+	@Override
+	public Database assembleModel(String name, Collection<Table> tables)
+	{
+		return wrappedPlatform.createModelReader().assembleDatabase(name, tables);
+	}
+
+	@Override
+	public IndexedModelComparator createModelComparator()
+	{
+		return new IndexedModelComparator(wrappedPlatform.getPlatformInfo(), false);
+	}
+
+	@Override
+	public PlatformTypeMapping getPlatformTypeMapping()
+	{
+		return wrappedPlatform.platformTypeMapping;
+	}
+
+	static class DdlUtilsWrapper extends MySql50Platform
+	{
+
+		private final PlatformTypeMapping platformTypeMapping;
+
+		private DdlUtilsWrapper(PlatformTypeMapping platformTypeMapping, CustomMySqlPlatform platform)
+		{
+			super();
+			this.platformTypeMapping = platformTypeMapping;
+			setModelReader(createModelReader());
+			getPlatformInfo().setMaxIdentifierLength(64);
+
+			CustomMySqlBuilder builder = new CustomMySqlBuilder(platform);
+			setSqlBuilder(builder);
+			setDelimitedIdentifierModeOn(true);
+		}
+
+		/**
+		 * Creates a new model reader, model readers are not thread safe.
+		 */
+		private CustomMySqlModelReader createModelReader()
+		{
+			return new CustomMySqlModelReader(this, platformTypeMapping);
+		}
+	}
+
+}
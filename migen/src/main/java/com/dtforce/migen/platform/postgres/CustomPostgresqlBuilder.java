@@ -20,6 +20,8 @@ import lombok.SneakyThrows;
 import org.apache.commons.collections.map.ListOrderedMap;
 import org.apache.ddlutils.DdlUtilsException;
 import org.apache.ddlutils.alteration.AddColumnChange;
+import org.apache.ddlutils.alteration.AddPrimaryKeyChange;
+import org.apache.ddlutils.alteration.AddTableChange;
 import org.apache.ddlutils.alteration.ColumnChange;
 import org.apache.ddlutils.alteration.ColumnDataTypeChange;
 import org.apache.ddlutils.alteration.ColumnDefaultValueChange;
@@ -27,9 +29,13 @@ import org.apache.ddlutils.alteration.ColumnOrderChange;
 import org.apache.ddlutils.alteration.ColumnRequiredChange;
 import org.apache.ddlutils.alteration.ColumnSizeChange;
 import org.apache.ddlutils.alteration.ModelChange;
+import org.apache.ddlutils.alteration.PrimaryKeyChange;
+import org.apache.ddlutils.alteration.RemoveColumnChange;
+import org.apache.ddlutils.alteration.RemovePrimaryKeyChange;
 import org.apache.ddlutils.alteration.TableChange;
 import org.apache.ddlutils.model.Column;
 import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.ForeignKey;
 import org.apache.ddlutils.model.Index;
 import org.apache.ddlutils.model.IndexColumn;
 import org.apache.ddlutils.model.ModelException;
@@ -43,19 +49,46 @@ import com.dtforce.migen.ddl.FilterIndexDef;
 import com.dtforce.migen.ddl.RawTypedColumn;
 import com.dtforce.migen.ddl.TableDescriptionChanged;
 import com.dtforce.migen.platform.MigenSqlBuilder;
+import com.dtforce.migen.platform.SqlPatchOptions;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenSqlBuilder
 {
 
 	private final CustomPostgresqlPlatform platform;
 
+	private Writer nonTransactionalWriter;
+
+	private SqlPatchOptions patchOptions = new SqlPatchOptions();
+
+	private Map<String, Long> tableSizes = Map.of();
+
+	private boolean creatingTable;
+
+	private final Set<Table> createdTables = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	private final List<ForeignKeyValidation> foreignKeyValidations = new ArrayList<>();
+
+	private final Set<Writer> guardedWriters = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	private boolean writingGuard;
+
+	private boolean statementTransactionOpen;
+
+	private Table columnAlterationTable;
+
 	public CustomPostgresqlBuilder(CustomPostgresqlPlatform platform)
 	{
 		super(platform.getWrappedPlatform());
@@ -75,8 +108,46 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 		processChanges(currentModel, desiredModel, changes, null);
 	}
 
+	/**
+	 * Written without the session guards, they are written by the patch following it.
+	 */
+	@Override
+	@SneakyThrows
+	public void writeSchemaSelection(String schema)
+	{
+		writingGuard = true;
+		try {
+			print("SET search_path TO " + getDelimitedIdentifier(schema));
+			printEndOfStatement();
+		} finally {
+			writingGuard = false;
+		}
+	}
+
+	@Override
+	@SneakyThrows
+	public void writeSchemaReset()
+	{
+		writingGuard = true;
+		try {
+			print("RESET search_path");
+			printEndOfStatement();
+		} finally {
+			writingGuard = false;
+		}
+	}
+
 	@Override
 	protected void processChanges(Database currentModel, Database desiredModel, List changes, CreationParameters params) throws IOException {
+		createdTables.clear();
+		foreignKeyValidations.clear();
+		guardedWriters.clear();
+		statementTransactionOpen = false;
+		for (Object change : changes) {
+			if (change instanceof AddTableChange addTableChange) {
+				createdTables.add(addTableChange.getNewTable());
+			}
+		}
 		super.processChanges(currentModel, desiredModel, changes, params);
 		for (Object change : changes) {
 			if (change instanceof ColumnDescriptionChanged) {
@@ -86,6 +157,143 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 				processTableCommentChange(currentModel, (TableDescriptionChanged) change);
 			}
 		}
+		writeForeignKeyValidations();
+		writeGuardResets();
+	}
+
+	/**
+	 * Writes the session guards before the first statement of a writer and opens the per statement transaction.
+	 */
+	@Override
+	protected void print(String text) throws IOException
+	{
+		if (!writingGuard && !text.isBlank()) {
+			writingGuard = true;
+			try {
+				writeGuards();
+			} finally {
+				writingGuard = false;
+			}
+		}
+		super.print(text);
+	}
+
+	@Override
+	protected void printEndOfStatement() throws IOException
+	{
+		super.printEndOfStatement();
+		if (statementTransactionOpen) {
+			statementTransactionOpen = false;
+			writingGuard = true;
+			try {
+				print("COMMIT");
+				printEndOfStatement();
+			} finally {
+				writingGuard = false;
+			}
+		}
+	}
+
+	private void writeGuards() throws IOException
+	{
+		final boolean transactional = getWriter() != nonTransactionalWriter;
+		if (guardedWriters.add(getWriter())) {
+			writeSessionSetting("lock_timeout", patchOptions.getLockTimeout());
+			if (transactional) {
+				writeSessionSetting("statement_timeout", patchOptions.getStatementTimeout());
+			}
+		}
+		if (patchOptions.isTransactionPerStatement() && transactional && !statementTransactionOpen) {
+			print("BEGIN");
+			printEndOfStatement();
+			statementTransactionOpen = true;
+		}
+	}
+
+	private void writeSessionSetting(String name, Duration value) throws IOException
+	{
+		if (value != null) {
+			print("SET " + name + " = '" + value.toMillis() + "ms'");
+			printEndOfStatement();
+		}
+	}
+
+	private void writeGuardResets() throws IOException
+	{
+		final Writer writer = getWriter();
+		writingGuard = true;
+		try {
+			for (Writer guardedWriter : guardedWriters) {
+				setWriter(guardedWriter);
+				if (patchOptions.getLockTimeout() != null) {
+					print("RESET lock_timeout");
+					printEndOfStatement();
+				}
+				if (patchOptions.getStatementTimeout() != null && guardedWriter != nonTransactionalWriter) {
+					print("RESET statement_timeout");
+					printEndOfStatement();
+				}
+			}
+		} finally {
+			setWriter(writer);
+			writingGuard = false;
+			guardedWriters.clear();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void writeExternalForeignKeyCreateStmt(Database database, Table table, ForeignKey key) throws IOException
+	{
+		if (!patchOptions.isNotValidForeignKeys() || creatingTable || createdTables.contains(table) ||
+			key.getForeignTableName() == null) {
+			super.writeExternalForeignKeyCreateStmt(database, table, key);
+			return;
+		}
+		if (nonTransactionalWriter == null && !patchOptions.isTransactionPerStatement()) {
+			// validated in the transaction adding it, the lock of the ADD would be held through the whole scan
+			_log.warn("Foreign key " + getForeignKeyName(table, key) + " of " + table.getName() + " is added as valid, " +
+				"not valid foreign keys need the non-transactional writer or a transaction per statement");
+			super.writeExternalForeignKeyCreateStmt(database, table, key);
+			return;
+		}
+		// existing rows are checked later by VALIDATE CONSTRAINT, which does not block writes to the tables
+		writeTableAlterStmt(table);
+		print("ADD CONSTRAINT ");
+		printIdentifier(getForeignKeyName(table, key));
+		print(" FOREIGN KEY (");
+		writeLocalReferences(key);
+		print(") REFERENCES ");
+		printIdentifier(getTableName(database.findTable(key.getForeignTableName())));
+		print(" (");
+		writeForeignReferences(key);
+		print(") NOT VALID");
+		printEndOfStatement();
+		foreignKeyValidations.add(new ForeignKeyValidation(table, key));
+	}
+
+	private void writeForeignKeyValidations() throws IOException
+	{
+		if (foreignKeyValidations.isEmpty()) {
+			return;
+		}
+		final Writer writer = getWriter();
+		if (nonTransactionalWriter != null) {
+			setWriter(nonTransactionalWriter);
+		}
+		try {
+			for (ForeignKeyValidation validation : foreignKeyValidations) {
+				writeTableAlterStmt(validation.table());
+				print("VALIDATE CONSTRAINT ");
+				printIdentifier(getForeignKeyName(validation.table(), validation.foreignKey()));
+				printEndOfStatement();
+			}
+		} finally {
+			setWriter(writer);
+			foreignKeyValidations.clear();
+		}
 	}
 
 	@Override
@@ -164,17 +372,93 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 		}
 	}
 
+	/**
+	 * Drops the primary key under the name it has in the database, looked up when the migration runs, as the model
+	 * does not keep it. Refuses to drop it while foreign keys depend on it, they would have to be dropped too.
+	 */
+	private void writeExternalPrimaryKeyDropStmt(Table table) throws IOException
+	{
+		final String tableName = "'" + escapeStringValue(getDelimitedIdentifier(getTableName(table))) + "'";
+		println("DO $$");
+		println("DECLARE");
+		printIndent();
+		println("pk_name NAME;");
+		printIndent();
+		println("pk_index OID;");
+		printIndent();
+		println("dependent_keys TEXT;");
+		println("BEGIN");
+		printIndent();
+		println("SELECT conname, conindid INTO pk_name, pk_index FROM pg_catalog.pg_constraint");
+		printIndent();
+		printIndent();
+		println("WHERE conrelid = " + tableName + "::regclass AND contype = 'p';");
+		printIndent();
+		println("IF pk_name IS NULL THEN");
+		printIndent();
+		printIndent();
+		println("RAISE EXCEPTION 'Table % has no primary key to drop', " + tableName + ";");
+		printIndent();
+		println("END IF;");
+		printIndent();
+		println("SELECT string_agg(format('%s.%I', conrelid::regclass, conname), ', ') INTO dependent_keys");
+		printIndent();
+		printIndent();
+		println("FROM pg_catalog.pg_constraint WHERE contype = 'f' AND conindid = pk_index;");
+		printIndent();
+		println("IF dependent_keys IS NOT NULL THEN");
+		printIndent();
+		printIndent();
+		println("RAISE EXCEPTION 'Primary key % of % is referenced by foreign keys %, drop them first', pk_name, " +
+			tableName + ", dependent_keys;");
+		printIndent();
+		println("END IF;");
+		printIndent();
+		println("EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', " + tableName + "::regclass, pk_name);");
+		print("END $$");
+		printEndOfStatement();
+	}
+
 	public void writeExternalIndexDropStmt(Table table, Index index) throws IOException {
 		if (index instanceof UniqueIndex uniqueIndex) {
 			this.writeTableAlterStmt(table);
 			this.print("DROP CONSTRAINT ");
 			this.printIdentifier(this.getIndexName(uniqueIndex));
 			this.printEndOfStatement();
+		} else if (isConcurrentIndex(index)) {
+			final Writer writer = getWriter();
+			setWriter(nonTransactionalWriter);
+			try {
+				// the index may be already gone with a column or table dropped by the transactional migration
+				print("DROP INDEX CONCURRENTLY IF EXISTS ");
+				printIdentifier(getIndexName(index));
+				printEndOfStatement();
+			} finally {
+				setWriter(writer);
+			}
 		} else {
 			super.writeExternalIndexDropStmt(table, index);
 		}
 	}
 
+	@Override
+	public void setNonTransactionalWriter(Writer writer)
+	{
+		this.nonTransactionalWriter = writer;
+	}
+
+	@Override
+	public void setPatchOptions(SqlPatchOptions patchOptions)
+	{
+		this.patchOptions = patchOptions;
+	}
+
+	@Override
+	public void setTableSizes(Map<String, Long> tableSizes)
+	{
+		this.tableSizes = tableSizes;
+	}
+
 	@Override
 	protected void processTableStructureChanges(
 			Database currentModel,
@@ -191,6 +475,9 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 		while (changeIt.hasNext()) {
 			TableChange change = changeIt.next();
 			boolean handled = true;
+			if (!isColumnAlteration(change)) {
+				endColumnAlterations();
+			}
 			if (change instanceof ColumnDataTypeChange) {
 				processTypeChange(currentModel, desiredModel, (ColumnChange) change);
 			} else if (change instanceof ColumnOrderChange) {
@@ -205,6 +492,11 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 				if (addColumnChange.getNewColumn().isRequired() &&
 					!addColumnChange.getNewColumn().isAutoIncrement() &&
 					(addColumnChange.getNewColumn().getDefaultValue() == null)) {
+					if (patchOptions.getBackfillBatchSize() > 0 && !addColumnChange.getNewColumn().isPrimaryKey()) {
+						processBackfilledColumn(currentModel, desiredModel, addColumnChange);
+						changeIt.remove();
+						continue;
+					}
 					try {
 						Column column = (Column) addColumnChange.getNewColumn().clone();
 						column.setDefaultValue("-1");
@@ -229,6 +521,24 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 				}
 			} else if (change instanceof ColumnDefaultValueChange) {
 				this.processDefaultChange(currentModel, desiredModel, (ColumnDefaultValueChange) change);
+			} else if (change instanceof final RemoveColumnChange removeColumnChange) {
+				processRemoveColumnChange(currentModel, removeColumnChange);
+			} else if (change instanceof final AddPrimaryKeyChange addPrimaryKeyChange) {
+				writeExternalPrimaryKeysCreateStmt(
+					addPrimaryKeyChange.getChangedTable(),
+					addPrimaryKeyChange.getPrimaryKeyColumns()
+				);
+				addPrimaryKeyChange.apply(currentModel, isCaseSensitive());
+			} else if (change instanceof final RemovePrimaryKeyChange removePrimaryKeyChange) {
+				writeExternalPrimaryKeyDropStmt(removePrimaryKeyChange.getChangedTable());
+				removePrimaryKeyChange.apply(currentModel, isCaseSensitive());
+			} else if (change instanceof final PrimaryKeyChange primaryKeyChange) {
+				writeExternalPrimaryKeyDropStmt(primaryKeyChange.getChangedTable());
+				writeExternalPrimaryKeysCreateStmt(
+					primaryKeyChange.getChangedTable(),
+					primaryKeyChange.getNewPrimaryKeyColumns()
+				);
+				primaryKeyChange.apply(currentModel, isCaseSensitive());
 			} else {
 				handled = false;
 			}
@@ -236,10 +546,58 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 				changeIt.remove();
 			}
 		}
+		endColumnAlterations();
 
 		super.processTableStructureChanges(currentModel, desiredModel, sourceTable, targetTable, parameters, changes);
 	}
 
+	private static boolean isColumnAlteration(TableChange change)
+	{
+		return change instanceof ColumnDataTypeChange || change instanceof ColumnSizeChange ||
+			change instanceof ColumnRequiredChange || change instanceof ColumnDefaultValueChange ||
+			change instanceof ColumnOrderChange;
+	}
+
+	/**
+	 * Starts an {@code ALTER COLUMN} clause. With grouped column alterations, the clause is appended to the open
+	 * {@code ALTER TABLE} statement of the same table, so the table is locked and rewritten at most once.
+	 */
+	private void beginColumnAlteration(Table table, String comment) throws IOException
+	{
+		if (columnAlterationTable != null && columnAlterationTable.getName().equals(table.getName())) {
+			this.println(",");
+			if (comment != null) {
+				this.printComment(comment);
+			}
+		} else {
+			endColumnAlterations();
+			if (comment != null) {
+				this.printComment(comment);
+			}
+			this.print("ALTER TABLE ");
+			this.printlnIdentifier(this.getTableName(table));
+		}
+		this.printIndent();
+		this.print("ALTER COLUMN ");
+	}
+
+	private void endColumnAlteration(Table table) throws IOException
+	{
+		if (patchOptions.isGroupedColumnAlterations()) {
+			columnAlterationTable = table;
+		} else {
+			this.printEndOfStatement();
+		}
+	}
+
+	private void endColumnAlterations() throws IOException
+	{
+		if (columnAlterationTable != null) {
+			columnAlterationTable = null;
+			this.printEndOfStatement();
+		}
+	}
+
 	@Override
 	protected void processTableStructureChanges(
 			Database currentModel,
@@ -254,6 +612,20 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 
 		processTableStructureChanges(currentModel, desiredModel, sourceTable, targetTable, parameters, changes);
 
+		if (!changes.isEmpty() && !patchOptions.isTableRebuild()) {
+			final StringBuilder changeNames = new StringBuilder();
+			for (Object change : changes) {
+				if (!changeNames.isEmpty()) {
+					changeNames.append(", ");
+				}
+				changeNames.append(change.getClass().getSimpleName());
+			}
+			throw new DdlUtilsException(
+				"Table " + tableName + " would have to be rebuilt to apply " + changeNames +
+				", which copies all its data under an exclusive lock. Enable table rebuilds to allow it."
+			);
+		}
+
 		if (!changes.isEmpty()) {
 			// we can only copy the data if no required columns without default value and
 			// non-autoincrement have been added
@@ -302,7 +674,12 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 	@Override
 	public void createTable(final Database database, final Table table, final Map parameters) throws IOException
 	{
-		super.createTable(database, table, parameters);
+		creatingTable = true;
+		try {
+			super.createTable(database, table, parameters);
+		} finally {
+			creatingTable = false;
+		}
 
 		// add comments
 		if (table.getDescription() != null) {
@@ -335,11 +712,40 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 			_log.warn("Cannot write unnamed index " + index);
 			return;
 		}
+		if (!isConcurrentIndex(index)) {
+			writeIndexCreateStmt(table, index, false);
+			return;
+		}
+		final Writer writer = getWriter();
+		setWriter(nonTransactionalWriter);
+		try {
+			writeIndexCreateStmt(table, index, true);
+		} finally {
+			setWriter(writer);
+		}
+	}
+
+	/**
+	 * Non-unique indices of existing tables are built concurrently, when enabled and there is a non-transactional
+	 * writer.
+	 * Unique indices stay in the transactional migration, as foreign keys added by it may depend on them.
+	 */
+	private boolean isConcurrentIndex(Index index)
+	{
+		return patchOptions.isConcurrentIndexes() && nonTransactionalWriter != null && !creatingTable &&
+			!index.isUnique();
+	}
+
+	private void writeIndexCreateStmt(Table table, Index index, boolean concurrently) throws IOException
+	{
 		print("CREATE");
 		if (index.isUnique()) {
 			print(" UNIQUE");
 		}
 		print(" INDEX ");
+		if (concurrently) {
+			print("CONCURRENTLY ");
+		}
 		printIdentifier(getIndexName(index));
 		print(" ON ");
 		printIdentifier(getTableName(table));
@@ -433,12 +839,197 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 		this.printEndOfStatement();
 	}
 
-	private void processChange(Database currentModel, ColumnRequiredChange change) throws IOException
+	/**
+	 * Adds the required column as nullable, fills it in batches and only then sets it not null, the not null
+	 * check is backed by a validated check constraint, so it does not scan the table under an exclusive lock.
+	 * The batches commit separately when written to the non-transactional writer.
+	 */
+	private void processBackfilledColumn(
+		Database currentModel,
+		Database desiredModel,
+		AddColumnChange change
+	) throws IOException
+	{
+		final Table table = change.getChangedTable();
+		final Column column;
+		final Column placeholder;
+		try {
+			column = (Column) change.getNewColumn().clone();
+			column.setRequired(false);
+			placeholder = (Column) change.getNewColumn().clone();
+			placeholder.setDefaultValue("-1");
+		} catch (CloneNotSupportedException e) {
+			throw new RuntimeException(e);
+		}
+		processChange(
+			currentModel,
+			desiredModel,
+			new AddColumnChange(table, column, change.getPreviousColumn(), change.getNextColumn())
+		);
+
+		final String tableName = getDelimitedIdentifier(getTableName(table));
+		final String columnName = getDelimitedIdentifier(getColumnName(column));
+		final String constraintName = shortenName(
+			table.getName() + "_" + column.getName() + "_not_null",
+			getMaxConstraintNameLength()
+		);
+		final boolean separateTransactions = nonTransactionalWriter != null;
+		final Writer writer = getWriter();
+		if (separateTransactions) {
+			setWriter(nonTransactionalWriter);
+		}
+		try {
+			printComment("TODO - change backfill value");
+			final String update = "UPDATE " + tableName + " SET " + columnName + " = " +
+				getNativeDefaultValue(placeholder) + " WHERE ";
+			final Column[] primaryKeyColumns = table.getPrimaryKeyColumns();
+			if (primaryKeyColumns.length == 1) {
+				writeKeysetBackfill(tableName, columnName, update, primaryKeyColumns[0], separateTransactions);
+			} else {
+				writePageRangeBackfill(tableName, columnName, update, separateTransactions);
+			}
+			printEndOfStatement();
+
+			writeTableAlterStmt(table);
+			print("ADD CONSTRAINT ");
+			printIdentifier(constraintName);
+			print(" CHECK (" + columnName + " IS NOT NULL) NOT VALID");
+			printEndOfStatement();
+			writeTableAlterStmt(table);
+			print("VALIDATE CONSTRAINT ");
+			printIdentifier(constraintName);
+			printEndOfStatement();
+			writeTableAlterStmt(table);
+			print("ALTER COLUMN " + columnName + " SET NOT NULL");
+			printEndOfStatement();
+			writeTableAlterStmt(table);
+			print("DROP CONSTRAINT ");
+			printIdentifier(constraintName);
+			printEndOfStatement();
+		} finally {
+			setWriter(writer);
+		}
+	}
+
+	/**
+	 * Walks the table in ranges of the single column primary key, each batch finds its upper bound and updates
+	 * the rows between its bounds through the primary key index, so no batch rescans the already filled rows.
+	 * The final update catches rows inserted behind the walk meanwhile.
+	 */
+	private void writeKeysetBackfill(
+		String tableName,
+		String columnName,
+		String update,
+		Column primaryKeyColumn,
+		boolean separateTransactions
+	) throws IOException
+	{
+		final String keyName = getDelimitedIdentifier(getColumnName(primaryKeyColumn));
+		final String keyType = getSqlType(primaryKeyColumn);
+		println("DO $$");
+		println("DECLARE");
+		printIndent();
+		println("batch_start " + keyType + ";");
+		printIndent();
+		println("batch_end " + keyType + ";");
+		println("BEGIN");
+		printIndent();
+		println("SELECT min(" + keyName + ") INTO batch_start FROM " + tableName + ";");
+		printIndent();
+		println("WHILE batch_start IS NOT NULL LOOP");
+		printIndent();
+		printIndent();
+		println("SELECT max(" + keyName + ") INTO batch_end FROM (SELECT " + keyName + " FROM " + tableName +
+			" WHERE " + keyName + " >= batch_start ORDER BY " + keyName + " LIMIT " +
+			patchOptions.getBackfillBatchSize() + ") batch;");
+		printIndent();
+		printIndent();
+		println(update + keyName + " >= batch_start AND " + keyName + " <= batch_end AND " + columnName +
+			" IS NULL;");
+		writeBackfillCommit(separateTransactions);
+		printIndent();
+		printIndent();
+		println("SELECT min(" + keyName + ") INTO batch_start FROM " + tableName + " WHERE " + keyName +
+			" > batch_end;");
+		printIndent();
+		println("END LOOP;");
+		printIndent();
+		println(update + columnName + " IS NULL;");
+		print("END $$");
+	}
+
+	/**
+	 * Walks the table in ranges of heap pages sized by the planner statistics to hold about a batch of rows. The
+	 * ctid range is read by a TID range scan on Postgres 14 and newer. Updated rows move behind the walked range,
+	 * they are already filled, and the final update catches rows inserted meanwhile.
+	 */
+	private void writePageRangeBackfill(
+		String tableName,
+		String columnName,
+		String update,
+		boolean separateTransactions
+	) throws IOException
+	{
+		final String tableLiteral = "'" + escapeStringValue(tableName) + "'::regclass";
+		final int batchSize = patchOptions.getBackfillBatchSize();
+		println("DO $$");
+		println("DECLARE");
+		printIndent();
+		println("batch_start BIGINT := 0;");
+		printIndent();
+		println("batch_pages BIGINT;");
+		printIndent();
+		println("table_pages BIGINT;");
+		println("BEGIN");
+		printIndent();
+		println("SELECT pg_relation_size(" + tableLiteral + ") / current_setting('block_size')::BIGINT INTO table_pages;");
+		printIndent();
+		// unanalyzed tables have no statistics, assume rows of about 80 bytes
+		println("SELECT GREATEST(1, CASE WHEN reltuples > 0 AND relpages > 0 THEN ceil(" + batchSize +
+			" * relpages / reltuples) ELSE " + Math.max(1, batchSize / 100) + " END)::BIGINT INTO batch_pages");
+		printIndent();
+		printIndent();
+		println("FROM pg_catalog.pg_class WHERE oid = " + tableLiteral + ";");
+		printIndent();
+		println("WHILE batch_start < table_pages LOOP");
+		printIndent();
+		printIndent();
+		println(update + "ctid >= format('(%s,0)', batch_start)::tid AND ctid < format('(%s,0)', batch_start + " +
+			"batch_pages)::tid AND " + columnName + " IS NULL;");
+		writeBackfillCommit(separateTransactions);
+		printIndent();
+		printIndent();
+		println("batch_start := batch_start + batch_pages;");
+		printIndent();
+		println("END LOOP;");
+		printIndent();
+		println(update + columnName + " IS NULL;");
+		print("END $$");
+	}
+
+	private void writeBackfillCommit(boolean separateTransactions) throws IOException
+	{
+		if (separateTransactions) {
+			printIndent();
+			printIndent();
+			println("COMMIT;");
+		}
+	}
+
+	private void processRemoveColumnChange(Database currentModel, RemoveColumnChange change) throws IOException
 	{
 		this.print("ALTER TABLE ");
 		this.printlnIdentifier(this.getTableName(change.getChangedTable()));
 		this.printIndent();
-		this.print("ALTER COLUMN ");
+		this.print("DROP COLUMN ");
+		this.printIdentifier(this.getColumnName(change.getColumn()));
+		this.printEndOfStatement();
+		change.apply(currentModel, isCaseSensitive());
+	}
+
+	private void processChange(Database currentModel, ColumnRequiredChange change) throws IOException
+	{
+		beginColumnAlteration(change.getChangedTable(), null);
 		this.printIdentifier(this.getColumnName(change.getChangedColumn()));
 		if (!change.getChangedColumn().isRequired()) {
 			// we are swapping on the basis of a wrong state (is required, but should not be)
@@ -447,25 +1038,47 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 		} else {
 			this.print(" DROP ");
 		}
-		this.print("NOT NULL ");
-		this.printEndOfStatement();
+		this.print("NOT NULL");
+		endColumnAlteration(change.getChangedTable());
 		change.apply(currentModel, isCaseSensitive());
 	}
 
 	private void processTypeChange(Database currentModel, Database desiredModel, ColumnChange change) throws IOException
 	{
 		Column desiredColumn = findDesiredColumn(desiredModel, change);
-		this.print("ALTER TABLE ");
-		this.printlnIdentifier(this.getTableName(change.getChangedTable()));
-		this.printIndent();
-		this.print("ALTER COLUMN ");
+		Column currentColumn = findCurrentColumn(currentModel, change);
+		String currentType = currentColumn == null ? null : this.getSqlType(currentColumn);
+		String desiredType = this.getSqlType(desiredColumn);
+		boolean rewrite = TypeRewriteClassifier.requiresRewrite(currentType, desiredType);
+		beginColumnAlteration(
+			change.getChangedTable(),
+			rewrite ? rewriteWarning(change.getChangedTable(), change.getChangedColumn(), currentType, desiredType) : null
+		);
 		this.printIdentifier(this.getColumnName(change.getChangedColumn()));
 		this.print(" TYPE ");
-		this.print(this.getSqlType(desiredColumn));
-		this.printEndOfStatement();
+		this.print(desiredType);
+		if (rewrite && TypeRewriteClassifier.requiresCast(currentType, desiredType)) {
+			// there may be no implicit assignment cast between the types
+			this.print(" USING ");
+			this.printIdentifier(this.getColumnName(change.getChangedColumn()));
+			this.print("::" + desiredType);
+		}
+		endColumnAlteration(change.getChangedTable());
 		change.apply(currentModel, isCaseSensitive());
 	}
 
+	private String rewriteWarning(Table table, Column column, String currentType, String desiredType)
+	{
+		final Long tableSize = tableSizes.get(table.getName());
+		final String estimate = tableSize == null
+			? "unknown size"
+			: String.format(Locale.ROOT, "%.1f MB estimated from pg_class.relpages", tableSize / (1024.0 * 1024.0));
+		final String warning = "WARNING - changing type of " + table.getName() + "." + column.getName() + " from " +
+			currentType + " to " + desiredType + " rewrites the table (" + estimate + ")";
+		_log.warn(warning);
+		return warning;
+	}
+
 	private void processDefaultChange(
 			Database currentModel,
 			Database desiredModel,
@@ -473,10 +1086,7 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 	) throws IOException
 	{
 		Column desiredColumn = findDesiredColumn(desiredModel, change);
-		this.print("ALTER TABLE ");
-		this.printlnIdentifier(this.getTableName(change.getChangedTable()));
-		this.printIndent();
-		this.print("ALTER COLUMN ");
+		beginColumnAlteration(change.getChangedTable(), null);
 		this.printIdentifier(this.getColumnName(change.getChangedColumn()));
 		boolean hadValue = change.getChangedColumn().getParsedDefaultValue() != null;
 		boolean willHaveValue = change.getNewDefaultValue() != null;
@@ -486,7 +1096,7 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 		} else if (hadValue) {
 			this.print(" DROP DEFAULT");
 		}
-		this.printEndOfStatement();
+		endColumnAlteration(change.getChangedTable());
 		change.apply(currentModel, isCaseSensitive());
 	}
 
@@ -496,6 +1106,12 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 		return desiredTable.findColumn(currentColumn.getChangedColumn().getName());
 	}
 
+	private Column findCurrentColumn(Database currentModel, ColumnChange change)
+	{
+		Table currentTable = currentModel.findTable(change.getChangedTable().getName(), isCaseSensitive());
+		return currentTable == null ? null : currentTable.findColumn(change.getChangedColumn().getName());
+	}
+
 	private boolean isCaseSensitive()
 	{
 		return this.getPlatform().isDelimitedIdentifierModeOn();
@@ -513,4 +1129,8 @@ public class CustomPostgresqlBuilder extends PostgreSqlBuilder implements MigenS
 		this.print(this.getSqlType(column));
 	}
 
+	private record ForeignKeyValidation(Table table, ForeignKey foreignKey)
+	{
+	}
+
 }
@@ -0,0 +1,487 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.platform.postgres;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections.map.ListOrderedMap;
+import org.apache.ddlutils.Platform;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Index;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.DatabaseMetaDataWrapper;
+
+import com.dtforce.migen.platform.type.PlatformTypeMapping;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Model reader, which loads the whole schema in a handful of set based queries against {@code pg_catalog}
+ * instead of issuing separate {@link java.sql.DatabaseMetaData} round-trips for every table.
+ * <p>
+ * The queries return the same column labels as the corresponding {@link java.sql.DatabaseMetaData} methods
+ * and the rows are passed to the same {@code readColumn}, {@code readIndex} and {@code readForeignKey} hooks
+ * as in {@link CustomPostgresqlModelReader}, so both readers produce the same model. Columns are read with
+ * a single schema wide {@link java.sql.DatabaseMetaData#getColumns} call, also when only some tables are read,
+ * because the JDBC driver derives the type code and size of a column from its own type cache.
+ */
+@Slf4j
+public class CustomPostgresqlCatalogModelReader extends CustomPostgresqlModelReader
+{
+
+	private static final String TABLES_QUERY = """
+		SELECT NULL AS "TABLE_CAT", n.nspname AS "TABLE_SCHEM", c.relname AS "TABLE_NAME",
+			CASE c.relkind WHEN 'p' THEN 'PARTITIONED TABLE' ELSE 'TABLE' END AS "TABLE_TYPE",
+			d.description AS "REMARKS"
+		FROM pg_catalog.pg_class c
+		JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace
+		LEFT JOIN pg_catalog.pg_description d
+			ON d.objoid = c.oid AND d.objsubid = 0 AND d.classoid = 'pg_catalog.pg_class'::regclass
+		WHERE c.relkind IN ('r', 'p')
+			AND NOT c.relispartition
+			AND NOT EXISTS (
+				SELECT 1 FROM pg_catalog.pg_depend dep
+				WHERE dep.classid = 'pg_catalog.pg_class'::regclass AND dep.objid = c.oid AND dep.deptype = 'e'
+			)
+			AND n.nspname !~ '^pg_'
+			AND n.nspname <> 'information_schema'
+			%s
+		""";
+
+	private static final String FINGERPRINTS_QUERY = """
+		SELECT c.relname AS "TABLE_NAME", md5(concat_ws('|',
+			c.oid::text, c.xmin::text, c.relfilenode::text,
+			(SELECT string_agg(a.attnum::text || ':' || a.xmin::text, ',' ORDER BY a.attnum)
+				FROM pg_catalog.pg_attribute a WHERE a.attrelid = c.oid),
+			(SELECT string_agg(ad.oid::text || ':' || ad.xmin::text, ',' ORDER BY ad.oid)
+				FROM pg_catalog.pg_attrdef ad WHERE ad.adrelid = c.oid),
+			(SELECT string_agg(ci.oid::text || ':' || ci.xmin::text || ':' || i.xmin::text, ',' ORDER BY ci.oid)
+				FROM pg_catalog.pg_index i JOIN pg_catalog.pg_class ci ON ci.oid = i.indexrelid
+				WHERE i.indrelid = c.oid),
+			(SELECT string_agg(con.oid::text || ':' || con.xmin::text || ':' || coalesce(fc.xmin::text, ''), ','
+					ORDER BY con.oid)
+				FROM pg_catalog.pg_constraint con LEFT JOIN pg_catalog.pg_class fc ON fc.oid = con.confrelid
+				WHERE con.conrelid = c.oid),
+			(SELECT string_agg(d.objsubid::text || ':' || d.xmin::text, ',' ORDER BY d.objsubid)
+				FROM pg_catalog.pg_description d
+				WHERE d.objoid = c.oid AND d.classoid = 'pg_catalog.pg_class'::regclass)
+		)) AS "FINGERPRINT"
+		FROM pg_catalog.pg_class c
+		JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace
+		WHERE c.relkind IN ('r', 'p')
+			AND NOT c.relispartition
+			AND NOT EXISTS (
+				SELECT 1 FROM pg_catalog.pg_depend dep
+				WHERE dep.classid = 'pg_catalog.pg_class'::regclass AND dep.objid = c.oid AND dep.deptype = 'e'
+			)
+			AND n.nspname !~ '^pg_'
+			AND n.nspname <> 'information_schema'
+			%s
+		ORDER BY n.nspname, c.relname
+		""";
+
+	private static final String TABLE_SIZES_QUERY = """
+		SELECT c.relname AS "TABLE_NAME",
+			c.relpages::bigint * current_setting('block_size')::bigint AS "TABLE_SIZE"
+		FROM pg_catalog.pg_class c
+		JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace
+		WHERE c.relkind IN ('r', 'p')
+			AND NOT c.relispartition
+			AND NOT EXISTS (
+				SELECT 1 FROM pg_catalog.pg_depend dep
+				WHERE dep.classid = 'pg_catalog.pg_class'::regclass AND dep.objid = c.oid AND dep.deptype = 'e'
+			)
+			AND n.nspname !~ '^pg_'
+			AND n.nspname <> 'information_schema'
+			%s
+		ORDER BY n.nspname, c.relname
+		""";
+
+	private static final String INDICES_QUERY = """
+		SELECT tmp."TABLE_SCHEM", tmp."TABLE_NAME", tmp."NON_UNIQUE", tmp."INDEX_NAME", tmp."TYPE",
+			tmp."ORDINAL_POSITION",
+			trim(both '"' from pg_catalog.pg_get_indexdef(tmp.ci_oid, tmp."ORDINAL_POSITION", false)) AS "COLUMN_NAME",
+			tmp."FILTER_CONDITION"
+		FROM (
+			SELECT n.nspname AS "TABLE_SCHEM", ct.relname AS "TABLE_NAME", NOT i.indisunique AS "NON_UNIQUE",
+				ci.relname AS "INDEX_NAME",
+				CASE i.indisclustered WHEN true THEN 1 ELSE CASE am.amname WHEN 'hash' THEN 2 ELSE 3 END END AS "TYPE",
+				(information_schema._pg_expandarray(i.indkey)).n AS "ORDINAL_POSITION",
+				pg_catalog.pg_get_expr(i.indpred, i.indrelid) AS "FILTER_CONDITION",
+				ci.oid AS ci_oid
+			FROM pg_catalog.pg_class ct
+			JOIN pg_catalog.pg_namespace n ON n.oid = ct.relnamespace
+			JOIN pg_catalog.pg_index i ON i.indrelid = ct.oid
+			JOIN pg_catalog.pg_class ci ON ci.oid = i.indexrelid
+			JOIN pg_catalog.pg_am am ON am.oid = ci.relam
+			WHERE ct.relkind IN ('r', 'p')
+				%s
+		) tmp
+		ORDER BY tmp."TABLE_SCHEM", tmp."TABLE_NAME", tmp."NON_UNIQUE", tmp."TYPE", tmp."INDEX_NAME",
+			tmp."ORDINAL_POSITION"
+		""";
+
+	private static final String PRIMARY_KEYS_QUERY = """
+		SELECT n.nspname AS "TABLE_SCHEM", ct.relname AS "TABLE_NAME", a.attname AS "COLUMN_NAME",
+			ci.relname AS "PK_NAME"
+		FROM pg_catalog.pg_index i
+		JOIN pg_catalog.pg_class ct ON ct.oid = i.indrelid
+		JOIN pg_catalog.pg_namespace n ON n.oid = ct.relnamespace
+		JOIN pg_catalog.pg_class ci ON ci.oid = i.indexrelid
+		JOIN pg_catalog.pg_attribute a ON a.attrelid = ct.oid AND a.attnum = ANY(i.indkey)
+		WHERE i.indisprimary
+			AND ct.relkind IN ('r', 'p')
+			%s
+		""";
+
+	private static final String FOREIGN_KEYS_QUERY = """
+		SELECT fkn.nspname AS "FKTABLE_SCHEM", fkc.relname AS "FKTABLE_NAME", pkc.relname AS "PKTABLE_NAME",
+			pka.attname AS "PKCOLUMN_NAME", fka.attname AS "FKCOLUMN_NAME", pos.n AS "KEY_SEQ",
+			con.conname AS "FK_NAME"
+		FROM pg_catalog.pg_constraint con
+		JOIN pg_catalog.pg_class fkc ON fkc.oid = con.conrelid
+		JOIN pg_catalog.pg_namespace fkn ON fkn.oid = fkc.relnamespace
+		JOIN pg_catalog.pg_class pkc ON pkc.oid = con.confrelid
+		JOIN pg_catalog.pg_namespace pkn ON pkn.oid = pkc.relnamespace
+		CROSS JOIN LATERAL pg_catalog.generate_subscripts(con.conkey, 1) AS pos(n)
+		JOIN pg_catalog.pg_attribute fka ON fka.attrelid = fkc.oid AND fka.attnum = con.conkey[pos.n]
+		JOIN pg_catalog.pg_attribute pka ON pka.attrelid = pkc.oid AND pka.attnum = con.confkey[pos.n]
+		WHERE con.contype = 'f'
+			AND fkc.relkind IN ('r', 'p')
+			%s
+		ORDER BY fkn.nspname, fkc.relname, pkn.nspname, pkc.relname, con.conname, pos.n
+		""";
+
+	/**
+	 * Creates a new catalog based model reader for Postgres databases.
+	 *
+	 * @param platform The platform that this model reader belongs to
+	 */
+	public CustomPostgresqlCatalogModelReader(
+		Platform platform,
+		PlatformTypeMapping typeTable
+	)
+	{
+		super(platform, typeTable);
+	}
+
+	@Override
+	public Database getDatabase(
+		Connection connection,
+		String name,
+		String catalog,
+		String schema,
+		String[] tableTypes
+	) throws SQLException
+	{
+		String modelName = name;
+
+		if (modelName == null) {
+			try {
+				modelName = connection.getCatalog();
+				if (catalog == null) {
+					catalog = modelName;
+				}
+			} catch (Exception ex) {
+				log.info("Cannot determine the catalog name from connection.", ex);
+			}
+		}
+
+		return assembleDatabase(modelName, readTables(connection, catalog, schema, null, null));
+	}
+
+	/**
+	 * Reads a fingerprint of the catalog rows describing each table, its columns, defaults, indices,
+	 * constraints and comments. Row versions ({@code xmin}) change with every DDL touching the table.
+	 * Tables with the same name in multiple schemas share one combined fingerprint.
+	 */
+	public Map<String, String> readTableFingerprints(Connection connection, String schemaPattern) throws SQLException
+	{
+		final String effectiveSchemaPattern = schemaPattern == null ? getDefaultSchemaPattern() : schemaPattern;
+		final Map<String, String> fingerprints = new LinkedHashMap<>();
+		try (PreparedStatement statement = prepare(connection, FINGERPRINTS_QUERY, "n", effectiveSchemaPattern);
+			 ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				fingerprints.merge(
+					resultSet.getString("TABLE_NAME"),
+					resultSet.getString("FINGERPRINT"),
+					(first, second) -> first + "," + second
+				);
+			}
+		}
+		return fingerprints;
+	}
+
+	/**
+	 * Reads the size of each table estimated from {@code pg_class.relpages}, which is updated by vacuum and
+	 * analyze. Sizes of tables with the same name in more schemas are summed up.
+	 */
+	public Map<String, Long> readTableSizes(Connection connection, String schemaPattern) throws SQLException
+	{
+		final String effectiveSchemaPattern = schemaPattern == null ? getDefaultSchemaPattern() : schemaPattern;
+		final Map<String, Long> sizes = new LinkedHashMap<>();
+		try (PreparedStatement statement = prepare(connection, TABLE_SIZES_QUERY, "n", effectiveSchemaPattern);
+			 ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				sizes.merge(resultSet.getString("TABLE_NAME"), resultSet.getLong("TABLE_SIZE"), Long::sum);
+			}
+		}
+		return sizes;
+	}
+
+	@Override
+	public Collection<Table> readTables(
+		Connection connection,
+		String schemaPattern,
+		Predicate<String> tableFilter
+	) throws SQLException
+	{
+		return readTables(connection, null, schemaPattern, tableFilter, null);
+	}
+
+	/**
+	 * Reads only the named tables, the names are passed to the catalog queries, so each partition of a parallel
+	 * read queries only the rows of its own tables. Only the columns are read for the whole schema.
+	 */
+	@Override
+	public Collection<Table> readNamedTables(
+		Connection connection,
+		String schemaPattern,
+		Collection<String> tableNames
+	) throws SQLException
+	{
+		return readTables(connection, null, schemaPattern, null, tableNames);
+	}
+
+	/**
+	 * Reads all tables of the schema accepted by the filter including their columns, primary keys,
+	 * foreign keys and indices. When the table names are given, only their rows are queried.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Table> readTables(
+		Connection connection,
+		String catalog,
+		String schemaPattern,
+		Predicate<String> tableFilter,
+		Collection<String> tableNames
+	) throws SQLException
+	{
+		DatabaseMetaDataWrapper metaData = new DatabaseMetaDataWrapper();
+		metaData.setMetaData(connection.getMetaData());
+		metaData.setCatalog(catalog == null ? getDefaultCatalogPattern() : catalog);
+		metaData.setSchemaPattern(schemaPattern == null ? getDefaultSchemaPattern() : schemaPattern);
+		metaData.setTableTypes(getDefaultTableTypes());
+
+		final String effectiveSchemaPattern = metaData.getSchemaPattern();
+		final Map<String, Table> tables = new LinkedHashMap<>();
+
+		try (PreparedStatement statement = prepare(connection, TABLES_QUERY, "n", effectiveSchemaPattern, "c", tableNames);
+			 ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				Map<String, Object> values = readColumns(resultSet, getColumnsForTable());
+				String tableName = (String) values.get("TABLE_NAME");
+				if (tableName == null || tableName.isEmpty()) {
+					continue;
+				}
+				if (tableFilter != null && !tableFilter.test(tableName)) {
+					continue;
+				}
+				Table table = new Table();
+				table.setName(tableName);
+				table.setType((String) values.get("TABLE_TYPE"));
+				table.setCatalog((String) values.get("TABLE_CAT"));
+				table.setSchema((String) values.get("TABLE_SCHEM"));
+				table.setDescription((String) values.get("REMARKS"));
+				tables.put(tableKey(table.getSchema(), tableName), table);
+			}
+		}
+
+		if (tables.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		// the driver matches the tables by a single pattern, so unless one table is named, the columns of the whole
+		// schema are read in one round-trip and the rows of other tables are skipped
+		final Set<String> readTableNames = new LinkedHashSet<>();
+		tables.values().forEach(table -> readTableNames.add(table.getName()));
+		final String tablePattern = readTableNames.size() == 1
+			? escapePattern(readTableNames.iterator().next(), connection.getMetaData().getSearchStringEscape())
+			: getDefaultTablePattern();
+		readTableColumns(metaData, tablePattern, tables);
+
+		final Map<String, Map<String, Object>> foreignKeys = new HashMap<>();
+		try (PreparedStatement statement = prepare(connection, FOREIGN_KEYS_QUERY, "fkn", effectiveSchemaPattern, "fkc", tableNames);
+			 ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				String key = tableKey(resultSet.getString("FKTABLE_SCHEM"), resultSet.getString("FKTABLE_NAME"));
+				if (tables.containsKey(key)) {
+					Map<String, Object> values = readColumns(resultSet, getColumnsForFK());
+					readForeignKey(metaData, values, foreignKeys.computeIfAbsent(key, it -> new ListOrderedMap()));
+				}
+			}
+		}
+
+		final Map<String, Map<String, Object>> indices = new HashMap<>();
+		try (PreparedStatement statement = prepare(connection, INDICES_QUERY, "n", effectiveSchemaPattern, "ct", tableNames);
+			 ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				String key = tableKey(resultSet.getString("TABLE_SCHEM"), resultSet.getString("TABLE_NAME"));
+				if (tables.containsKey(key)) {
+					Map<String, Object> values = readColumns(resultSet, getColumnsForIndex());
+					readIndex(metaData, values, indices.computeIfAbsent(key, it -> new ListOrderedMap()));
+				}
+			}
+		}
+
+		final Map<String, List<String>> primaryKeys = new HashMap<>();
+		try (PreparedStatement statement = prepare(connection, PRIMARY_KEYS_QUERY, "n", effectiveSchemaPattern, "ct", tableNames);
+			 ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				String key = tableKey(resultSet.getString("TABLE_SCHEM"), resultSet.getString("TABLE_NAME"));
+				if (tables.containsKey(key)) {
+					Map<String, Object> values = readColumns(resultSet, getColumnsForPK());
+					primaryKeys.computeIfAbsent(key, it -> new ArrayList<>()).add(readPrimaryKeyName(metaData, values));
+				}
+			}
+		}
+
+		final List<Table> result = new ArrayList<>(tables.size());
+		for (Map.Entry<String, Table> entry : tables.entrySet()) {
+			final Table table = entry.getValue();
+			if (foreignKeys.containsKey(entry.getKey())) {
+				table.addForeignKeys(foreignKeys.get(entry.getKey()).values());
+			}
+			if (indices.containsKey(entry.getKey())) {
+				table.addIndices(indices.get(entry.getKey()).values());
+			}
+			for (String primaryKeyName : primaryKeys.getOrDefault(entry.getKey(), List.of())) {
+				Column column = table.findColumn(primaryKeyName, true);
+				if (column != null) {
+					column.setPrimaryKey(true);
+				}
+			}
+			if (getPlatformInfo().isSystemIndicesReturned()) {
+				removeSystemIndices(metaData, table);
+			}
+			removeAutoIncrementUniqueIndices(table);
+			result.add(table);
+		}
+		return result;
+	}
+
+	/**
+	 * PostgreSQL also returns unique indices for non-pk auto-increment columns which are of the form
+	 * "[table]_[column]_key", same as in {@link org.apache.ddlutils.platform.postgresql.PostgreSqlModelReader}.
+	 */
+	private void removeAutoIncrementUniqueIndices(Table table)
+	{
+		Map<String, Index> uniquesByName = new HashMap<>();
+		for (Index index : table.getIndices()) {
+			if (index.isUnique() && (index.getName() != null)) {
+				uniquesByName.put(index.getName(), index);
+			}
+		}
+		for (Column column : table.getColumns()) {
+			if (column.isAutoIncrement() && !column.isPrimaryKey()) {
+				Index index = uniquesByName.remove(table.getName() + "_" + column.getName() + "_key");
+				if (index != null) {
+					table.removeIndex(index);
+				}
+			}
+		}
+	}
+
+	private void readTableColumns(DatabaseMetaDataWrapper metaData, String tablePattern, Map<String, Table> tables)
+		throws SQLException
+	{
+		try (ResultSet resultSet = metaData.getColumns(tablePattern, getDefaultColumnPattern())) {
+			while (resultSet.next()) {
+				Table table = tables.get(tableKey(resultSet.getString("TABLE_SCHEM"), resultSet.getString("TABLE_NAME")));
+				if (table != null) {
+					Map<String, Object> values = readColumns(resultSet, getColumnsForColumn());
+					table.addColumn(readColumn(metaData, values));
+				}
+			}
+		}
+	}
+
+	private PreparedStatement prepare(
+		Connection connection,
+		String query,
+		String namespaceAlias,
+		String schemaPattern
+	) throws SQLException
+	{
+		return prepare(connection, query, namespaceAlias, schemaPattern, null, null);
+	}
+
+	/**
+	 * @param tableNames when not null, the rows are restricted to the tables of the given names
+	 */
+	private PreparedStatement prepare(
+		Connection connection,
+		String query,
+		String namespaceAlias,
+		String schemaPattern,
+		String relationAlias,
+		Collection<String> tableNames
+	) throws SQLException
+	{
+		String condition = schemaPattern == null ? "" : "AND " + namespaceAlias + ".nspname LIKE ?";
+		if (tableNames != null) {
+			// cast to name[], so the condition can use the index of pg_class on relname
+			condition += " AND " + relationAlias + ".relname = ANY(CAST(? AS pg_catalog.name[]))";
+		}
+		PreparedStatement statement = connection.prepareStatement(String.format(query, condition));
+		int parameterIndex = 1;
+		if (schemaPattern != null) {
+			statement.setString(parameterIndex++, schemaPattern);
+		}
+		if (tableNames != null) {
+			statement.setArray(parameterIndex, connection.createArrayOf("text", tableNames.toArray()));
+		}
+		return statement;
+	}
+
+	private static String escapePattern(String name, String searchStringEscape)
+	{
+		if (searchStringEscape == null || searchStringEscape.isEmpty()) {
+			return name;
+		}
+		return name.replace(searchStringEscape, searchStringEscape + searchStringEscape)
+			.replace("_", searchStringEscape + "_")
+			.replace("%", searchStringEscape + "%");
+	}
+
+	private static String tableKey(String schema, String tableName)
+	{
+		return schema + "." + tableName;
+	}
+
+}
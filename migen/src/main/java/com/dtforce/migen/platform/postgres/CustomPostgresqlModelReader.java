@@ -18,6 +18,7 @@ package com.dtforce.migen.platform.postgres;
 
 import org.apache.ddlutils.Platform;
 import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
 import org.apache.ddlutils.model.Index;
 import org.apache.ddlutils.model.Table;
 import org.apache.ddlutils.platform.DatabaseMetaDataWrapper;
@@ -26,14 +27,20 @@ import org.apache.ddlutils.platform.postgresql.PostgreSqlModelReader;
 
 import com.dtforce.migen.ddl.FilterIndexDef;
 import com.dtforce.migen.ddl.RawTypedColumn;
+import com.dtforce.migen.platform.PartialModelRead;
 import com.dtforce.migen.platform.type.PlatformTypeMapping;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 
 public class CustomPostgresqlModelReader extends PostgreSqlModelReader
 {
@@ -42,8 +49,33 @@ public class CustomPostgresqlModelReader extends PostgreSqlModelReader
 
 	private static final String TYPE_NAME = "TYPE_NAME";
 
+	/**
+	 * Plain and partitioned tables, as reported by the JDBC driver.
+	 */
+	private static final String[] TABLE_TYPES = {"TABLE", "PARTITIONED TABLE"};
+
+	/**
+	 * Tables, which are not managed by the application, those owned by extensions and partitions, whose
+	 * definition comes from the partitioned table.
+	 */
+	private static final String UNMANAGED_TABLES_QUERY = """
+		SELECT n.nspname AS "TABLE_SCHEM", c.relname AS "TABLE_NAME"
+		FROM pg_catalog.pg_class c
+		JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace
+		WHERE c.relkind IN ('r', 'p')
+			AND (c.relispartition OR EXISTS (
+				SELECT 1 FROM pg_catalog.pg_depend dep
+				WHERE dep.classid = 'pg_catalog.pg_class'::regclass AND dep.objid = c.oid AND dep.deptype = 'e'
+			))
+			%s
+		""";
+
 	private final PlatformTypeMapping typeProcessors;
 
+	private final PartialModelRead partialRead = new PartialModelRead();
+
+	private Set<String> unmanagedTables;
+
 	/**
 	 * Creates a new model reader for Postgres databases.
 	 *
@@ -56,6 +88,107 @@ public class CustomPostgresqlModelReader extends PostgreSqlModelReader
 	{
 		super(platform);
 		this.typeProcessors = typeTable;
+		setDefaultTableTypes(TABLE_TYPES);
+	}
+
+	/**
+	 * Reads only the tables accepted by the filter. The foreign keys of the returned tables are not resolved,
+	 * so the tables of several partial reads can be merged with {@link #assembleDatabase(String, Collection)}.
+	 * <p>
+	 * The reader keeps state during the read, concurrent reads need separate reader instances.
+	 */
+	public Collection<Table> readTables(
+		Connection connection,
+		String schemaPattern,
+		Predicate<String> tableFilter
+	) throws SQLException
+	{
+		return partialRead.read(
+			tableFilter,
+			modelName -> getDatabase(connection, modelName, null, schemaPattern, null)
+		);
+	}
+
+	/**
+	 * Reads only the named tables, see {@link #readTables(Connection, String, Predicate)}.
+	 */
+	public Collection<Table> readNamedTables(
+		Connection connection,
+		String schemaPattern,
+		Collection<String> tableNames
+	) throws SQLException
+	{
+		final Set<String> names = new HashSet<>(tableNames);
+		return readTables(connection, schemaPattern, names::contains);
+	}
+
+	/**
+	 * Merges tables read by {@link #readTables(Connection, String, Predicate)} into one model, in the same
+	 * order as {@link #getDatabase(Connection, String, String, String, String[])} would.
+	 */
+	public Database assembleDatabase(String name, Collection<Table> tables)
+	{
+		return PartialModelRead.assemble(
+			name,
+			tables,
+			getPlatform().isForeignKeysSorted() ? this::sortForeignKeys : null
+		);
+	}
+
+	@Override
+	public Database getDatabase(
+		Connection connection,
+		String name,
+		String catalog,
+		String schema,
+		String[] tableTypes
+	) throws SQLException
+	{
+		unmanagedTables = readUnmanagedTables(connection, schema == null ? getDefaultSchemaPattern() : schema);
+		try {
+			return super.getDatabase(connection, name, catalog, schema, tableTypes);
+		} finally {
+			unmanagedTables = null;
+		}
+	}
+
+	private Set<String> readUnmanagedTables(Connection connection, String schemaPattern) throws SQLException
+	{
+		final Set<String> tables = new HashSet<>();
+		final String schemaCondition = schemaPattern == null ? "" : "AND n.nspname LIKE ?";
+		try (PreparedStatement statement = connection.prepareStatement(
+			String.format(UNMANAGED_TABLES_QUERY, schemaCondition)
+		)) {
+			if (schemaPattern != null) {
+				statement.setString(1, schemaPattern);
+			}
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					tables.add(resultSet.getString("TABLE_SCHEM") + "." + resultSet.getString("TABLE_NAME"));
+				}
+			}
+		}
+		return tables;
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	protected Collection readTables(String catalog, String schemaPattern, String[] tableTypes) throws SQLException
+	{
+		return partialRead.collect(super.readTables(catalog, schemaPattern, tableTypes));
+	}
+
+	@Override
+	protected Table readTable(DatabaseMetaDataWrapper metaData, Map values) throws SQLException
+	{
+		if (partialRead.isSkipped((String) values.get("TABLE_NAME"))) {
+			return null;
+		}
+		if (unmanagedTables != null && unmanagedTables.contains(values.get("TABLE_SCHEM") + "." + values.get("TABLE_NAME"))
+		) {
+			return null;
+		}
+		return super.readTable(metaData, values);
 	}
 
 	@Override
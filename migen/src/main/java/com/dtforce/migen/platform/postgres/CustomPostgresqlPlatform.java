@@ -19,26 +19,32 @@ package com.dtforce.migen.platform.postgres;
 import com.google.common.base.MoreObjects;
 import lombok.AccessLevel;
 import lombok.Getter;
-import org.apache.ddlutils.alteration.ModelChange;
+import org.apache.ddlutils.DatabaseOperationException;
 import org.apache.ddlutils.model.Database;
-import org.apache.ddlutils.platform.PlatformImplBase;
+import org.apache.ddlutils.model.Table;
 import org.apache.ddlutils.platform.postgresql.PostgreSqlPlatform;
 
-import com.dtforce.migen.ddl.CustomModelComparator;
+import com.dtforce.migen.ddl.IndexedModelComparator;
 import com.dtforce.migen.platform.MigenPlatform;
 import com.dtforce.migen.platform.MigenSqlBuilder;
 import com.dtforce.migen.platform.type.PlatformTypeMapping;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 public class CustomPostgresqlPlatform implements MigenPlatform
 {
 
+	private static final String[] TABLE_TYPES = {"TABLE", "PARTITIONED TABLE"};
+
 	@Getter(AccessLevel.PACKAGE)
-	private final PlatformImplBase wrappedPlatform;
+	private final DdlUtilsWrapper wrappedPlatform;
 
 	public static final PlatformTypeMapping DEFAULT_TYPE_MAPPING;
 
@@ -107,9 +113,18 @@ public class CustomPostgresqlPlatform implements MigenPlatform
 
 
 	public CustomPostgresqlPlatform(PlatformTypeMapping platformTypeMapping)
+	{
+		this(platformTypeMapping, ReaderMode.JDBC_METADATA);
+	}
+
+	/**
+	 * @param readerMode Selects how the live model is read from the database, see {@link ReaderMode}.
+	 */
+	public CustomPostgresqlPlatform(PlatformTypeMapping platformTypeMapping, ReaderMode readerMode)
 	{
 		wrappedPlatform = new DdlUtilsWrapper(
 			MoreObjects.firstNonNull(platformTypeMapping, DEFAULT_TYPE_MAPPING),
+			readerMode,
 			this
 		);
 	}
@@ -132,24 +147,113 @@ public class CustomPostgresqlPlatform implements MigenPlatform
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
-	public List<ModelChange> diff(Database currentModel, Database desiredModel, Predicate<ModelChange> predicate) {
-		CustomModelComparator comparator = new CustomModelComparator(
-			wrappedPlatform.getPlatformInfo(),
-			false
-		);
-		List<ModelChange> changes = comparator.compare(currentModel, desiredModel);
-		changes = changes.stream().filter(predicate).collect(Collectors.toList());
-		return changes;
+	public List<String> readTableNames(Connection connection, String schemaPattern)
+	{
+		final List<String> tableNames = new ArrayList<>();
+		try (ResultSet resultSet = connection.getMetaData().getTables(null, schemaPattern, "%", TABLE_TYPES)) {
+			while (resultSet.next()) {
+				tableNames.add(resultSet.getString("TABLE_NAME"));
+			}
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+		return tableNames;
+	}
+
+	@Override
+	public Collection<Table> readTables(Connection connection, String schemaPattern, Predicate<String> tableFilter)
+	{
+		try {
+			return wrappedPlatform.createModelReader().readTables(connection, schemaPattern, tableFilter);
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+	}
+
+	@Override
+	public Collection<Table> readNamedTables(Connection connection, String schemaPattern, Collection<String> tableNames)
+	{
+		try {
+			return wrappedPlatform.createModelReader().readNamedTables(connection, schemaPattern, tableNames);
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+	}
+
+	@Override
+	public Map<String, String> readTableFingerprints(Connection connection, String schemaPattern)
+	{
+		try {
+			return wrappedPlatform.createCatalogModelReader().readTableFingerprints(connection, schemaPattern);
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
 	}
 
-	private static class DdlUtilsWrapper extends PostgreSqlPlatform
+	@Override
+	public Map<String, Long> readTableSizes(Connection connection, String schemaPattern)
 	{
+		try {
+			return wrappedPlatform.createCatalogModelReader().readTableSizes(connection, schemaPattern);
+		} catch (SQLException ex) {
+			throw new DatabaseOperationException(ex);
+		}
+	}
 
-		private DdlUtilsWrapper(PlatformTypeMapping platformTypeMapping, CustomPostgresqlPlatform platform)
+	@Override
+	public Database assembleModel(String name, Collection<Table> tables)
+	{
+		return wrappedPlatform.createModelReader().assembleDatabase(name, tables);
+	}
+
+	@Override
+	public IndexedModelComparator createModelComparator()
+	{
+		return new IndexedModelComparator(wrappedPlatform.getPlatformInfo(), false);
+	}
+
+	@Override
+	public PlatformTypeMapping getPlatformTypeMapping()
+	{
+		return wrappedPlatform.platformTypeMapping;
+	}
+
+	@Override
+	public String getModelReaderOptions()
+	{
+		return wrappedPlatform.readerMode.name();
+	}
+
+	public enum ReaderMode
+	{
+		/**
+		 * Reads the model using {@link java.sql.DatabaseMetaData}, which issues several round-trips per table.
+		 */
+		JDBC_METADATA,
+
+		/**
+		 * Reads the whole model in a handful of set based queries against {@code pg_catalog}.
+		 */
+		CATALOG
+	}
+
+	static class DdlUtilsWrapper extends PostgreSqlPlatform
+	{
+
+		private final PlatformTypeMapping platformTypeMapping;
+
+		private final ReaderMode readerMode;
+
+		private DdlUtilsWrapper(
+			PlatformTypeMapping platformTypeMapping,
+			ReaderMode readerMode,
+			CustomPostgresqlPlatform platform
+		)
 		{
 			super();
-			setModelReader(new CustomPostgresqlModelReader(this, platformTypeMapping));
+			this.platformTypeMapping = platformTypeMapping;
+			this.readerMode = readerMode;
+			setModelReader(createModelReader());
 			getPlatformInfo().setMaxIdentifierLength(63);
 			getPlatformInfo().addNativeTypeMapping(2003, "BYTEA", 2003);
 
@@ -157,6 +261,23 @@ public class CustomPostgresqlPlatform implements MigenPlatform
 			setSqlBuilder(builder);
 			setDelimitedIdentifierModeOn(true);
 		}
+
+		/**
+		 * Creates a new model reader, model readers are not thread safe.
+		 */
+		private CustomPostgresqlModelReader createModelReader()
+		{
+			if (readerMode == ReaderMode.CATALOG) {
+				return createCatalogModelReader();
+			} else {
+				return new CustomPostgresqlModelReader(this, platformTypeMapping);
+			}
+		}
+
+		private CustomPostgresqlCatalogModelReader createCatalogModelReader()
+		{
+			return new CustomPostgresqlCatalogModelReader(this, platformTypeMapping);
+		}
 	}
 
 }
@@ -0,0 +1,155 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.platform.postgres;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tells, whether {@code ALTER COLUMN ... TYPE} between two Postgres types rewrites the table, or whether the types
+ * are binary coercible and only the catalog changes. Unknown transitions are considered rewriting.
+ */
+public final class TypeRewriteClassifier
+{
+
+	/**
+	 * Matches a type with its whitespace collapsed: the name of one or more words, optional precision and scale,
+	 * words following them, such as in {@code timestamp(3) with time zone}, and array dimensions.
+	 */
+	private static final Pattern TYPE_PATTERN = Pattern.compile(
+		"^([a-z][a-z0-9_]*(?: [a-z][a-z0-9_]*)*)(?: ?\\( ?(\\d+) ?(?:, ?(\\d+) ?)?\\))?((?: [a-z]+)*)((?: ?\\[\\d*])*)$"
+	);
+
+	private static final Map<String, String> ALIASES = Map.ofEntries(
+		Map.entry("character varying", "varchar"),
+		Map.entry("character", "char"),
+		Map.entry("bpchar", "char"),
+		Map.entry("decimal", "numeric"),
+		Map.entry("int", "integer"),
+		Map.entry("int4", "integer"),
+		Map.entry("int8", "bigint"),
+		Map.entry("int2", "smallint"),
+		Map.entry("bool", "boolean"),
+		Map.entry("float8", "double precision"),
+		Map.entry("float4", "real"),
+		Map.entry("timestamptz", "timestamp with time zone"),
+		Map.entry("timetz", "time with time zone")
+	);
+
+	private TypeRewriteClassifier()
+	{
+	}
+
+	public static boolean requiresRewrite(String sourceType, String targetType)
+	{
+		final SqlType source = SqlType.parse(sourceType);
+		final SqlType target = SqlType.parse(targetType);
+		if (source == null || target == null || source.arrayDimensions != target.arrayDimensions) {
+			return true;
+		}
+		if (source.equals(target)) {
+			return false;
+		}
+		switch (source.name) {
+			case "varchar":
+				// any length increase, dropping the length or switching to text only changes the catalog
+				if (target.name.equals("text")) {
+					return false;
+				}
+				return !target.name.equals("varchar") || !isWidened(source.length, target.length);
+			case "text":
+				return !(target.name.equals("varchar") && target.length == null);
+			case "numeric":
+				if (!target.name.equals("numeric")) {
+					return true;
+				}
+				if (target.length == null) {
+					return false;
+				}
+				// precision may grow, the scale has to stay
+				return source.length == null || target.length < source.length ||
+					!Objects.equals(source.scale, target.scale);
+			case "timestamp", "timestamp with time zone", "time", "time with time zone", "interval":
+				return !target.name.equals(source.name) || !isWidened(source.length, target.length);
+			case "varbit", "bit varying":
+				return !target.name.equals(source.name) || !isWidened(source.length, target.length);
+			default:
+				return true;
+		}
+	}
+
+	/**
+	 * Tells whether the base types differ, so the values have to be converted by an explicit cast.
+	 */
+	public static boolean requiresCast(String sourceType, String targetType)
+	{
+		final SqlType source = SqlType.parse(sourceType);
+		final SqlType target = SqlType.parse(targetType);
+		if (source == null || target == null) {
+			return true;
+		}
+		if (source.arrayDimensions != target.arrayDimensions) {
+			return true;
+		}
+		return !source.name.equals(target.name) && !(isCharacterType(source.name) && isCharacterType(target.name));
+	}
+
+	private static boolean isCharacterType(String name)
+	{
+		return name.equals("varchar") || name.equals("text") || name.equals("char");
+	}
+
+	/**
+	 * Missing length means unlimited, or the maximal precision for temporal types.
+	 */
+	private static boolean isWidened(Integer sourceLength, Integer targetLength)
+	{
+		return targetLength == null || (sourceLength != null && targetLength >= sourceLength);
+	}
+
+	private record SqlType(String name, Integer length, Integer scale, int arrayDimensions)
+	{
+
+		static SqlType parse(String type)
+		{
+			if (type == null) {
+				return null;
+			}
+			final String normalized = type.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+			final Matcher matcher = TYPE_PATTERN.matcher(normalized);
+			if (!matcher.matches()) {
+				return null;
+			}
+			// e.g. TIMESTAMP(6) WITH TIME ZONE
+			String name = matcher.group(1) + matcher.group(4);
+			name = ALIASES.getOrDefault(name, name);
+			// Postgres ignores the declared array sizes, only the dimensions count
+			final int arrayDimensions = matcher.group(5).length() - matcher.group(5).replace("[", "").length();
+			return new SqlType(
+				name,
+				matcher.group(2) == null ? null : Integer.valueOf(matcher.group(2)),
+				matcher.group(3) == null ? null : Integer.valueOf(matcher.group(3)),
+				arrayDimensions
+			);
+		}
+
+	}
+
+}
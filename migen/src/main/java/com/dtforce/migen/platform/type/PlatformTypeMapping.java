@@ -20,16 +20,34 @@ import com.dtforce.migen.ddl.RawTypedColumn;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Maps database types to the complete types used to compare columns. The general processors run in the order
+ * they were added, the last one passes the type to the processor registered for it.
+ * <p>
+ * The processors are compiled into a pipeline on first use and the outcome is cached per database type,
+ * type code, size and scale. Processors depending on anything else have to disable the cache by
+ * {@link #withResultCache(boolean)}. Configuring the mapping drops the compiled pipeline and the cache,
+ * it must not happen concurrently with mapping.
+ */
 public class PlatformTypeMapping {
 
 	private final Map<String, Processor> processors;
 
 	private final List<GlobalProcessor> generalProcessors;
 
+	private final Map<MappingKey, MappedType> resultCache = new ConcurrentHashMap<>();
+
+	private boolean resultCacheEnabled = true;
+
+	private volatile GlobalProcessorChain pipeline;
+
 	public PlatformTypeMapping()
 	{
 		processors = new HashMap<>();
@@ -41,43 +59,169 @@ public class PlatformTypeMapping {
 	}
 
 	public RawTypedColumn map(String dbType, RawTypedColumn column) {
-		ProcessorChain processorChain = new ProcessorChain(processors, generalProcessors.listIterator());
-		return processorChain.map(dbType, column);
+		final GlobalProcessorChain compiledPipeline = compiledPipeline();
+		if (!resultCacheEnabled) {
+			return compiledPipeline.map(dbType, column);
+		}
+
+		final MappingKey key = new MappingKey(dbType, column.getTypeCode(), column.getSize(), column.getScale());
+		final MappedType mappedType = resultCache.get(key);
+		if (mappedType != null) {
+			mappedType.applyTo(column);
+			return column;
+		}
+
+		final RawTypedColumn result = compiledPipeline.map(dbType, column);
+		if (result == column) {
+			// a processor returning another column cannot be replayed on the next one
+			resultCache.put(key, MappedType.of(result));
+		}
+		return result;
+	}
+
+	/**
+	 * Compiles the processors into a pipeline ahead of the first mapping.
+	 */
+	public PlatformTypeMapping compile()
+	{
+		compiledPipeline();
+		return this;
 	}
 
 	public PlatformTypeMapping withMapping(String type, Processor processor) {
 		processors.put(type, processor);
+		invalidate();
 		return this;
 	}
 
 	public PlatformTypeMapping withGeneralProcessor(GlobalProcessor processor) {
 		generalProcessors.add(processor);
+		invalidate();
+		return this;
+	}
+
+	/**
+	 * Enables caching of the mapped types, enabled by default.
+	 */
+	public PlatformTypeMapping withResultCache(boolean enabled) {
+		resultCacheEnabled = enabled;
+		invalidate();
 		return this;
 	}
+
+	/**
+	 * Returns the database types with a registered processor.
+	 */
+	public Set<String> getMappedTypes()
+	{
+		return new TreeSet<>(processors.keySet());
+	}
+
+	/**
+	 * Returns the classes of all processors, general ones first, then the registered ones ordered by type.
+	 */
+	public List<Class<?>> getProcessorClasses()
+	{
+		final List<Class<?>> processorClasses = new ArrayList<>();
+		for (GlobalProcessor processor : generalProcessors) {
+			processorClasses.add(processor.getClass());
+		}
+		for (String type : getMappedTypes()) {
+			processorClasses.add(processors.get(type).getClass());
+		}
+		return processorClasses;
+	}
+
+	private GlobalProcessorChain compiledPipeline()
+	{
+		GlobalProcessorChain compiledPipeline = pipeline;
+		if (compiledPipeline == null) {
+			synchronized (this) {
+				compiledPipeline = pipeline;
+				if (compiledPipeline == null) {
+					compiledPipeline = new ProcessorLookup(new HashMap<>(processors));
+					for (int idx = generalProcessors.size() - 1; idx >= 0; idx--) {
+						compiledPipeline = new ProcessorChain(generalProcessors.get(idx), compiledPipeline);
+					}
+					pipeline = compiledPipeline;
+				}
+			}
+		}
+		return compiledPipeline;
+	}
+
+	private void invalidate()
+	{
+		pipeline = null;
+		resultCache.clear();
+	}
+
+	private record MappingKey(String dbType, int typeCode, String size, int scale)
+	{
+	}
+
+	private record MappedType(String rawCompleteType, int typeCode, String size, int scale)
+	{
+
+		static MappedType of(RawTypedColumn column)
+		{
+			return new MappedType(column.getRawCompleteType(), column.getTypeCode(), column.getSize(), column.getScale());
+		}
+
+		void applyTo(RawTypedColumn column)
+		{
+			if (column.getTypeCode() != typeCode) {
+				column.setTypeCode(typeCode);
+			}
+			if (!Objects.equals(column.getSize(), size)) {
+				column.setSize(size);
+			}
+			if (column.getScale() != scale) {
+				column.setScale(scale);
+			}
+			column.setRawCompleteType(rawCompleteType);
+		}
+	}
 }
 
+/**
+ * Stage of the compiled pipeline, passing the type to the next stage is up to the processor.
+ */
 class ProcessorChain implements GlobalProcessorChain
 {
-	private final Map<String, Processor> processors;
+	private final GlobalProcessor processor;
 
-	private final Iterator<GlobalProcessor> leftProcessors;
+	private final GlobalProcessorChain next;
 
-	ProcessorChain(final Map<String, Processor> processors, final Iterator<GlobalProcessor> leftProcessors)
+	ProcessorChain(final GlobalProcessor processor, final GlobalProcessorChain next)
+	{
+		this.processor = processor;
+		this.next = next;
+	}
+
+	@Override
+	public RawTypedColumn map(final String dbType, RawTypedColumn column)
+	{
+		return processor.map(dbType, next, column);
+	}
+}
+
+/**
+ * Last stage of the compiled pipeline, applies the processor registered for the type.
+ */
+class ProcessorLookup implements GlobalProcessorChain
+{
+	private final Map<String, Processor> processors;
+
+	ProcessorLookup(final Map<String, Processor> processors)
 	{
 		this.processors = processors;
-		this.leftProcessors = leftProcessors;
 	}
 
 	@Override
 	public RawTypedColumn map(final String dbType, RawTypedColumn column)
 	{
-		if (!leftProcessors.hasNext()) {
-			if (processors.containsKey(dbType)) {
-				column = processors.get(dbType).map(column);
-			}
-		} else {
-			column = leftProcessors.next().map(dbType, new ProcessorChain(processors, leftProcessors), column);
-		}
-		return column;
+		final Processor processor = processors.get(dbType);
+		return processor != null ? processor.map(column) : column;
 	}
 }
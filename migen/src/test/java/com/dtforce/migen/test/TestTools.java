@@ -16,15 +16,53 @@
 
 package com.dtforce.migen.test;
 
+import org.apache.ddlutils.alteration.AddColumnChange;
+import org.apache.ddlutils.alteration.AddForeignKeyChange;
+import org.apache.ddlutils.alteration.AddIndexChange;
+import org.apache.ddlutils.alteration.AddPrimaryKeyChange;
 import org.apache.ddlutils.alteration.AddTableChange;
+import org.apache.ddlutils.alteration.ColumnChange;
+import org.apache.ddlutils.alteration.ColumnDataTypeChange;
+import org.apache.ddlutils.alteration.ColumnDefaultValueChange;
+import org.apache.ddlutils.alteration.ColumnSizeChange;
 import org.apache.ddlutils.alteration.ModelChange;
+import org.apache.ddlutils.alteration.PrimaryKeyChange;
+import org.apache.ddlutils.alteration.RemoveColumnChange;
+import org.apache.ddlutils.alteration.RemoveForeignKeyChange;
+import org.apache.ddlutils.alteration.RemoveIndexChange;
+import org.apache.ddlutils.alteration.RemovePrimaryKeyChange;
+import org.apache.ddlutils.alteration.TableChange;
+import org.apache.ddlutils.platform.postgresql.PostgreSqlPlatform;
 import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
 import org.apache.ddlutils.model.Table;
 
+import com.dtforce.migen.MigrationGenerator;
+import com.dtforce.migen.adapter.MetadataAdapter;
+import com.dtforce.migen.ddl.ColumnDescriptionChanged;
+import com.dtforce.migen.ddl.ColumnRawTypeChanged;
+import com.dtforce.migen.ddl.CustomModelComparator;
+import com.dtforce.migen.ddl.IndexedModelComparator;
+import com.dtforce.migen.ddl.TableDescriptionChanged;
+import com.dtforce.migen.platform.MigenPlatform;
+import com.dtforce.migen.platform.MigenSqlBuilder;
+import com.dtforce.migen.platform.SqlPatchOptions;
+import com.dtforce.migen.platform.postgres.CustomPostgresqlPlatform;
+
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 public class TestTools {
 
@@ -45,4 +83,234 @@ public class TestTools {
 		return columns;
 	}
 
+	/**
+	 * Creates a required column, VARCHAR columns are 36 characters long.
+	 */
+	public static Column column(String name, int typeCode, boolean primaryKey)
+	{
+		final Column column = new Column();
+		column.setName(name);
+		column.setTypeCode(typeCode);
+		if (typeCode == Types.VARCHAR) {
+			column.setSize("36");
+		}
+		column.setPrimaryKey(primaryKey);
+		column.setRequired(true);
+		return column;
+	}
+
+	/**
+	 * Creates a model of a single table with the given columns.
+	 */
+	public static Database tableModel(String tableName, Column... columns)
+	{
+		final Table table = new Table();
+		table.setName(tableName);
+		for (Column column : columns) {
+			table.addColumn(column);
+		}
+		final Database model = new Database();
+		model.addTable(table);
+		return model;
+	}
+
+	/**
+	 * Writes the patch from the current to the desired model into a single script, as the migration generator
+	 * does without a non-transactional writer.
+	 */
+	public static String writeSqlPatch(
+		MigenPlatform platform,
+		Database currentModel,
+		Database desiredModel,
+		SqlPatchOptions patchOptions
+	)
+	{
+		final StringWriter writer = new StringWriter();
+		final MigenSqlBuilder sqlBuilder = platform.getSqlBuilder();
+		sqlBuilder.setWriter(writer);
+		sqlBuilder.setNonTransactionalWriter(null);
+		sqlBuilder.setPatchOptions(patchOptions);
+		sqlBuilder.writeSqlPatch(currentModel, desiredModel, platform.diff(currentModel, desiredModel, it -> true));
+		return writer.toString();
+	}
+
+	/**
+	 * Reads the live model with both Postgres reader modes and asserts they are identical.
+	 */
+	public static void assertCatalogModelReaderIdentical(DataSource dataSource) throws SQLException
+	{
+		final var jdbcPlatform = new CustomPostgresqlPlatform(null, CustomPostgresqlPlatform.ReaderMode.JDBC_METADATA);
+		final var catalogPlatform = new CustomPostgresqlPlatform(null, CustomPostgresqlPlatform.ReaderMode.CATALOG);
+
+		try (Connection connection = dataSource.getConnection()) {
+			final Database expected = jdbcPlatform.readModelFromDatabase(connection, null, null);
+			final Database actual = catalogPlatform.readModelFromDatabase(connection, null, null);
+
+			assertThat(actual.getName()).isEqualTo(expected.getName());
+			assertThat(actual.getTableCount()).isPositive().isEqualTo(expected.getTableCount());
+			for (int idx = 0; idx < expected.getTableCount(); idx++) {
+				assertThat(actual.getTable(idx).toVerboseString()).isEqualTo(expected.getTable(idx).toVerboseString());
+				assertThat(actual.getTable(idx)).isEqualTo(expected.getTable(idx));
+			}
+			assertThat(actual).isEqualTo(expected);
+		}
+	}
+
+	/**
+	 * Reads the live model in two disjoint partitions and asserts the assembled model equals the one read at once.
+	 */
+	public static void assertPartitionedReadIdentical(DataSource dataSource) throws SQLException
+	{
+		for (CustomPostgresqlPlatform.ReaderMode readerMode : CustomPostgresqlPlatform.ReaderMode.values()) {
+			final var platform = new CustomPostgresqlPlatform(null, readerMode);
+
+			try (Connection connection = dataSource.getConnection()) {
+				final Database expected = platform.readModelFromDatabase(connection, null, null);
+				final List<String> tableNames = platform.readTableNames(connection, null);
+				final List<String> firstHalf = tableNames.subList(0, tableNames.size() / 2);
+
+				final List<Table> tables = new ArrayList<>();
+				tables.addAll(platform.readTables(connection, null, firstHalf::contains));
+				tables.addAll(platform.readTables(connection, null, name -> !firstHalf.contains(name)));
+				final Database actual = platform.assembleModel(connection.getCatalog(), tables);
+
+				assertThat(actual.getTableCount()).isPositive().isEqualTo(expected.getTableCount());
+				assertThat(actual).isEqualTo(expected);
+
+				final List<Table> namedTables = new ArrayList<>();
+				final List<String> secondHalf = tableNames.subList(firstHalf.size(), tableNames.size());
+				namedTables.addAll(platform.readNamedTables(connection, null, firstHalf));
+				namedTables.addAll(platform.readNamedTables(connection, null, secondHalf));
+				assertThat(platform.assembleModel(connection.getCatalog(), namedTables)).isEqualTo(expected);
+			}
+		}
+	}
+
+	/**
+	 * Generates the migration with the live model read over several connections at once and asserts it is the same
+	 * as the one generated from the model read sequentially.
+	 */
+	public static void assertParallelIntrospectionIdentical(DataSource dataSource, MetadataAdapter metadataAdapter)
+	{
+		for (CustomPostgresqlPlatform.ReaderMode readerMode : CustomPostgresqlPlatform.ReaderMode.values()) {
+			final var platform = new CustomPostgresqlPlatform(null, readerMode);
+			final List<String> expected = describeChanges(
+				new MigrationGenerator(metadataAdapter, dataSource, platform).generateMigrationChanges(it -> true)
+			);
+			final List<String> actual = describeChanges(
+				new MigrationGenerator(metadataAdapter, dataSource, platform)
+					.withIntrospectionParallelism(3)
+					.generateMigrationChanges(it -> true)
+			);
+			assertThat(actual).isEqualTo(expected);
+		}
+	}
+
+	/**
+	 * Compares the live and the desired model in both directions and asserts the indexed comparator produces
+	 * the same changes as the scanning one, both sequentially and in a fork-join pool.
+	 */
+	public static void assertIndexedComparatorIdentical(DataSource dataSource, MetadataAdapter metadataAdapter)
+		throws SQLException
+	{
+		final var platform = new CustomPostgresqlPlatform(null);
+		final var platformInfo = new PostgreSqlPlatform().getPlatformInfo();
+
+		try (Connection connection = dataSource.getConnection()) {
+			final Database liveModel = platform.readModelFromDatabase(connection, null, null);
+			final Database desiredModel = metadataAdapter.getSchemaDatabase();
+			for (Database[] models : List.of(
+				new Database[]{liveModel, desiredModel},
+				new Database[]{desiredModel, liveModel},
+				new Database[]{new Database(), desiredModel}
+			)) {
+				for (boolean caseSensitive : new boolean[]{false, true}) {
+					final List<String> expected = describeChanges(
+						new CustomModelComparator(platformInfo, caseSensitive).compare(models[0], models[1])
+					);
+					final List<String> actual = describeChanges(
+						new IndexedModelComparator(platformInfo, caseSensitive).compare(models[0], models[1])
+					);
+					assertThat(actual).isEqualTo(expected);
+
+					final ForkJoinPool pool = new ForkJoinPool(4);
+					try {
+						final List<String> parallel = describeChanges(
+							new IndexedModelComparator(platformInfo, caseSensitive)
+								.withPool(pool)
+								.compare(models[0], models[1])
+						);
+						assertThat(parallel).isEqualTo(expected);
+					} finally {
+						pool.shutdown();
+					}
+				}
+			}
+		}
+	}
+
+	private static List<String> describeChanges(List<?> changes)
+	{
+		return changes.stream()
+			.map(TestTools::describeChange)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Describes the change including the objects it adds, removes or alters, so two changes of the same kind on
+	 * the same table are only equal when they carry the same definitions.
+	 */
+	private static String describeChange(Object change)
+	{
+		final StringBuilder description = new StringBuilder(change.getClass().getSimpleName());
+		if (change instanceof TableChange tableChange) {
+			description.append(' ').append(tableChange.getChangedTable().getName());
+		}
+		if (change instanceof AddTableChange addTableChange) {
+			description.append(' ').append(addTableChange.getNewTable().toVerboseString());
+		} else if (change instanceof AddColumnChange addColumnChange) {
+			description.append(' ').append(addColumnChange.getNewColumn().toVerboseString())
+				.append(" atEnd=").append(addColumnChange.isAtEnd());
+		} else if (change instanceof RemoveColumnChange removeColumnChange) {
+			description.append(' ').append(removeColumnChange.getColumn().getName());
+		} else if (change instanceof ColumnChange columnChange) {
+			description.append(' ').append(columnChange.getChangedColumn().toVerboseString());
+			if (change instanceof ColumnRawTypeChanged rawTypeChange) {
+				description.append(" newType=").append(rawTypeChange.getRawType());
+			} else if (change instanceof ColumnDataTypeChange dataTypeChange) {
+				description.append(" newType=").append(dataTypeChange.getNewTypeCode());
+			} else if (change instanceof ColumnSizeChange sizeChange) {
+				description.append(" newSize=").append(sizeChange.getNewSize())
+					.append(',').append(sizeChange.getNewScale());
+			} else if (change instanceof ColumnDefaultValueChange defaultValueChange) {
+				description.append(" newDefault=").append(defaultValueChange.getNewDefaultValue());
+			} else if (change instanceof ColumnDescriptionChanged descriptionChange) {
+				description.append(" newDescription=").append(descriptionChange.getDescription());
+			}
+		} else if (change instanceof AddForeignKeyChange addForeignKeyChange) {
+			description.append(' ').append(addForeignKeyChange.getNewForeignKey().toVerboseString());
+		} else if (change instanceof RemoveForeignKeyChange removeForeignKeyChange) {
+			description.append(' ').append(removeForeignKeyChange.getForeignKey().toVerboseString());
+		} else if (change instanceof AddIndexChange addIndexChange) {
+			description.append(' ').append(addIndexChange.getNewIndex().toVerboseString());
+		} else if (change instanceof RemoveIndexChange removeIndexChange) {
+			description.append(' ').append(removeIndexChange.getIndex().toVerboseString());
+		} else if (change instanceof AddPrimaryKeyChange addPrimaryKeyChange) {
+			description.append(' ').append(columnNames(addPrimaryKeyChange.getPrimaryKeyColumns()));
+		} else if (change instanceof RemovePrimaryKeyChange removePrimaryKeyChange) {
+			description.append(' ').append(columnNames(removePrimaryKeyChange.getPrimaryKeyColumns()));
+		} else if (change instanceof PrimaryKeyChange primaryKeyChange) {
+			description.append(' ').append(columnNames(primaryKeyChange.getOldPrimaryKeyColumns()))
+				.append(" -> ").append(columnNames(primaryKeyChange.getNewPrimaryKeyColumns()));
+		} else if (change instanceof TableDescriptionChanged descriptionChange) {
+			description.append(" newDescription=").append(descriptionChange.getDescription());
+		}
+		return description.toString();
+	}
+
+	private static List<String> columnNames(Column[] columns)
+	{
+		return Arrays.stream(columns).map(Column::getName).collect(Collectors.toList());
+	}
+
 }
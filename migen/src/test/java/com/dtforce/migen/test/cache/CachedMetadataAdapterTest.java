@@ -0,0 +1,159 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.test.cache;
+
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.dialect.H2Dialect;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.dtforce.migen.adapter.MetadataAdapter;
+import com.dtforce.migen.cache.CachedMetadataAdapter;
+import com.dtforce.migen.intergrations.standalone.StandaloneMigrationGenerator;
+import com.dtforce.migen.platform.postgres.CustomPostgresqlPlatform;
+import com.dtforce.migen.test.mock1.entities.Contract;
+import com.dtforce.migen.test.mock1.entities.ContractProperty;
+import com.dtforce.migen.test.mock1.entities.ContractType;
+import com.dtforce.migen.test.mock1.entities.ContractTypeProperty;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CachedMetadataAdapterTest
+{
+
+	private static final Class<?>[] ENTITIES = {
+		Contract.class, ContractProperty.class, ContractType.class, ContractTypeProperty.class
+	};
+
+	@TempDir
+	Path tempDir;
+
+	private final AtomicInteger delegateCalls = new AtomicInteger();
+
+	@Test
+	public void testCacheHitSkipsDelegate() throws Exception
+	{
+		final Path cachePath = tempDir.resolve("desired-model.bin");
+		final Path dokkaJson = Files.writeString(tempDir.resolve("dokka.json"), "{}");
+
+		final Database first = adapter(cachePath, "validate", dokkaJson).getSchemaDatabase();
+		assertThat(delegateCalls).hasValue(1);
+		assertThat(cachePath).exists();
+
+		final Database second = adapter(cachePath, "validate", dokkaJson).getSchemaDatabase();
+		assertThat(delegateCalls).hasValue(1);
+		assertThat(second.findTable("contract").findColumn("id").getTypeCode()).isEqualTo(Types.BIGINT);
+		assertThat(second.getTableCount()).isEqualTo(first.getTableCount());
+
+		adapter(cachePath, "none", dokkaJson).getSchemaDatabase();
+		assertThat(delegateCalls).hasValue(2);
+
+		Files.writeString(dokkaJson, "{\"comment\": \"changed\"}");
+		adapter(cachePath, "none", dokkaJson).getSchemaDatabase();
+		assertThat(delegateCalls).hasValue(3);
+	}
+
+	@Test
+	public void testUnreadableCacheIgnored() throws Exception
+	{
+		final Path cachePath = Files.writeString(tempDir.resolve("desired-model.bin"), "garbage");
+
+		assertThat(adapter(cachePath, "validate", cachePath.resolveSibling("missing")).getSchemaDatabase()).isNotNull();
+		assertThat(delegateCalls).hasValue(1);
+	}
+
+	@Test
+	public void testHibernateModelRoundTrip()
+	{
+		final Path cachePath = tempDir.resolve("hibernate-model.bin");
+		final JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:cache-round-trip");
+
+		try (StandaloneMigrationGenerator bootstrap = new StandaloneMigrationGenerator()
+			.withAnnotatedClasses(ENTITIES)
+			.withDialect(H2Dialect.class.getName())) {
+			final Supplier<MetadataAdapter> hibernateDelegate = () -> {
+				delegateCalls.incrementAndGet();
+				return bootstrap.createMetadataAdapter(dataSource);
+			};
+
+			final Database expected = new CachedMetadataAdapter(cachePath, hibernateDelegate)
+				.withClasses(List.of(ENTITIES))
+				.getSchemaDatabase();
+			final Database actual = new CachedMetadataAdapter(cachePath, hibernateDelegate)
+				.withClasses(List.of(ENTITIES))
+				.getSchemaDatabase();
+
+			assertThat(delegateCalls).hasValue(1);
+			assertThat(actual).isNotSameAs(expected);
+			assertThat(actual.getTableCount()).isPositive().isEqualTo(expected.getTableCount());
+			for (int idx = 0; idx < expected.getTableCount(); idx++) {
+				assertThat(actual.getTable(idx).toVerboseString()).isEqualTo(expected.getTable(idx).toVerboseString());
+				for (int columnIdx = 0; columnIdx < expected.getTable(idx).getColumnCount(); columnIdx++) {
+					assertThat(actual.getTable(idx).getColumn(columnIdx))
+						.isExactlyInstanceOf(expected.getTable(idx).getColumn(columnIdx).getClass());
+				}
+			}
+			assertThat(actual).isEqualTo(expected);
+		}
+	}
+
+	private CachedMetadataAdapter adapter(Path cachePath, String ddlAuto, Path dokkaJson)
+	{
+		final CachedMetadataAdapter adapter = new CachedMetadataAdapter(cachePath, this::countingDelegate)
+			.withClasses(List.of(Contract.class, ContractType.class))
+			.withSettings(Map.of("hibernate.hbm2ddl.auto", ddlAuto))
+			.withTypeMapping(CustomPostgresqlPlatform.DEFAULT_TYPE_MAPPING);
+		if (Files.exists(dokkaJson)) {
+			adapter.withInputFile(dokkaJson);
+		}
+		return adapter;
+	}
+
+	private MetadataAdapter countingDelegate()
+	{
+		delegateCalls.incrementAndGet();
+		return () -> {
+			final Column column = new Column();
+			column.setName("id");
+			column.setTypeCode(Types.BIGINT);
+			column.setPrimaryKey(true);
+			column.setRequired(true);
+
+			final Table table = new Table();
+			table.setName("contract");
+			table.addColumn(column);
+
+			final Database database = new Database();
+			database.setName("desired");
+			database.addTable(table);
+			return database;
+		};
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.test.cache;
+
+import org.junit.jupiter.api.Test;
+
+import com.dtforce.migen.cache.LiveModelSnapshot;
+import com.dtforce.migen.platform.postgres.CustomPostgresqlPlatform;
+import com.dtforce.migen.platform.type.PlatformTypeMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LiveModelSnapshotTest
+{
+
+	@Test
+	public void testKeyCoversReaderAndTypeMapping()
+	{
+		final String key = LiveModelSnapshot.key(new CustomPostgresqlPlatform(null), "public");
+
+		assertThat(LiveModelSnapshot.key(new CustomPostgresqlPlatform(null), "public")).isEqualTo(key);
+		assertThat(LiveModelSnapshot.key(new CustomPostgresqlPlatform(null), "tenant")).isNotEqualTo(key);
+		assertThat(LiveModelSnapshot.key(
+			new CustomPostgresqlPlatform(null, CustomPostgresqlPlatform.ReaderMode.CATALOG),
+			"public"
+		)).isNotEqualTo(key);
+
+		final PlatformTypeMapping changedMapping = new PlatformTypeMapping()
+			.withMapping("INT8", rawTypedColumn -> {
+				rawTypedColumn.setRawCompleteType("INT8");
+				return rawTypedColumn;
+			});
+		assertThat(LiveModelSnapshot.key(new CustomPostgresqlPlatform(changedMapping), "public")).isNotEqualTo(key);
+	}
+
+}
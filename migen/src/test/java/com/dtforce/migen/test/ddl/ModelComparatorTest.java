@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.test.ddl;
+
+import org.apache.ddlutils.alteration.ModelChange;
+import org.apache.ddlutils.alteration.PrimaryKeyChange;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.platform.postgresql.PostgreSqlPlatform;
+import org.junit.jupiter.api.Test;
+
+import com.dtforce.migen.ddl.CustomModelComparator;
+import com.dtforce.migen.ddl.IndexedModelComparator;
+
+import java.sql.Types;
+import java.util.List;
+
+import static com.dtforce.migen.test.TestTools.column;
+import static com.dtforce.migen.test.TestTools.tableModel;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ModelComparatorTest
+{
+
+	@Test
+	public void testPrimaryKeyColumnSwapped()
+	{
+		final Database currentModel = tableModel(
+			"pk_test",
+			column("id", Types.VARCHAR, true),
+			column("first", Types.VARCHAR, true),
+			column("second", Types.VARCHAR, false)
+		);
+		final Database desiredModel = tableModel(
+			"pk_test",
+			column("id", Types.VARCHAR, true),
+			column("first", Types.VARCHAR, false),
+			column("second", Types.VARCHAR, true)
+		);
+
+		for (List<ModelChange> changes : compareWithBoth(currentModel, desiredModel)) {
+			assertThat(changes).filteredOn(PrimaryKeyChange.class::isInstance).hasSize(1);
+			final PrimaryKeyChange change = (PrimaryKeyChange) changes.stream()
+				.filter(PrimaryKeyChange.class::isInstance)
+				.findFirst()
+				.orElseThrow();
+			assertThat(change.getNewPrimaryKeyColumns()).extracting(Column::getName).containsExactly("id", "second");
+		}
+	}
+
+	@Test
+	public void testPrimaryKeyColumnsReordered()
+	{
+		final Database currentModel = tableModel(
+			"pk_test",
+			column("first", Types.VARCHAR, true),
+			column("second", Types.VARCHAR, true)
+		);
+		final Database desiredModel = tableModel(
+			"pk_test",
+			column("second", Types.VARCHAR, true),
+			column("first", Types.VARCHAR, true)
+		);
+
+		for (List<ModelChange> changes : compareWithBoth(currentModel, desiredModel)) {
+			assertThat(changes).noneMatch(PrimaryKeyChange.class::isInstance);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<List<ModelChange>> compareWithBoth(Database currentModel, Database desiredModel)
+	{
+		final var platformInfo = new PostgreSqlPlatform().getPlatformInfo();
+		final List<ModelChange> scanned = new CustomModelComparator(platformInfo, false).compare(currentModel, desiredModel);
+		final List<ModelChange> indexed = new IndexedModelComparator(platformInfo, false).compare(currentModel, desiredModel);
+		return List.of(scanned, indexed);
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.test.h2;
+
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import com.dtforce.migen.MigrationGenerator;
+import com.dtforce.migen.SchemaMigration;
+import com.dtforce.migen.platform.PlatformFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class H2MultiSchemaTest
+{
+
+	@Test
+	public void testSchemaMigrations() throws SQLException, IOException
+	{
+		final JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:tenants;DB_CLOSE_DELAY=-1");
+
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			for (String schema : List.of("tenant_a", "tenant_b", "tenant_c")) {
+				statement.execute("CREATE SCHEMA \"" + schema + "\"");
+				final String code = schema.equals("tenant_c") ? "" : ", \"code\" CHARACTER VARYING(36) NOT NULL";
+				statement.execute("CREATE TABLE \"" + schema + "\".\"tenant_item\" (\"id\" BIGINT PRIMARY KEY" + code + ")");
+			}
+			// the underscore of the pattern must not match it
+			statement.execute("CREATE SCHEMA \"tenantxa\"");
+
+			final MigrationGenerator migrationGenerator = new MigrationGenerator(
+				H2MultiSchemaTest::desiredModel,
+				dataSource,
+				PlatformFactory.INSTANCE.createPlatform("H2", null)
+			).withSchemaParallelism(2);
+
+			final List<SchemaMigration> migrations = migrationGenerator.generateSchemaMigrations("tenant\\_%");
+			assertThat(migrations).hasSize(2);
+			assertThat(migrations.get(0).getSchemas()).containsExactly("tenant_a", "tenant_b");
+			assertThat(migrations.get(0).getSql()).contains("\"code\"").doesNotContain("tenant_a");
+			assertThat(migrations.get(1).getSchemas()).containsExactly("tenant_c");
+			assertThat(migrations.get(1).isInSync()).isFalse();
+
+			final StringWriter writer = new StringWriter();
+			migrationGenerator.writeSchemaMigrationSQL(writer, migrations);
+			assertThat(writer.toString())
+				.contains("SET SCHEMA \"tenant_a\"", "SET SCHEMA \"tenant_b\"", "SET SCHEMA \"tenant_c\"")
+				.containsPattern("SET SCHEMA PUBLIC;\\s*$");
+			for (String sql : writer.toString().split(";\\s*\\n")) {
+				if (!sql.isBlank()) {
+					statement.execute(sql);
+				}
+			}
+
+			final List<SchemaMigration> migrated = migrationGenerator.generateSchemaMigrations("tenant\\_%");
+			assertThat(migrated).hasSize(1);
+			assertThat(migrated.get(0).getSchemas()).containsExactly("tenant_a", "tenant_b", "tenant_c");
+			assertThat(migrated.get(0).isInSync()).isTrue();
+		}
+	}
+
+	private static Database desiredModel()
+	{
+		final Table table = new Table();
+		table.setName("tenant_item");
+		table.addColumn(column("id", Types.BIGINT, null, true));
+		table.addColumn(column("code", Types.VARCHAR, "100", true));
+
+		final Database database = new Database();
+		database.setName("h2");
+		database.addTable(table);
+		return database;
+	}
+
+	private static Column column(String name, int typeCode, String size, boolean required)
+	{
+		final Column column = new Column();
+		column.setName(name);
+		column.setTypeCode(typeCode);
+		column.setSize(size);
+		column.setPrimaryKey(name.equals("id"));
+		column.setRequired(required);
+		return column;
+	}
+
+}
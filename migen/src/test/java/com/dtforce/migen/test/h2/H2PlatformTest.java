@@ -0,0 +1,160 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.test.h2;
+
+import org.apache.ddlutils.alteration.ColumnOrderChange;
+import org.apache.ddlutils.alteration.ModelChange;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.ForeignKey;
+import org.apache.ddlutils.model.IndexColumn;
+import org.apache.ddlutils.model.NonUniqueIndex;
+import org.apache.ddlutils.model.Reference;
+import org.apache.ddlutils.model.Table;
+import org.junit.jupiter.api.Test;
+
+import com.dtforce.migen.platform.MigenPlatform;
+import com.dtforce.migen.platform.MigenSqlBuilder;
+import com.dtforce.migen.platform.PlatformFactory;
+import com.dtforce.migen.platform.h2.CustomH2Platform;
+
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class H2PlatformTest
+{
+
+	private static final Predicate<ModelChange> CHANGE_PREDICATE = it -> !(it instanceof ColumnOrderChange);
+
+	private final MigenPlatform platform = PlatformFactory.INSTANCE.createPlatform("H2", null);
+
+	@Test
+	public void testPlatformFactory()
+	{
+		assertThat(platform).isInstanceOf(CustomH2Platform.class);
+	}
+
+	@Test
+	public void testMigrationRoundTrip() throws SQLException
+	{
+		try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:roundtrip")) {
+			migrate(connection, model(false));
+			migrate(connection, model(true));
+		}
+	}
+
+	@Test
+	public void testReadTableNames() throws SQLException
+	{
+		try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:tablenames")) {
+			migrate(connection, model(false));
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("CREATE VIEW h2_order_view AS SELECT * FROM h2_order");
+			}
+
+			final List<String> expected = platform.readTables(connection, null, it -> true).stream()
+				.map(Table::getName)
+				.collect(Collectors.toList());
+			assertThat(expected).hasSize(2);
+			assertThat(platform.readTableNames(connection, null)).containsExactlyInAnyOrderElementsOf(expected);
+		}
+	}
+
+	/**
+	 * Applies the migration to the desired model and asserts the database then matches it.
+	 */
+	private void migrate(Connection connection, Database desiredModel) throws SQLException
+	{
+		final Database currentModel = platform.readModelFromDatabase(connection, "h2");
+		final List<ModelChange> changes = platform.diff(currentModel, desiredModel, CHANGE_PREDICATE);
+		assertThat(changes).isNotEmpty();
+		assertThat(platform.findFirstDifference(currentModel, desiredModel, CHANGE_PREDICATE)).isNotNull();
+
+		final StringWriter writer = new StringWriter();
+		final MigenSqlBuilder sqlBuilder = platform.getSqlBuilder();
+		sqlBuilder.setWriter(writer);
+		sqlBuilder.writeSqlPatch(currentModel, desiredModel, changes);
+
+		try (Statement statement = connection.createStatement()) {
+			for (String sql : writer.toString().split(";\\s*\\n")) {
+				if (!sql.isBlank()) {
+					statement.execute(sql);
+				}
+			}
+		}
+
+		final Database migratedModel = platform.readModelFromDatabase(connection, "h2");
+		assertThat(platform.diff(migratedModel, desiredModel, CHANGE_PREDICATE)).isEmpty();
+		assertThat(platform.findFirstDifference(migratedModel, desiredModel, CHANGE_PREDICATE)).isNull();
+	}
+
+	private static Database model(boolean changed)
+	{
+		final Table order = new Table();
+		order.setName("h2_order");
+		order.setDescription(changed ? "Orders" : null);
+		order.addColumn(column("id", Types.BIGINT, null, true));
+		order.addColumn(column("code", Types.VARCHAR, changed ? "100" : "36", true));
+		order.addColumn(column("amount", Types.INTEGER, null, !changed));
+		if (changed) {
+			order.addColumn(column("note", Types.VARCHAR, "255", false));
+			final NonUniqueIndex index = new NonUniqueIndex();
+			index.setName("h2_order_code_idx");
+			index.addColumn(new IndexColumn("code"));
+			order.addIndex(index);
+		} else {
+			order.addColumn(column("legacy", Types.VARCHAR, "36", false));
+		}
+
+		final Table item = new Table();
+		item.setName("h2_item");
+		item.addColumn(column("id", Types.BIGINT, null, true));
+		item.addColumn(column("order_id", Types.BIGINT, null, true));
+		final ForeignKey foreignKey = new ForeignKey("h2_item_order_fk");
+		foreignKey.setForeignTableName(order.getName());
+		foreignKey.addReference(new Reference(item.findColumn("order_id"), order.findColumn("id")));
+		item.addForeignKey(foreignKey);
+
+		final Database database = new Database();
+		database.setName("h2");
+		database.addTable(item);
+		database.addTable(order);
+		database.initialize();
+		return database;
+	}
+
+	private static Column column(String name, int typeCode, String size, boolean required)
+	{
+		final Column column = new Column();
+		column.setName(name);
+		column.setTypeCode(typeCode);
+		column.setSize(size);
+		column.setPrimaryKey(name.equals("id"));
+		column.setRequired(required);
+		return column;
+	}
+
+}
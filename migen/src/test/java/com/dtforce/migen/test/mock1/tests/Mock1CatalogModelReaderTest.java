@@ -0,0 +1,81 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.test.mock1.tests;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.dtforce.migen.adapter.MetadataAdapter;
+import com.dtforce.migen.test.mock1.spring.Mock1;
+
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+import static com.dtforce.migen.test.TestTools.assertCatalogModelReaderIdentical;
+import static com.dtforce.migen.test.TestTools.assertIndexedComparatorIdentical;
+import static com.dtforce.migen.test.TestTools.assertParallelIntrospectionIdentical;
+import static com.dtforce.migen.test.TestTools.assertPartitionedReadIdentical;
+
+@ActiveProfiles({"migrationDiff", "disableMigrationCommand"})
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = {Mock1.class})
+@TestPropertySource(properties = {
+	"spring.jpa.hibernate.ddl-auto=none",
+	"spring.sql.init.mode=always",
+	"spring.jpa.properties.hibernate.dialect = org.hibernate.dialect.PostgreSQLDialect",
+	"spring.sql.init.platform=postgresql",
+	"spring.sql.init.schema-locations=/sql/mock1/schema1.sql",
+	"spring.datasource.url=jdbc:postgresql://${DB_HOST:localhost}:5432/postgres",
+	"spring.datasource.username=postgres",
+	"spring.datasource.password=postgres",
+	"spring.datasource.driver-class-name=org.postgresql.Driver"
+})
+public class Mock1CatalogModelReaderTest
+{
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private MetadataAdapter metadataAdapter;
+
+	@Test
+	public void testModelIdentical() throws SQLException {
+		assertCatalogModelReaderIdentical(dataSource);
+	}
+
+	@Test
+	public void testPartitionedModelIdentical() throws SQLException {
+		assertPartitionedReadIdentical(dataSource);
+	}
+
+	@Test
+	public void testParallelIntrospectionIdentical() {
+		assertParallelIntrospectionIdentical(dataSource, metadataAdapter);
+	}
+
+	@Test
+	public void testIndexedComparatorIdentical() throws SQLException {
+		assertIndexedComparatorIdentical(dataSource, metadataAdapter);
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.test.mock1.tests;
+
+import org.apache.ddlutils.alteration.RemoveTableChange;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.dtforce.migen.IntrospectionFilter;
+import com.dtforce.migen.MigrationGenerator;
+import com.dtforce.migen.adapter.MetadataAdapter;
+import com.dtforce.migen.platform.MigenPlatform;
+import com.dtforce.migen.platform.postgres.CustomPostgresqlPlatform;
+import com.dtforce.migen.test.mock1.spring.Mock1;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+
+import static com.dtforce.migen.test.TestTools.assertCatalogModelReaderIdentical;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles({"migrationDiff", "disableMigrationCommand"})
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = {Mock1.class})
+@TestPropertySource(properties = {
+	"spring.jpa.hibernate.ddl-auto=none",
+	"spring.sql.init.mode=always",
+	"spring.jpa.properties.hibernate.dialect = org.hibernate.dialect.PostgreSQLDialect",
+	"spring.sql.init.platform=postgresql",
+	"spring.sql.init.schema-locations=/sql/mock1/schema1.sql",
+	"spring.datasource.url=jdbc:postgresql://${DB_HOST:localhost}:5432/postgres",
+	"spring.datasource.username=postgres",
+	"spring.datasource.password=postgres",
+	"spring.datasource.driver-class-name=org.postgresql.Driver"
+})
+public class Mock1IntrospectionFilterTest
+{
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private MetadataAdapter metadataAdapter;
+
+	@Autowired
+	private MigenPlatform migenPlatform;
+
+	@Autowired
+	private MigrationGenerator migrationGenerator;
+
+	@Test
+	public void testUnmappedTablesFiltered() throws SQLException {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE \"staging_import\" (\"id\" BIGINT PRIMARY KEY)");
+			statement.execute("CREATE TABLE \"unmapped_log\" (\"id\" BIGINT PRIMARY KEY)");
+			statement.execute("CREATE TABLE \"partitioned_event\" (\"id\" BIGINT, \"day\" DATE) PARTITION BY RANGE (\"day\")");
+			statement.execute(
+				"CREATE TABLE \"partitioned_event_2024\" PARTITION OF \"partitioned_event\" " +
+				"FOR VALUES FROM ('2024-01-01') TO ('2025-01-01')"
+			);
+		}
+		try {
+			// partitions are never introspected, only their partitioned table
+			assertThat(removedTables(migrationGenerator))
+				.containsExactlyInAnyOrder("staging_import", "unmapped_log", "partitioned_event");
+
+			final MigrationGenerator filteredGenerator = new MigrationGenerator(metadataAdapter, dataSource, migenPlatform)
+				.withIntrospectionFilter(new IntrospectionFilter().withExclude("staging_.*"));
+			assertThat(removedTables(filteredGenerator)).containsExactlyInAnyOrder("unmapped_log", "partitioned_event");
+
+			final MigrationGenerator mappedGenerator = new MigrationGenerator(metadataAdapter, dataSource, migenPlatform)
+				.withMappedTablesOnly(true)
+				.withIntrospectionParallelism(2);
+			assertThat(removedTables(mappedGenerator)).isEmpty();
+			assertThat(mappedGenerator.generateMigrationChanges()).hasSize(
+				migrationGenerator.generateMigrationChanges().size() - 3
+			);
+		} finally {
+			try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+				statement.execute("DROP TABLE \"staging_import\", \"unmapped_log\", \"partitioned_event\"");
+			}
+		}
+	}
+
+	@Test
+	public void testPartitionedTableRead() throws SQLException {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute(
+				"CREATE TABLE \"partitioned_event\" (\"id\" BIGINT, \"day\" DATE, PRIMARY KEY (\"id\", \"day\")) " +
+				"PARTITION BY RANGE (\"day\")"
+			);
+			statement.execute(
+				"CREATE TABLE \"partitioned_event_2024\" PARTITION OF \"partitioned_event\" " +
+				"FOR VALUES FROM ('2024-01-01') TO ('2025-01-01')"
+			);
+		}
+		try {
+			for (CustomPostgresqlPlatform.ReaderMode readerMode : CustomPostgresqlPlatform.ReaderMode.values()) {
+				final CustomPostgresqlPlatform platform = new CustomPostgresqlPlatform(null, readerMode);
+				try (Connection connection = dataSource.getConnection()) {
+					final Database model = platform.readModelFromDatabase(connection, null, null);
+					final Table table = model.findTable("partitioned_event");
+					assertThat(table).as(readerMode.name()).isNotNull();
+					assertThat(table.getPrimaryKeyColumns()).extracting(Column::getName).containsExactly("id", "day");
+					assertThat(model.findTable("partitioned_event_2024")).as(readerMode.name()).isNull();
+				}
+			}
+			assertCatalogModelReaderIdentical(dataSource);
+		} finally {
+			try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+				statement.execute("DROP TABLE \"partitioned_event\"");
+			}
+		}
+	}
+
+	private static List<String> removedTables(MigrationGenerator generator)
+	{
+		return generator.generateMigrationChanges().stream()
+			.filter(it -> it instanceof RemoveTableChange)
+			.map(it -> ((RemoveTableChange) it).getChangedTable().getName())
+			.collect(Collectors.toList());
+	}
+
+}
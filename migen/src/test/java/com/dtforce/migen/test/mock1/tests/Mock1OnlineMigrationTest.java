@@ -0,0 +1,251 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.test.mock1.tests;
+
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.dtforce.migen.MigrationGenerator;
+import com.dtforce.migen.adapter.MetadataAdapter;
+import com.dtforce.migen.platform.MigenPlatform;
+import com.dtforce.migen.platform.SqlPatchOptions;
+import com.dtforce.migen.test.mock1.spring.Mock1;
+
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import javax.sql.DataSource;
+
+import static com.dtforce.migen.test.TestTools.column;
+import static com.dtforce.migen.test.TestTools.tableModel;
+import static com.dtforce.migen.test.TestTools.writeSqlPatch;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ActiveProfiles({"migrationDiff", "disableMigrationCommand"})
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = {Mock1.class})
+@TestPropertySource(properties = {
+	"spring.jpa.hibernate.ddl-auto=none",
+	"spring.sql.init.mode=always",
+	"spring.jpa.properties.hibernate.dialect = org.hibernate.dialect.PostgreSQLDialect",
+	"spring.sql.init.platform=postgresql",
+	"spring.sql.init.schema-locations=/sql/mock1/schema1.sql",
+	"spring.datasource.url=jdbc:postgresql://${DB_HOST:localhost}:5432/postgres",
+	"spring.datasource.username=postgres",
+	"spring.datasource.password=postgres",
+	"spring.datasource.driver-class-name=org.postgresql.Driver"
+})
+public class Mock1OnlineMigrationTest
+{
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private MetadataAdapter metadataAdapter;
+
+	@Autowired
+	private MigenPlatform migenPlatform;
+
+	@Test
+	public void testConcurrentIndexes() throws SQLException {
+		final MigrationGenerator concurrentGenerator = new MigrationGenerator(metadataAdapter, dataSource, migenPlatform)
+			.withConcurrentIndexes(true);
+
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("DROP INDEX \"fk2pvf6e16hyiajsagm7x1ntda0_idx\"");
+			statement.execute("CREATE INDEX \"concurrent_test_idx\" ON \"contract_property\" (\"type_name\")");
+		}
+		try {
+			final StringWriter writer = new StringWriter();
+			final StringWriter nonTransactionalWriter = new StringWriter();
+			concurrentGenerator.generateMigrationSQL(writer, nonTransactionalWriter);
+
+			assertThat(writer.toString())
+				.doesNotContain("fk2pvf6e16hyiajsagm7x1ntda0_idx")
+				.doesNotContain("concurrent_test_idx");
+			assertThat(nonTransactionalWriter.toString())
+				.containsPattern("CREATE INDEX CONCURRENTLY \"?fk2pvf6e16hyiajsagm7x1ntda0_idx")
+				.containsPattern("DROP INDEX CONCURRENTLY IF EXISTS \"?concurrent_test_idx");
+
+			// without the separate writer, the indices are created in the transactional migration
+			assertThat(concurrentGenerator.generateMigrationSQL())
+				.contains("fk2pvf6e16hyiajsagm7x1ntda0_idx")
+				.doesNotContain("CONCURRENTLY");
+		} finally {
+			try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+				statement.execute("DROP INDEX IF EXISTS \"concurrent_test_idx\"");
+				statement.execute("CREATE INDEX IF NOT EXISTS \"fk2pvf6e16hyiajsagm7x1ntda0_idx\" ON \"contract_property\" (\"contract_id\")");
+			}
+		}
+	}
+
+	@Test
+	public void testNotValidForeignKeys() throws SQLException {
+		final MigrationGenerator notValidGenerator = new MigrationGenerator(metadataAdapter, dataSource, migenPlatform)
+			.withNotValidForeignKeys(true);
+
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("ALTER TABLE \"contract_property\" DROP CONSTRAINT \"fk2pvf6e16hyiajsagm7x1ntda0\"");
+		}
+		try {
+			final StringWriter writer = new StringWriter();
+			final StringWriter nonTransactionalWriter = new StringWriter();
+			notValidGenerator.generateMigrationSQL(writer, nonTransactionalWriter);
+
+			assertThat(writer.toString())
+				.containsPattern("fk2pvf6e16hyiajsagm7x1ntda0\"? FOREIGN KEY \\(\"?contract_id\"?\\) REFERENCES .*\\) NOT VALID")
+				.doesNotContain("VALIDATE CONSTRAINT");
+			assertThat(nonTransactionalWriter.toString())
+				.containsPattern("VALIDATE CONSTRAINT \"?fk2pvf6e16hyiajsagm7x1ntda0");
+
+			// without the separate writer, validating in the same transaction would hold the lock of the ADD through
+			// the scan, so the foreign key is added as valid
+			assertThat(notValidGenerator.generateMigrationSQL())
+				.containsPattern("fk2pvf6e16hyiajsagm7x1ntda0\"? FOREIGN KEY \\(\"?contract_id\"?\\) REFERENCES [^;]*\\)\\s*;")
+				.doesNotContain("NOT VALID")
+				.doesNotContain("VALIDATE CONSTRAINT");
+
+			// with a transaction per statement, the validation is at the end of the migration in a transaction of its own
+			assertThat(notValidGenerator.withTransactionPerStatement(true).generateMigrationSQL())
+				.containsPattern("NOT VALID;\\s+COMMIT;[\\s\\S]*BEGIN;\\s+ALTER TABLE \"?contract_property\"?\\s+VALIDATE CONSTRAINT \"?fk2pvf6e16hyiajsagm7x1ntda0\"?;\\s+COMMIT;");
+		} finally {
+			try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+				statement.execute("ALTER TABLE \"contract_property\" DROP CONSTRAINT IF EXISTS \"fk2pvf6e16hyiajsagm7x1ntda0\"");
+				statement.execute("ALTER TABLE \"contract_property\" ADD CONSTRAINT \"fk2pvf6e16hyiajsagm7x1ntda0\" FOREIGN KEY (\"contract_id\") REFERENCES \"contract\"");
+			}
+		}
+	}
+
+	@Test
+	public void testPrimaryKeyAndColumnChangesInPlace() throws SQLException {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute("ALTER TABLE \"contract_property\" DROP CONSTRAINT \"contract_property_pkey\"");
+			statement.execute("ALTER TABLE \"contract_property\" ADD COLUMN \"in_place_test\" VARCHAR(10)");
+		}
+		try {
+			final String migrationSQL = new MigrationGenerator(metadataAdapter, dataSource, migenPlatform)
+				.generateMigrationSQL();
+
+			assertThat(migrationSQL)
+				.containsPattern("ADD CONSTRAINT \"?contract_property_pkey\"? PRIMARY KEY")
+				.containsPattern("DROP COLUMN \"?in_place_test")
+				.doesNotContain("CREATE TABLE")
+				.doesNotContain("INSERT INTO");
+		} finally {
+			try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+				statement.execute("ALTER TABLE \"contract_property\" DROP COLUMN IF EXISTS \"in_place_test\"");
+				statement.execute("ALTER TABLE \"contract_property\" DROP CONSTRAINT IF EXISTS \"contract_property_pkey\"");
+				statement.execute(
+					"ALTER TABLE \"contract_property\" ADD PRIMARY KEY " +
+						"(\"contract_id\", \"id_index_str\", \"property_name\", \"type_name\")"
+				);
+			}
+		}
+	}
+
+	@Test
+	public void testPrimaryKeyDropLooksUpTheName() throws SQLException {
+		final Database currentModel = tableModel(
+			"pk_drop_test",
+			column("id", Types.VARCHAR, true),
+			column("code", Types.VARCHAR, false)
+		);
+		final Database desiredModel = tableModel(
+			"pk_drop_test",
+			column("id", Types.VARCHAR, true),
+			column("code", Types.VARCHAR, true)
+		);
+
+		final String sql = writeSqlPatch(migenPlatform, currentModel, desiredModel, new SqlPatchOptions());
+		assertThat(sql)
+			.contains("contype = 'p'")
+			.contains("DROP CONSTRAINT %I")
+			.doesNotContainPattern("DROP CONSTRAINT \"?pk_drop_test_pkey");
+
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			// the primary key is not named the way migen would name it
+			statement.execute(
+				"CREATE TABLE pk_drop_test (id VARCHAR(36) NOT NULL, code VARCHAR(36) NOT NULL, " +
+					"CONSTRAINT pk_drop_test_custom PRIMARY KEY (id))"
+			);
+			statement.execute("CREATE TABLE pk_drop_ref (ref_id VARCHAR(36) REFERENCES pk_drop_test (id))");
+			try {
+				assertThatThrownBy(() -> statement.execute(sql))
+					.isInstanceOf(SQLException.class)
+					.hasMessageContaining("referenced by foreign keys")
+					.hasMessageContaining("pk_drop_ref");
+
+				statement.execute("DROP TABLE pk_drop_ref");
+				statement.execute(sql);
+				try (ResultSet resultSet = statement.executeQuery(
+					"SELECT count(*) FROM pg_catalog.pg_constraint c " +
+						"JOIN pg_catalog.pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY(c.conkey) " +
+						"WHERE c.conrelid = 'pk_drop_test'::regclass AND c.contype = 'p'"
+				)) {
+					resultSet.next();
+					assertThat(resultSet.getInt(1)).isEqualTo(2);
+				}
+			} finally {
+				statement.execute("DROP TABLE IF EXISTS pk_drop_ref");
+				statement.execute("DROP TABLE pk_drop_test");
+			}
+		}
+	}
+
+	@Test
+	public void testGroupedColumnAlterationsExecute() throws SQLException {
+		final Column widenedColumn = column("code", Types.VARCHAR, false);
+		widenedColumn.setSize("100");
+		final Column convertedColumn = column("amount", Types.INTEGER, false);
+		convertedColumn.setRequired(false);
+		final String sql = writeSqlPatch(
+			migenPlatform,
+			tableModel(
+				"grouped_test",
+				column("id", Types.VARCHAR, true),
+				column("code", Types.VARCHAR, false),
+				column("amount", Types.VARCHAR, false)
+			),
+			tableModel("grouped_test", column("id", Types.VARCHAR, true), widenedColumn, convertedColumn),
+			new SqlPatchOptions().withGroupedColumnAlterations(true)
+		);
+
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.execute(
+				"CREATE TABLE grouped_test (id VARCHAR(36) PRIMARY KEY, code VARCHAR(36) NOT NULL, amount VARCHAR(36) NOT NULL)"
+			);
+			try {
+				statement.execute(sql);
+			} finally {
+				statement.execute("DROP TABLE grouped_test");
+			}
+		}
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package com.dtforce.migen.test.mock1.tests;
 
+import org.apache.ddlutils.alteration.AddForeignKeyChange;
 import org.apache.ddlutils.alteration.AddTableChange;
 import org.apache.ddlutils.alteration.ModelChange;
 import org.apache.ddlutils.model.Column;
@@ -23,6 +24,7 @@ import org.apache.ddlutils.model.Table;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
@@ -34,7 +36,9 @@ import com.dtforce.migen.platform.MigenPlatform;
 import com.dtforce.migen.platform.MigenSqlBuilder;
 import com.dtforce.migen.test.mock1.spring.Mock1;
 
+import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -165,6 +169,25 @@ public class Mock1Test
 
 	}
 
+	@Test
+	public void testGenerateMigrationFile(@TempDir Path tempDir) throws IOException {
+		final Path migrationPath = tempDir.resolve("V1__initial.sql");
+
+		assertThat(migrationGenerator.generateMigration(migrationPath)).isTrue();
+		assertThat(migrationPath).hasContent(migrationGenerator.generateMigrationSQL());
+		assertThat(tempDir).isDirectoryNotContaining("glob:**.tmp");
+	}
+
+	@Test
+	public void testDriftCheck() {
+		assertThat(migrationGenerator.isInSync()).isFalse();
+		// missing tables are found before anything else is compared
+		assertThat(migrationGenerator.findFirstDifference()).containsInstanceOf(AddTableChange.class);
+		assertThat(migrationGenerator.findFirstDifference(it -> it instanceof AddForeignKeyChange))
+			.containsInstanceOf(AddForeignKeyChange.class);
+		assertThat(migrationGenerator.findFirstDifference(it -> false)).isEmpty();
+	}
+
 	private void assertColumnType(Column column, String type)
 	{
 		stringWriter.getBuffer().setLength(0);
@@ -0,0 +1,150 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.test.mysql;
+
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.IndexColumn;
+import org.apache.ddlutils.model.NonUniqueIndex;
+import org.apache.ddlutils.model.Table;
+import org.junit.jupiter.api.Test;
+
+import com.dtforce.migen.ddl.FilterIndexDef;
+import com.dtforce.migen.platform.MigenPlatform;
+import com.dtforce.migen.platform.MigenSqlBuilder;
+import com.dtforce.migen.platform.PlatformFactory;
+import com.dtforce.migen.platform.SqlPatchOptions;
+import com.dtforce.migen.platform.mysql.CustomMySqlPlatform;
+
+import java.io.StringWriter;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MySqlBuilderTest
+{
+
+	private final MigenPlatform platform = PlatformFactory.INSTANCE.createPlatform("MySQL", null);
+
+	@Test
+	public void testPlatformFactory()
+	{
+		assertThat(platform).isInstanceOf(CustomMySqlPlatform.class);
+		assertThat(PlatformFactory.INSTANCE.createPlatform("MariaDB", null)).isInstanceOf(CustomMySqlPlatform.class);
+	}
+
+	@Test
+	public void testOnlineDdlHints()
+	{
+		final Database currentModel = model(false);
+		final Database desiredModel = model(true);
+
+		final StringWriter writer = new StringWriter();
+		final MigenSqlBuilder sqlBuilder = platform.getSqlBuilder();
+		sqlBuilder.setWriter(writer);
+		sqlBuilder.writeSqlPatch(currentModel, desiredModel, platform.diff(currentModel, desiredModel, it -> true));
+
+		assertThat(writer.toString())
+			.containsPattern("ADD COLUMN `?note`? VARCHAR\\(255\\)[^;]*, ALGORITHM=INSTANT;")
+			.containsPattern("DROP COLUMN `?legacy`?, ALGORITHM=INPLACE, LOCK=NONE;")
+			.containsPattern("ALTER COLUMN `?amount`? SET DEFAULT 0, ALGORITHM=INSTANT;")
+			.containsPattern("MODIFY COLUMN `?code`? VARCHAR\\(100\\)[^;]*NOT NULL;")
+			.containsPattern("CREATE INDEX `?mysql_test_code_idx`? ON `?mysql_test`? \\(`?code`?\\) ALGORITHM=INPLACE LOCK=NONE;");
+	}
+
+	@Test
+	public void testLockTimeoutAndCopyWarning()
+	{
+		final Database currentModel = model(false);
+		final Database desiredModel = model(true);
+
+		final StringWriter writer = new StringWriter();
+		final MigenSqlBuilder sqlBuilder = platform.getSqlBuilder();
+		sqlBuilder.setWriter(writer);
+		sqlBuilder.setPatchOptions(new SqlPatchOptions().withLockTimeout(Duration.ofMillis(2500)));
+		sqlBuilder.setTableSizes(Map.of("mysql_test", 8L * 1024 * 1024));
+		sqlBuilder.writeSqlPatch(currentModel, desiredModel, platform.diff(currentModel, desiredModel, it -> true));
+
+		assertThat(writer.toString())
+			.startsWith("SET SESSION lock_wait_timeout = 3;")
+			.containsPattern("mysql_test\\.code may copy the table \\(8\\.0 MB[^;]*MODIFY COLUMN `?code`?")
+			.containsPattern("SET SESSION lock_wait_timeout = DEFAULT;\\s*$");
+	}
+
+	@Test
+	public void testFilteredIndexSkipped()
+	{
+		final Database currentModel = model(false);
+		final Database desiredModel = model(true);
+		final NonUniqueIndex index = new NonUniqueIndex();
+		index.setName("mysql_test_note_idx");
+		index.addColumn(new IndexColumn("note"));
+		desiredModel.getTable(0).addIndex(FilterIndexDef.fromIndex(index, "note IS NOT NULL"));
+
+		final StringWriter writer = new StringWriter();
+		final MigenSqlBuilder sqlBuilder = platform.getSqlBuilder();
+		sqlBuilder.setWriter(writer);
+		sqlBuilder.writeSqlPatch(currentModel, desiredModel, platform.diff(currentModel, desiredModel, it -> true));
+
+		assertThat(writer.toString())
+			.contains("skipping index mysql_test_note_idx of mysql_test")
+			.contains("WHERE note IS NOT NULL")
+			.doesNotContainPattern("CREATE INDEX `?mysql_test_note_idx")
+			.containsPattern("CREATE INDEX `?mysql_test_code_idx");
+	}
+
+	private static Database model(boolean desired)
+	{
+		final Table table = new Table();
+		table.setName("mysql_test");
+		table.addColumn(column("id", Types.BIGINT, null, true));
+		table.addColumn(column("code", Types.VARCHAR, desired ? "100" : "36", true));
+		final Column amount = column("amount", Types.INTEGER, null, true);
+		if (desired) {
+			amount.setDefaultValue("0");
+		}
+		table.addColumn(amount);
+		if (desired) {
+			table.addColumn(column("note", Types.VARCHAR, "255", false));
+			final NonUniqueIndex index = new NonUniqueIndex();
+			index.setName("mysql_test_code_idx");
+			index.addColumn(new IndexColumn("code"));
+			table.addIndex(index);
+		} else {
+			table.addColumn(column("legacy", Types.VARCHAR, "36", false));
+		}
+
+		final Database database = new Database();
+		database.setName("mysql");
+		database.addTable(table);
+		return database;
+	}
+
+	private static Column column(String name, int typeCode, String size, boolean required)
+	{
+		final Column column = new Column();
+		column.setName(name);
+		column.setTypeCode(typeCode);
+		column.setSize(size);
+		column.setPrimaryKey(name.equals("id"));
+		column.setRequired(required);
+		return column;
+	}
+
+}
@@ -0,0 +1,204 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.dtforce.migen.test.mysql;
+
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.ForeignKey;
+import org.apache.ddlutils.model.Table;
+import org.h2.tools.SimpleResultSet;
+import org.junit.jupiter.api.Test;
+
+import com.dtforce.migen.ddl.RawTypedColumn;
+import com.dtforce.migen.platform.MigenPlatform;
+import com.dtforce.migen.platform.PlatformFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Maps rows shaped like the {@code information_schema} query results to the model, without a MySQL server.
+ */
+public class MySqlModelReaderTest
+{
+
+	private final MigenPlatform platform = PlatformFactory.INSTANCE.createPlatform("MySQL", null);
+
+	@Test
+	public void testReadTableNames() throws SQLException
+	{
+		final List<String> queries = new ArrayList<>();
+		assertThat(platform.readTableNames(connection(queries), null)).containsExactly("orders", "order_item");
+		// only the table list is queried, not the columns, keys and indices
+		assertThat(queries).hasSize(1).allMatch(it -> it.contains("information_schema.TABLES"));
+	}
+
+	@Test
+	public void testReadTables() throws SQLException
+	{
+		final List<Table> tables = new ArrayList<>(platform.readTables(connection(new ArrayList<>()), null, null));
+		assertThat(tables).extracting(Table::getName).containsExactly("orders", "order_item");
+
+		final Table orders = tables.get(0);
+		assertThat(orders.getSchema()).isEqualTo("shop");
+		assertThat(orders.getDescription()).isEqualTo("Customer orders");
+		assertThat(orders.getPrimaryKeyColumns()).extracting(Column::getName).containsExactly("id");
+
+		final Column id = orders.findColumn("id", true);
+		assertThat(id.getTypeCode()).isEqualTo(Types.BIGINT);
+		assertThat(id.isRequired()).isTrue();
+		assertThat(id.isAutoIncrement()).isTrue();
+		assertThat(id.getDescription()).isNull();
+
+		final RawTypedColumn code = (RawTypedColumn) orders.findColumn("code", true);
+		assertThat(code.getTypeCode()).isEqualTo(Types.VARCHAR);
+		assertThat(code.getSizeAsInt()).isEqualTo(36);
+		assertThat(code.getRawCompleteType()).isEqualTo("VARCHAR(36)");
+		assertThat(code.getDescription()).isEqualTo("Order code");
+
+		final RawTypedColumn created = (RawTypedColumn) orders.findColumn("created", true);
+		assertThat(created.isRequired()).isFalse();
+		assertThat(created.getDefaultValue()).isEqualTo("CURRENT_TIMESTAMP(3)");
+		assertThat(created.getRawCompleteType()).isEqualTo("DATETIME(3)");
+
+		assertThat(orders.getIndexCount()).isEqualTo(1);
+		assertThat(orders.getIndex(0).getName()).isEqualTo("orders_code_uk");
+		assertThat(orders.getIndex(0).isUnique()).isTrue();
+
+		final Table orderItem = tables.get(1);
+		assertThat(orderItem.getDescription()).isNull();
+		final RawTypedColumn amount = (RawTypedColumn) orderItem.findColumn("amount", true);
+		assertThat(amount.getTypeCode()).isEqualTo(Types.DECIMAL);
+		assertThat(amount.getRawCompleteType()).isEqualTo("DECIMAL(10,2)");
+		assertThat(amount.getDefaultValue()).isEqualTo("0.00");
+
+		assertThat(orderItem.getForeignKeyCount()).isEqualTo(1);
+		final ForeignKey foreignKey = orderItem.getForeignKey(0);
+		assertThat(foreignKey.getName()).isEqualTo("fk_item_order");
+		assertThat(foreignKey.getForeignTableName()).isEqualTo("orders");
+		assertThat(foreignKey.getFirstReference().getLocalColumnName()).isEqualTo("order_id");
+		assertThat(foreignKey.getFirstReference().getForeignColumnName()).isEqualTo("id");
+		// the index MySQL creates to back the foreign key is not a part of the model
+		assertThat(orderItem.getIndexCount()).isZero();
+	}
+
+	@Test
+	public void testReadTableSizes() throws SQLException
+	{
+		assertThat(platform.readTableSizes(connection(new ArrayList<>()), null))
+			.isEqualTo(Map.of("orders", 16384L, "order_item", 65536L));
+	}
+
+	/**
+	 * Answers each query with the rows of the {@code information_schema} view it selects from.
+	 */
+	private static Connection connection(List<String> queries) throws SQLException
+	{
+		final Connection connection = mock(Connection.class);
+		when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+			final String query = invocation.getArgument(0);
+			queries.add(query);
+			final PreparedStatement statement = mock(PreparedStatement.class);
+			final ResultSet resultSet = resultSet(query);
+			when(statement.executeQuery()).thenReturn(resultSet);
+			return statement;
+		});
+		return connection;
+	}
+
+	private static ResultSet resultSet(String query)
+	{
+		if (query.contains("t.DATA_LENGTH")) {
+			return rows(
+				new String[]{"TABLE_NAME", "DATA_LENGTH"},
+				new Object[]{"orders", 16384L},
+				new Object[]{"order_item", 65536L}
+			);
+		} else if (query.contains("information_schema.TABLES")) {
+			return rows(
+				new String[]{"TABLE_SCHEMA", "TABLE_NAME", "TABLE_COMMENT"},
+				new Object[]{"shop", "orders", "Customer orders"},
+				new Object[]{"shop", "order_item", ""}
+			);
+		} else if (query.contains("information_schema.COLUMNS")) {
+			return rows(
+				new String[]{
+					"TABLE_SCHEMA", "TABLE_NAME", "COLUMN_NAME", "DATA_TYPE", "COLUMN_TYPE", "IS_NULLABLE",
+					"COLUMN_DEFAULT", "CHARACTER_MAXIMUM_LENGTH", "NUMERIC_PRECISION", "NUMERIC_SCALE",
+					"DATETIME_PRECISION", "EXTRA", "COLUMN_COMMENT"
+				},
+				new Object[]{
+					"shop", "orders", "id", "bigint", "bigint", "NO", null, null, 19, 0, null, "auto_increment", ""
+				},
+				new Object[]{
+					"shop", "orders", "code", "varchar", "varchar(36)", "NO", null, 36L, null, null, null, "",
+					"Order code"
+				},
+				new Object[]{
+					"shop", "orders", "created", "datetime", "datetime(3)", "YES", "CURRENT_TIMESTAMP(3)", null, null,
+					null, 3, "DEFAULT_GENERATED", ""
+				},
+				new Object[]{
+					"shop", "order_item", "order_id", "bigint", "bigint", "NO", null, null, 19, 0, null, "", ""
+				},
+				new Object[]{
+					"shop", "order_item", "amount", "decimal", "decimal(10,2)", "NO", "0.00", null, 10, 2, null, "", ""
+				}
+			);
+		} else if (query.contains("information_schema.STATISTICS")) {
+			return rows(
+				new String[]{"TABLE_SCHEMA", "TABLE_NAME", "INDEX_NAME", "NON_UNIQUE", "COLUMN_NAME"},
+				new Object[]{"shop", "orders", "PRIMARY", false, "id"},
+				new Object[]{"shop", "orders", "orders_code_uk", false, "code"},
+				new Object[]{"shop", "order_item", "fk_item_order", true, "order_id"}
+			);
+		} else if (query.contains("information_schema.KEY_COLUMN_USAGE")) {
+			return rows(
+				new String[]{
+					"TABLE_SCHEMA", "TABLE_NAME", "CONSTRAINT_NAME", "COLUMN_NAME", "REFERENCED_TABLE_NAME",
+					"REFERENCED_COLUMN_NAME"
+				},
+				new Object[]{"shop", "order_item", "fk_item_order", "order_id", "orders", "id"}
+			);
+		}
+		throw new IllegalArgumentException("Unexpected query " + query);
+	}
+
+	private static ResultSet rows(String[] columnNames, Object[]... rows)
+	{
+		final SimpleResultSet resultSet = new SimpleResultSet();
+		for (String columnName : columnNames) {
+			resultSet.addColumn(columnName, Types.OTHER, 0, 0);
+		}
+		for (Object[] row : rows) {
+			resultSet.addRow(row);
+		}
+		return resultSet;
+	}
+
+}
@@ -0,0 +1,216 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.dtforce.migen.test.postgres;
+
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.junit.jupiter.api.Test;
+
+import com.dtforce.migen.platform.MigenPlatform;
+import com.dtforce.migen.platform.MigenSqlBuilder;
+import com.dtforce.migen.platform.PlatformFactory;
+import com.dtforce.migen.platform.SqlPatchOptions;
+
+import java.io.StringWriter;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.Map;
+
+import static com.dtforce.migen.test.TestTools.column;
+import static com.dtforce.migen.test.TestTools.tableModel;
+import static com.dtforce.migen.test.TestTools.writeSqlPatch;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PostgresqlBuilderTest
+{
+
+	private final MigenPlatform platform = PlatformFactory.INSTANCE.createPlatform("PostgreSQL", null);
+
+	@Test
+	public void testBackfilledRequiredColumn()
+	{
+		final Database currentModel = tableModel("backfill_test", column("id", Types.VARCHAR, true));
+		final Database desiredModel = tableModel(
+			"backfill_test",
+			column("id", Types.VARCHAR, true),
+			column("amount", Types.INTEGER, false)
+		);
+
+		final StringWriter writer = new StringWriter();
+		final StringWriter nonTransactionalWriter = new StringWriter();
+		final MigenSqlBuilder sqlBuilder = platform.getSqlBuilder();
+		sqlBuilder.setWriter(writer);
+		sqlBuilder.setNonTransactionalWriter(nonTransactionalWriter);
+		sqlBuilder.setPatchOptions(new SqlPatchOptions().withBackfillBatchSize(5000));
+		sqlBuilder.writeSqlPatch(currentModel, desiredModel, platform.diff(currentModel, desiredModel, it -> true));
+
+		assertThat(writer.toString())
+			.containsPattern("ADD COLUMN \"?amount\"? INTEGER")
+			.doesNotContain("NOT NULL")
+			.doesNotContain("UPDATE");
+		assertThat(nonTransactionalWriter.toString())
+			.containsPattern("WHERE \"?id\"? >= batch_start ORDER BY \"?id\"? LIMIT 5000")
+			.containsPattern("\"?id\"? >= batch_start AND \"?id\"? <= batch_end AND \"?amount\"? IS NULL;")
+			// the next batch starts behind the end of the previous one
+			.containsPattern("INTO batch_start FROM \"?backfill_test\"? WHERE \"?id\"? > batch_end;")
+			.doesNotContain("ctid")
+			.contains("COMMIT;")
+			.containsPattern("CHECK \\(\"?amount\"? IS NOT NULL\\) NOT VALID")
+			.contains("VALIDATE CONSTRAINT")
+			.containsPattern("ALTER COLUMN \"?amount\"? SET NOT NULL");
+	}
+
+	@Test
+	public void testBackfilledRequiredColumnWithoutSingleColumnKey()
+	{
+		final Database currentModel = tableModel(
+			"backfill_test",
+			column("id", Types.VARCHAR, true),
+			column("revision", Types.INTEGER, true)
+		);
+		final Database desiredModel = tableModel(
+			"backfill_test",
+			column("id", Types.VARCHAR, true),
+			column("revision", Types.INTEGER, true),
+			column("amount", Types.INTEGER, false)
+		);
+
+		final String sql = writeSqlPatch(
+			platform,
+			currentModel,
+			desiredModel,
+			new SqlPatchOptions().withBackfillBatchSize(5000)
+		);
+		assertThat(sql)
+			.containsPattern("WHERE ctid >= format\\('\\(%s,0\\)', batch_start\\)::tid " +
+				"AND ctid < format\\('\\(%s,0\\)', batch_start \\+ batch_pages\\)::tid AND \"?amount\"? IS NULL;")
+			.contains("batch_start := batch_start + batch_pages;")
+			.doesNotContain("LIMIT")
+			.doesNotContain("COMMIT;");
+	}
+
+	@Test
+	public void testRewritingTypeChangeAnnotated()
+	{
+		final Database currentModel = tableModel(
+			"rewrite_test",
+			column("id", Types.VARCHAR, true),
+			column("code", Types.VARCHAR, false),
+			column("note", Types.VARCHAR, false),
+			column("amount", Types.VARCHAR, false)
+		);
+		final Column widenedColumn = column("code", Types.VARCHAR, false);
+		widenedColumn.setSize("100");
+		final Database desiredModel = tableModel(
+			"rewrite_test",
+			column("id", Types.VARCHAR, true),
+			widenedColumn,
+			column("note", Types.LONGVARCHAR, false),
+			column("amount", Types.INTEGER, false)
+		);
+
+		final StringWriter writer = new StringWriter();
+		final MigenSqlBuilder sqlBuilder = platform.getSqlBuilder();
+		sqlBuilder.setWriter(writer);
+		sqlBuilder.setNonTransactionalWriter(null);
+		sqlBuilder.setPatchOptions(new SqlPatchOptions());
+		sqlBuilder.setTableSizes(Map.of("rewrite_test", 8L * 1024 * 1024));
+		sqlBuilder.writeSqlPatch(currentModel, desiredModel, platform.diff(currentModel, desiredModel, it -> true));
+
+		assertThat(writer.toString())
+			.containsPattern("ALTER COLUMN \"?code\"? TYPE VARCHAR\\(100\\)")
+			.doesNotContainPattern("rewrite_test\\.code .*rewrites the table")
+			.containsPattern("ALTER COLUMN \"?note\"? TYPE TEXT")
+			.doesNotContainPattern("rewrite_test\\.note .*rewrites the table")
+			.doesNotContainPattern("USING \"?(code|note)\"?")
+			.containsPattern("rewrite_test\\.amount .*rewrites the table \\(8\\.0 MB")
+			.containsPattern("ALTER COLUMN \"?amount\"? TYPE INTEGER USING \"?amount\"?::INTEGER");
+	}
+
+	@Test
+	public void testTimeoutGuardsAndTransactionPerStatement()
+	{
+		final Database currentModel = tableModel("guard_test", column("id", Types.VARCHAR, true));
+		final Column addedColumn = column("note", Types.VARCHAR, false);
+		addedColumn.setRequired(false);
+		final Database desiredModel = tableModel("guard_test", column("id", Types.VARCHAR, true), addedColumn);
+
+		final SqlPatchOptions patchOptions = new SqlPatchOptions()
+			.withLockTimeout(Duration.ofSeconds(2))
+			.withStatementTimeout(Duration.ofMinutes(1))
+			.withTransactionPerStatement(true);
+		assertThat(writeSqlPatch(platform, currentModel, desiredModel, patchOptions))
+			.startsWith("SET lock_timeout = '2000ms';")
+			.contains("SET statement_timeout = '60000ms';")
+			.containsPattern("BEGIN;\\s+ALTER TABLE \"?guard_test\"?\\s+ADD COLUMN \"?note\"? VARCHAR\\(36\\)[^;]*;\\s+COMMIT;")
+			.containsPattern("RESET lock_timeout;\\s+RESET statement_timeout;\\s*$");
+
+		// nothing to change, so no guards either
+		assertThat(writeSqlPatch(platform, desiredModel, desiredModel, patchOptions)).isEmpty();
+	}
+
+	@Test
+	public void testGroupedColumnAlterations()
+	{
+		final Database currentModel = tableModel(
+			"grouped_test",
+			column("id", Types.VARCHAR, true),
+			column("code", Types.VARCHAR, false),
+			column("note", Types.VARCHAR, false),
+			column("amount", Types.VARCHAR, false)
+		);
+		final Column widenedColumn = column("code", Types.VARCHAR, false);
+		widenedColumn.setSize("100");
+		final Column convertedColumn = column("amount", Types.INTEGER, false);
+		convertedColumn.setRequired(false);
+		final Database desiredModel = tableModel(
+			"grouped_test",
+			column("id", Types.VARCHAR, true),
+			widenedColumn,
+			convertedColumn
+		);
+
+		final String sql = writeSqlPatch(
+			platform,
+			currentModel,
+			desiredModel,
+			new SqlPatchOptions().withGroupedColumnAlterations(true)
+		);
+		assertThat(sql.split("ALTER TABLE", -1)).hasSize(2);
+		assertThat(sql)
+			.containsPattern("ALTER COLUMN \"?code\"? TYPE VARCHAR\\(100\\)")
+			.containsPattern("ALTER COLUMN \"?amount\"? TYPE INTEGER USING \"?amount\"?::INTEGER")
+			.containsPattern("ALTER COLUMN \"?amount\"? DROP NOT NULL");
+	}
+
+	@Test
+	public void testSchemaSelectionAndReset()
+	{
+		final StringWriter writer = new StringWriter();
+		final MigenSqlBuilder sqlBuilder = platform.getSqlBuilder();
+		sqlBuilder.setWriter(writer);
+		sqlBuilder.setPatchOptions(new SqlPatchOptions().withLockTimeout(Duration.ofSeconds(2)));
+		sqlBuilder.writeSchemaSelection("tenant_a");
+		sqlBuilder.writeSchemaReset();
+
+		assertThat(writer.toString())
+			.containsPattern("^SET search_path TO \"?tenant_a\"?;\\s+RESET search_path;\\s*$")
+			.doesNotContain("lock_timeout");
+	}
+
+}
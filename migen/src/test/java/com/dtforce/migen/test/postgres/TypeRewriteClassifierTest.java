@@ -0,0 +1,83 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.test.postgres;
+
+import org.junit.jupiter.api.Test;
+
+import com.dtforce.migen.platform.postgres.TypeRewriteClassifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TypeRewriteClassifierTest
+{
+
+	@Test
+	public void testCharacterTypes()
+	{
+		assertThat(TypeRewriteClassifier.requiresRewrite("VARCHAR(36)", "TEXT")).isFalse();
+		assertThat(TypeRewriteClassifier.requiresRewrite("VARCHAR(36)", "VARCHAR")).isFalse();
+		assertThat(TypeRewriteClassifier.requiresRewrite("VARCHAR(36)", "VARCHAR(100)")).isFalse();
+		assertThat(TypeRewriteClassifier.requiresRewrite("character varying(36)", "varchar(40)")).isFalse();
+		assertThat(TypeRewriteClassifier.requiresRewrite("TEXT", "VARCHAR")).isFalse();
+		assertThat(TypeRewriteClassifier.requiresRewrite("TEXT", "TEXT")).isFalse();
+
+		assertThat(TypeRewriteClassifier.requiresRewrite("VARCHAR(100)", "VARCHAR(36)")).isTrue();
+		assertThat(TypeRewriteClassifier.requiresRewrite("TEXT", "VARCHAR(10)")).isTrue();
+		assertThat(TypeRewriteClassifier.requiresCast("TEXT", "VARCHAR(10)")).isFalse();
+	}
+
+	@Test
+	public void testNumericTypes()
+	{
+		assertThat(TypeRewriteClassifier.requiresRewrite("NUMERIC(10,2)", "NUMERIC(12,2)")).isFalse();
+		assertThat(TypeRewriteClassifier.requiresRewrite("DECIMAL(10, 2)", "numeric(12,2)")).isFalse();
+		assertThat(TypeRewriteClassifier.requiresRewrite("NUMERIC(10,2)", "NUMERIC(12,3)")).isTrue();
+		assertThat(TypeRewriteClassifier.requiresRewrite("NUMERIC(12,2)", "NUMERIC(10,2)")).isTrue();
+
+		assertThat(TypeRewriteClassifier.requiresRewrite("INTEGER", "BIGINT")).isTrue();
+		assertThat(TypeRewriteClassifier.requiresCast("INTEGER", "BIGINT")).isTrue();
+		assertThat(TypeRewriteClassifier.requiresRewrite("double precision", "float8")).isFalse();
+	}
+
+	@Test
+	public void testTemporalTypes()
+	{
+		assertThat(TypeRewriteClassifier.requiresRewrite("TIMESTAMP", "TIMESTAMPTZ")).isTrue();
+		assertThat(TypeRewriteClassifier.requiresCast("TIMESTAMP", "TIMESTAMPTZ")).isTrue();
+		assertThat(TypeRewriteClassifier.requiresRewrite("timestamp(3) with time zone", "TIMESTAMPTZ")).isFalse();
+		assertThat(TypeRewriteClassifier.requiresRewrite("TIMESTAMP(6)", "TIMESTAMP(3)")).isTrue();
+	}
+
+	@Test
+	public void testArrayTypes()
+	{
+		assertThat(TypeRewriteClassifier.requiresRewrite("TEXT[]", "VARCHAR[]")).isFalse();
+		assertThat(TypeRewriteClassifier.requiresRewrite("integer [3]", "int4[]")).isFalse();
+
+		assertThat(TypeRewriteClassifier.requiresRewrite("TEXT[]", "TEXT")).isTrue();
+		assertThat(TypeRewriteClassifier.requiresCast("TEXT[]", "TEXT")).isTrue();
+		assertThat(TypeRewriteClassifier.requiresRewrite("INTEGER[]", "INTEGER[][]")).isTrue();
+	}
+
+	@Test
+	public void testUnparsableTypesRewrite()
+	{
+		assertThat(TypeRewriteClassifier.requiresRewrite(null, "TEXT")).isTrue();
+		assertThat(TypeRewriteClassifier.requiresRewrite("TEXT", "\"custom\"")).isTrue();
+	}
+
+}
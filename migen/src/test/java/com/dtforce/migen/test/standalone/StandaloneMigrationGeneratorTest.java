@@ -0,0 +1,74 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.test.standalone;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.boot.model.naming.ImplicitNamingStrategyJpaCompliantImpl;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.H2Dialect;
+import org.junit.jupiter.api.Test;
+
+import com.dtforce.migen.intergrations.standalone.StandaloneMigrationGenerator;
+import com.dtforce.migen.test.mock1.entities.Contract;
+import com.dtforce.migen.test.mock1.entities.ContractProperty;
+import com.dtforce.migen.test.mock1.entities.ContractType;
+import com.dtforce.migen.test.mock1.entities.ContractTypeProperty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StandaloneMigrationGeneratorTest
+{
+
+	@Test
+	public void testGenerateWithoutSpring()
+	{
+		final JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:standalone");
+
+		try (StandaloneMigrationGenerator bootstrap = new StandaloneMigrationGenerator()
+			.withAnnotatedClasses(Contract.class, ContractProperty.class, ContractType.class, ContractTypeProperty.class)
+			.withDialect(H2Dialect.class.getName())) {
+			final String sql = bootstrap.create(dataSource).generateMigrationSQL();
+
+			assertThat(sql)
+				.containsPattern("CREATE TABLE \"?contract\"?\\s*\\(")
+				.containsPattern("CREATE TABLE \"?contract_type_property\"?\\s*\\(");
+		}
+	}
+
+	@Test
+	public void testGenerateWithoutSpringBoot()
+	{
+		final ClassLoader withoutSpringBoot = new ClassLoader(null)
+		{
+		};
+		final String namingStrategy = StandaloneMigrationGenerator.defaultImplicitNamingStrategy(withoutSpringBoot);
+		assertThat(namingStrategy).isEqualTo(ImplicitNamingStrategyJpaCompliantImpl.class.getName());
+
+		final JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:standalone-without-spring-boot");
+
+		try (StandaloneMigrationGenerator bootstrap = new StandaloneMigrationGenerator()
+			.withAnnotatedClasses(Contract.class, ContractProperty.class, ContractType.class, ContractTypeProperty.class)
+			.withSetting(AvailableSettings.IMPLICIT_NAMING_STRATEGY, namingStrategy)
+			.withDialect(H2Dialect.class.getName())) {
+			assertThat(bootstrap.create(dataSource).generateMigrationSQL())
+				.containsPattern("CREATE TABLE \"?contract\"?\\s*\\(");
+		}
+	}
+
+}
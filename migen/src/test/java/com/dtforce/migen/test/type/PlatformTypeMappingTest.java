@@ -0,0 +1,82 @@
+/*
+ *    Copyright 2024 Jan Mareš, DTForce s.r.o.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.dtforce.migen.test.type;
+
+import org.junit.jupiter.api.Test;
+
+import com.dtforce.migen.ddl.RawTypedColumn;
+import com.dtforce.migen.platform.postgres.CustomPostgresqlPlatform;
+import com.dtforce.migen.platform.type.PlatformTypeMapping;
+
+import java.sql.Types;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PlatformTypeMappingTest
+{
+
+	@Test
+	public void testCachedMappingIdentical()
+	{
+		final PlatformTypeMapping mapping = CustomPostgresqlPlatform.DEFAULT_TYPE_MAPPING;
+		for (int round = 0; round < 2; round++) {
+			assertThat(mapping.map("_VARCHAR", column(Types.ARRAY, 36, 0)).getRawCompleteType())
+				.isEqualTo("VARCHAR(36)[]");
+			assertThat(mapping.map("NUMERIC", column(Types.NUMERIC, 19, 2)).getRawCompleteType())
+				.isEqualTo("NUMERIC(19,2)");
+			assertThat(mapping.map("NUMERIC", column(Types.NUMERIC, 38, 4)).getRawCompleteType())
+				.isEqualTo("NUMERIC(38,4)");
+			assertThat(mapping.map("UUID", column(Types.OTHER, 0, 0)).getRawCompleteType())
+				.isEqualTo("UUID");
+		}
+	}
+
+	@Test
+	public void testProcessorsRunOncePerKey()
+	{
+		final AtomicInteger invocations = new AtomicInteger();
+		final PlatformTypeMapping mapping = new PlatformTypeMapping()
+			.withMapping("VARCHAR", rawTypedColumn -> {
+				invocations.incrementAndGet();
+				rawTypedColumn.setRawCompleteType(String.format("VARCHAR(%d)", rawTypedColumn.getSizeAsInt()));
+				return rawTypedColumn;
+			})
+			.compile();
+
+		mapping.map("VARCHAR", column(Types.VARCHAR, 36, 0));
+		mapping.map("VARCHAR", column(Types.VARCHAR, 36, 0));
+		assertThat(mapping.map("VARCHAR", column(Types.VARCHAR, 100, 0)).getRawCompleteType())
+			.isEqualTo("VARCHAR(100)");
+		assertThat(invocations).hasValue(2);
+
+		mapping.withResultCache(false);
+		mapping.map("VARCHAR", column(Types.VARCHAR, 36, 0));
+		mapping.map("VARCHAR", column(Types.VARCHAR, 36, 0));
+		assertThat(invocations).hasValue(4);
+	}
+
+	private static RawTypedColumn column(int typeCode, int size, int scale)
+	{
+		final RawTypedColumn column = new RawTypedColumn();
+		column.setName("test");
+		column.setTypeCode(typeCode);
+		column.setSizeAndScale(size, scale);
+		return column;
+	}
+
+}